@@ -10,6 +10,7 @@ plugins {
     alias(libs.plugins.changelog) // Gradle Changelog Plugin
     alias(libs.plugins.qodana) // Gradle Qodana Plugin
     alias(libs.plugins.kover) // Gradle Kover Plugin
+    alias(libs.plugins.jmh) // JMH benchmarks in src/jmh
 }
 
 // utf-8
@@ -153,6 +154,27 @@ kover {
     }
 }
 
+// Configure JMH Gradle Plugin - read more: https://github.com/melix/jmh-gradle-plugin
+// Run with `./gradlew jmh`, the results land in build/results/jmh/ as JSON, named after the plugin version
+// so the runs of different releases can be compared. `-PjmhIncludes=<regex>` runs a subset.
+jmh {
+    jmhVersion = libs.versions.jmh
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file(providers.gradleProperty("pluginVersion").map { "results/jmh/results-$it.json" })
+    includes = providers.gradleProperty("jmhIncludes").map { listOf(it) }.orElse(listOf())
+}
+
+sourceSets {
+    named("jmh") {
+        // the benchmarked code needs the IntelliJ Platform libraries (Gson, annotations) and the fixtures in src/test/resources
+        compileClasspath += sourceSets["test"].compileClasspath
+        runtimeClasspath += sourceSets["test"].runtimeClasspath
+    }
+}
+
 tasks {
     wrapper {
         gradleVersion = providers.gradleProperty("gradleVersion").get()
@@ -0,0 +1,62 @@
+package com.github.jaksonlin.testcraft.benchmarks;
+
+import com.github.jaksonlin.testcraft.domain.annotations.AnnotationSchema;
+import com.github.jaksonlin.testcraft.domain.annotations.AnnotationValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validating the values of one test case annotation against the default schema, as the inspection does per method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AnnotationValidatorBenchmark {
+    private AnnotationValidator validator;
+    private Map<String, Object> validValues;
+    private Map<String, Object> invalidValues;
+
+    @Setup
+    public void setUp() {
+        validator = new AnnotationValidator(AnnotationSchema.Companion.fromJson(AnnotationSchema.getDefaultSchema()));
+
+        validValues = new HashMap<>();
+        validValues.put("author", "jaksonlin");
+        validValues.put("title", "parse diff with renamed files");
+        validValues.put("targetClass", "DiffParser");
+        validValues.put("targetMethod", "parseDiff");
+        validValues.put("lastUpdateTime", "2025-05-19 10:27:00");
+        validValues.put("lastUpdateAuthor", "jaksonlin");
+        validValues.put("methodSignature", "parseDiff(String)");
+        validValues.put("testPoints", Arrays.asList("BoundaryValue", "ErrorHandling", "RenamedFile"));
+        validValues.put("status", "DONE");
+        validValues.put("description", "");
+        validValues.put("tags", Arrays.asList("git", "diff"));
+        validValues.put("relatedRequirements", Arrays.asList("REQ-12", "REQ-18"));
+
+        invalidValues = new HashMap<>(validValues);
+        invalidValues.remove("author");
+        invalidValues.put("title", "");
+        invalidValues.put("status", "FINISHED");
+    }
+
+    @Benchmark
+    public AnnotationValidator.ValidationResult validateValid() {
+        return validator.validate(validValues);
+    }
+
+    @Benchmark
+    public AnnotationValidator.ValidationResult validateInvalid() {
+        return validator.validate(invalidValues);
+    }
+}
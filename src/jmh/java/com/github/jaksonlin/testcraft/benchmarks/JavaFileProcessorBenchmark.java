@@ -0,0 +1,63 @@
+package com.github.jaksonlin.testcraft.benchmarks;
+
+import com.github.jaksonlin.testcraft.util.ClassFileInfo;
+import com.github.jaksonlin.testcraft.util.JavaFileProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing a source file for its class name, methods and imports, done for the test and the target class of every run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JavaFileProcessorBenchmark {
+    @Param({"20", "200"})
+    private int methods;
+
+    private final JavaFileProcessor javaFileProcessor = new JavaFileProcessor();
+    private Path sourceFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        StringBuilder source = new StringBuilder("package com.example.billing;\n\n")
+                .append("import java.math.BigDecimal;\nimport java.util.List;\nimport java.util.Map;\n\n")
+                .append("public class InvoiceCalculator {\n");
+        for (int i = 0; i < methods; i++) {
+            source.append("    public BigDecimal total").append(i).append("(List<BigDecimal> amounts, Map<String, BigDecimal> rates) {\n")
+                    .append("        BigDecimal total = BigDecimal.ZERO;\n")
+                    .append("        for (BigDecimal amount : amounts) {\n")
+                    .append("            total = total.add(amount.multiply(rates.getOrDefault(\"vat\", BigDecimal.ONE)));\n")
+                    .append("        }\n")
+                    .append("        return total;\n")
+                    .append("    }\n\n");
+        }
+        source.append("}\n");
+        sourceFile = Files.createTempFile("InvoiceCalculator", ".java");
+        Files.write(sourceFile, source.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(sourceFile);
+    }
+
+    @Benchmark
+    public Optional<ClassFileInfo> getFullyQualifiedName() throws IOException {
+        return javaFileProcessor.getFullyQualifiedName(sourceFile.toString());
+    }
+}
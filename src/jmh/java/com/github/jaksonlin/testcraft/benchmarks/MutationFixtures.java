@@ -0,0 +1,98 @@
+package com.github.jaksonlin.testcraft.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Builds pitest reports of any size from the mutations of src/test/resources/mutations.xml.
+ * <p>
+ * The sample mutations are repeated with their line numbers spread over the class, so the reports group into lines
+ * the way a real report of a large class does.
+ */
+public final class MutationFixtures {
+    private static final Pattern MUTATION = Pattern.compile("<mutation .*?</mutation>", Pattern.DOTALL);
+    private static final Pattern LINE_NUMBER = Pattern.compile("<lineNumber>\\d+</lineNumber>");
+    // a class of this many lines, a few mutations on most of them
+    private static final int LINES = 2000;
+
+    private MutationFixtures() {
+    }
+
+    /**
+     * @return a mutations.xml with the given number of mutations, written once per size and version of the samples
+     * into the temp directory
+     */
+    public static Path mutationsXml(int mutations) {
+        String source = readSampleReport();
+        CRC32 checksum = new CRC32();
+        checksum.update(source.getBytes(StandardCharsets.UTF_8));
+        Path file = Paths.get(System.getProperty("java.io.tmpdir"), "testcraft-jmh",
+                "mutations-" + mutations + "-" + Long.toHexString(checksum.getValue()) + ".xml");
+        if (Files.exists(file)) {
+            return file;
+        }
+        List<String> samples = sampleMutations(source);
+        try {
+            Files.createDirectories(file.getParent());
+            Path partial = Paths.get(file + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(partial, StandardCharsets.UTF_8)) {
+                writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<mutations partial=\"false\">\n");
+                for (int i = 0; i < mutations; i++) {
+                    String sample = samples.get(i % samples.size());
+                    writer.write(LINE_NUMBER.matcher(sample).replaceFirst("<lineNumber>" + (i % LINES + 1) + "</lineNumber>"));
+                    writer.write('\n');
+                }
+                writer.write("</mutations>\n");
+            }
+            Files.move(partial, file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return file;
+    }
+
+    private static String readSampleReport() {
+        try (InputStream inputStream = MutationFixtures.class.getResourceAsStream("/mutations.xml")) {
+            if (inputStream == null) {
+                throw new IllegalStateException("mutations.xml is not on the benchmark classpath");
+            }
+            return readAll(inputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<String> sampleMutations(String source) {
+        Matcher matcher = MUTATION.matcher(source);
+        List<String> samples = new ArrayList<>();
+        while (matcher.find()) {
+            samples.add(matcher.group());
+        }
+        if (samples.isEmpty()) {
+            throw new IllegalStateException("mutations.xml holds no mutation");
+        }
+        return samples;
+    }
+
+    private static String readAll(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            output.write(buffer, 0, read);
+        }
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
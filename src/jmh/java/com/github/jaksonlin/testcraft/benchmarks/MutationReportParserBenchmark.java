@@ -0,0 +1,44 @@
+package com.github.jaksonlin.testcraft.benchmarks;
+
+import com.github.jaksonlin.testcraft.util.MutationReportParser;
+import com.github.jaksonlin.testcraft.util.MutationTable;
+import com.github.jaksonlin.testcraft.util.Mutations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a pitest report into the mutation list of the result dialog and into the table kept in the run history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MutationReportParserBenchmark {
+    @Param({"1000", "10000", "100000"})
+    private int mutations;
+
+    private String reportFile;
+
+    @Setup
+    public void setUp() {
+        reportFile = MutationFixtures.mutationsXml(mutations).toString();
+    }
+
+    @Benchmark
+    public Mutations parseMutationsFromXml() throws IOException {
+        return MutationReportParser.parseMutationsFromXml(reportFile);
+    }
+
+    @Benchmark
+    public MutationTable parseMutationTableFromXml() throws IOException {
+        return MutationReportParser.parseMutationTableFromXml(reportFile);
+    }
+}
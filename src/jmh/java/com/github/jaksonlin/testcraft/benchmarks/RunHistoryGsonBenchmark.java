@@ -0,0 +1,72 @@
+package com.github.jaksonlin.testcraft.benchmarks;
+
+import com.github.jaksonlin.testcraft.domain.context.PitestContext;
+import com.github.jaksonlin.testcraft.util.MutationReportParser;
+import com.github.jaksonlin.testcraft.util.MutationTable;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The json records of the run history: the context of a run and, stored apart from it, its mutation table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RunHistoryGsonBenchmark {
+    @Param({"1000", "10000", "100000"})
+    private int mutations;
+
+    private final Gson gson = new Gson();
+    private PitestContext context;
+    private MutationTable mutationTable;
+    private String contextJson;
+    private String mutationTableJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        context = new PitestContext("/work/project/src/test/java/com/example/billing/InvoiceCalculatorTest.java", System.currentTimeMillis());
+        context.setFullyQualifiedTargetTestClassName("com.example.billing.InvoiceCalculatorTest");
+        context.setTargetClassFullyQualifiedName("com.example.billing.InvoiceCalculator");
+        context.setTargetClassPackageName("com.example.billing");
+        context.setTargetClassName("InvoiceCalculator");
+        context.setTargetClassFilePath("/work/project/src/main/java/com/example/billing/InvoiceCalculator.java");
+        context.setSourceRoots(Arrays.asList("/work/project/src/main/java", "/work/project/src/test/java"));
+        context.setReportDirectory("/work/project/build/reports/pitest/com.example.billing.InvoiceCalculator");
+        context.setCommand(Arrays.asList("java", "-cp", "pitest.jar", "org.pitest.mutationtest.commandline.MutationCoverageReport",
+                "--targetClasses", "com.example.billing.InvoiceCalculator", "--targetTests", "com.example.billing.InvoiceCalculatorTest"));
+        mutationTable = MutationReportParser.parseMutationTableFromXml(MutationFixtures.mutationsXml(mutations).toString());
+        contextJson = gson.toJson(context);
+        mutationTableJson = gson.toJson(mutationTable);
+    }
+
+    @Benchmark
+    public PitestContext contextRoundTrip() {
+        return gson.fromJson(gson.toJson(context), PitestContext.class);
+    }
+
+    @Benchmark
+    public String writeMutationTable() {
+        return gson.toJson(mutationTable);
+    }
+
+    @Benchmark
+    public MutationTable readMutationTable() {
+        return gson.fromJson(mutationTableJson, MutationTable.class);
+    }
+
+    @Benchmark
+    public PitestContext readContext() {
+        return gson.fromJson(contextJson, PitestContext.class);
+    }
+}
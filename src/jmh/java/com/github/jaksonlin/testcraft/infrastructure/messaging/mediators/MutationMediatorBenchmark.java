@@ -0,0 +1,46 @@
+package com.github.jaksonlin.testcraft.infrastructure.messaging.mediators;
+
+import com.github.jaksonlin.testcraft.benchmarks.MutationFixtures;
+import com.github.jaksonlin.testcraft.infrastructure.services.system.EventBusService;
+import com.github.jaksonlin.testcraft.util.MutationResult;
+import com.github.jaksonlin.testcraft.util.MutationReportParser;
+import com.github.jaksonlin.testcraft.util.Pair;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grouping the mutations of a report by line for the editor gutter, lives next to the mediator to reach the
+ * protected conversion and the constructor taking a bus that works without the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MutationMediatorBenchmark {
+    @Param({"1000", "10000", "100000"})
+    private int mutations;
+
+    private List<MutationResult> mutationList;
+    private MutationMediatorImpl mediator;
+
+    @Setup
+    public void setUp() throws IOException {
+        mediator = new MutationMediatorImpl(new EventBusService());
+        mutationList = MutationReportParser.parseMutationTableFromXml(MutationFixtures.mutationsXml(mutations).toString()).asList();
+    }
+
+    @Benchmark
+    public Map<Integer, Pair<String, Boolean>> convertResultToUIRenderFormat() {
+        return mediator.convertResultToUIRenderFormat(mutationList);
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.jaksonlin.testcraft.application.actions;
+
+import com.github.jaksonlin.testcraft.domain.context.PitestContext;
+import com.github.jaksonlin.testcraft.infrastructure.commands.pitest.MultiTargetClassCheckCommand;
+import com.github.jaksonlin.testcraft.infrastructure.commands.pitest.MutationCampaignCommand;
+import com.github.jaksonlin.testcraft.infrastructure.services.system.I18nService;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// mutation test every test class below the selected modules, packages or files
+public class RunMutationCampaignAction extends AnAction {
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        super.update(e);
+        e.getPresentation().setText(I18nService.getInstance().message("action.RunMutationCampaignAction.text"));
+        VirtualFile[] files = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
+        e.getPresentation().setEnabledAndVisible(e.getProject() != null && files != null && files.length > 0);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        VirtualFile[] files = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
+        if (project == null || files == null) {
+            return;
+        }
+
+        Set<String> testFilePaths = new LinkedHashSet<>();
+        for (VirtualFile file : files) {
+            VfsUtilCore.iterateChildrenRecursively(file, null, child -> {
+                if (isTestClassFile(child)) {
+                    testFilePaths.add(child.getPath());
+                }
+                return true;
+            });
+        }
+        if (testFilePaths.isEmpty()) {
+            Messages.showInfoMessage(project, I18nService.getInstance().message("campaign.no.test.classes"), I18nService.getInstance().message("campaign.summary.title"));
+            return;
+        }
+        if (testFilePaths.size() == 1) {
+            // a campaign of one test runs it against the target classes the user picks
+            String testFilePath = testFilePaths.iterator().next();
+            PitestContext context = new PitestContext(testFilePath, System.currentTimeMillis());
+            new MultiTargetClassCheckCommand(project, context).execute();
+            List<String> targetClassFilePaths = context.getTargetClassFilePaths();
+            if (targetClassFilePaths != null && !targetClassFilePaths.isEmpty()) {
+                new MutationCampaignCommand(project, testFilePath, targetClassFilePaths).execute();
+            }
+            return;
+        }
+        new MutationCampaignCommand(project, new ArrayList<>(testFilePaths)).execute();
+    }
+
+    // the same layout the single run relies on, the campaign drops the files without tests and finds the target classes
+    private static boolean isTestClassFile(VirtualFile file) {
+        return !file.isDirectory() && "java".equals(file.getExtension()) && file.getPath().contains("src/test/java");
+    }
+}
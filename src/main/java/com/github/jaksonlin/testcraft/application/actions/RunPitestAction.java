@@ -4,6 +4,7 @@ import com.github.jaksonlin.testcraft.domain.context.PitestContext;
 import com.github.jaksonlin.testcraft.infrastructure.commands.CommandCancellationException;
 import com.github.jaksonlin.testcraft.infrastructure.commands.pitest.*;
 import com.github.jaksonlin.testcraft.infrastructure.services.business.PitestService;
+import com.github.jaksonlin.testcraft.infrastructure.services.business.RunTelemetryService;
 import com.github.jaksonlin.testcraft.infrastructure.services.system.I18nService;
 import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
@@ -62,6 +63,7 @@ public class RunPitestAction extends AnAction {
         List<PitestCommand> commands = Arrays.asList(
                 new PrepareEnvironmentCommand(targetProject, context),
                 new MethodToMutateCommand(targetProject, context),
+                new IncrementalAnalysisCommand(targetProject, context),
                 new BuildPitestCommandCommand(targetProject, context),
                 new RunPitestCommand(targetProject, context),
                 new HandlePitestResultCommand(targetProject, context),
@@ -79,7 +81,7 @@ public class RunPitestAction extends AnAction {
                             );
                             break;
                         }
-                        command.execute();
+                        command.executeMeasured();
                     }
                 } catch (Exception e) {
                     if (e.getCause() instanceof CommandCancellationException) {
@@ -89,6 +91,8 @@ public class RunPitestAction extends AnAction {
                     } else {
                         showErrorDialog(e, context);
                     }
+                } finally {
+                    RunTelemetryService.getInstance().record(context);
                 }
             }
         }.queue();
@@ -1,6 +1,8 @@
 package com.github.jaksonlin.testcraft.application.completions;
 
 import com.github.jaksonlin.testcraft.domain.annotations.*;
+import com.github.jaksonlin.testcraft.infrastructure.messaging.events.AnnotationSchemaEvent;
+import com.github.jaksonlin.testcraft.infrastructure.messaging.events.TypedEventObserver;
 import com.github.jaksonlin.testcraft.infrastructure.services.config.AnnotationConfigService;
 import com.intellij.codeInsight.completion.*;
 import com.intellij.codeInsight.lookup.LookupElement;
@@ -14,10 +16,35 @@ import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.ProcessingContext;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.HashMap;
+import java.util.Map;
 
 public class AnnotationCompletionContributor extends CompletionContributor {
     private static final Logger LOG = Logger.getInstance(AnnotationCompletionContributor.class);
 
+    // the fields of one schema snapshot by name, replaced when the schema changes
+    private static final class FieldIndex {
+        final long version;
+        final Map<String, AnnotationFieldConfig> fieldsByName = new HashMap<>();
+
+        FieldIndex(AnnotationSchemaSnapshot snapshot) {
+            this.version = snapshot.getVersion();
+            if (snapshot.getSchema().getFields() != null) {
+                for (AnnotationFieldConfig field : snapshot.getSchema().getFields()) {
+                    fieldsByName.putIfAbsent(field.getName(), field);
+                }
+            }
+        }
+    }
+
+    private volatile FieldIndex fieldIndex;
+    private final TypedEventObserver<AnnotationSchemaEvent> annotationSchemaObserver = new TypedEventObserver<AnnotationSchemaEvent>(AnnotationSchemaEvent.class) {
+        @Override
+        protected void onTypedEvent(AnnotationSchemaEvent event) {
+            fieldIndex = new FieldIndex((AnnotationSchemaSnapshot) event.getPayload());
+        }
+    };
+
     public AnnotationCompletionContributor() {
         LOG.info("Initializing AnnotationCompletionContributor");
         extend(
@@ -45,7 +72,8 @@ public class AnnotationCompletionContributor extends CompletionContributor {
                             return;
                         }
                         AnnotationConfigService configService = ApplicationManager.getApplication().getService(AnnotationConfigService.class);
-                        AnnotationSchema schema = configService.getSchema();
+                        AnnotationSchemaSnapshot snapshot = configService.getSchemaSnapshot();
+                        AnnotationSchema schema = snapshot.getSchema();
                         LOG.info("Schema annotation class: " + schema.getAnnotationClassName());
                         LOG.info("Actual annotation class: " + annotation.getQualifiedName());
 
@@ -57,13 +85,7 @@ public class AnnotationCompletionContributor extends CompletionContributor {
                         String fieldName = nameValuePair.getName();
                         LOG.info("Field name: " + fieldName);
 
-                        AnnotationFieldConfig field = null;
-                        for (AnnotationFieldConfig f : schema.getFields()) {
-                            if (f.getName().equals(fieldName)) {
-                                field = f;
-                                break;
-                            }
-                        }
+                        AnnotationFieldConfig field = getFieldIndex(snapshot).fieldsByName.get(fieldName);
                         if (field == null) {
                             LOG.info("Field not found in schema");
                             return;
@@ -102,4 +124,13 @@ public class AnnotationCompletionContributor extends CompletionContributor {
                 }
         );
     }
+
+    private FieldIndex getFieldIndex(AnnotationSchemaSnapshot snapshot) {
+        FieldIndex index = fieldIndex;
+        if (index == null || index.version != snapshot.getVersion()) {
+            index = new FieldIndex(snapshot);
+            fieldIndex = index;
+        }
+        return index;
+    }
 }
@@ -47,6 +47,8 @@ public class UnittestInspector extends AbstractBaseJavaLocalInspectionTool {
     @Override
     public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
         Project project = holder.getProject();
+        // one schema snapshot and parser for the whole file, methods get copies of this context
+        CaseCheckContext fileContext = CaseCheckContext.create(null, null);
         return new JavaElementVisitor() {
             @Override
             public void visitMethod(PsiMethod psiMethod) {
@@ -66,7 +68,7 @@ public class UnittestInspector extends AbstractBaseJavaLocalInspectionTool {
                 if (psiClass == null) {
                     return;
                 }
-                CaseCheckContext context = CaseCheckContext.create(psiMethod, psiClass);
+                CaseCheckContext context = fileContext.copy(psiClass, psiMethod);
                 new UnittestFileInspectorCommand(holder, project, context).execute();
             }
 
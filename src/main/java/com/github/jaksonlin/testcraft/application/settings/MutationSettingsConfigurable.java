@@ -31,7 +31,9 @@ public class MutationSettingsConfigurable implements Configurable {
     public boolean isModified() {
         return !mutationSettingsComponent.getSelectedMutatorGroup().equals(MutationConfigService.getInstance().getMutatorGroup())
         || !mutationSettingsComponent.getDependencyDirectoriesOrder().equals(MutationConfigService.getInstance().getDependencyDirectoriesOrder())
-        || !mutationSettingsComponent.getFirstLoadDependentJars().equals(MutationConfigService.getInstance().getFirstLoadDependentJars());
+        || !mutationSettingsComponent.getFirstLoadDependentJars().equals(MutationConfigService.getInstance().getFirstLoadDependentJars())
+        || mutationSettingsComponent.isReuseMutationWorker() != MutationConfigService.getInstance().isReuseMutationWorker()
+        || mutationSettingsComponent.isIncrementalAnalysis() != MutationConfigService.getInstance().isIncrementalAnalysis();
     }
 
     @Override
@@ -39,6 +41,8 @@ public class MutationSettingsConfigurable implements Configurable {
         MutationConfigService.getInstance().setMutatorGroup(mutationSettingsComponent.getSelectedMutatorGroup());
         MutationConfigService.getInstance().setDependencyDirectoriesOrder(mutationSettingsComponent.getDependencyDirectoriesOrder());
         MutationConfigService.getInstance().setFirstLoadDependentJars(mutationSettingsComponent.getFirstLoadDependentJars());
+        MutationConfigService.getInstance().setReuseMutationWorker(mutationSettingsComponent.isReuseMutationWorker());
+        MutationConfigService.getInstance().setIncrementalAnalysis(mutationSettingsComponent.isIncrementalAnalysis());
     }
 
     @Override
@@ -46,5 +50,7 @@ public class MutationSettingsConfigurable implements Configurable {
         mutationSettingsComponent.setSelectedMutatorGroup(MutationConfigService.getInstance().getMutatorGroup());
         mutationSettingsComponent.setDependencyDirectoriesOrder(MutationConfigService.getInstance().getDependencyDirectoriesOrder());
         mutationSettingsComponent.setFirstLoadDependentJars(MutationConfigService.getInstance().getFirstLoadDependentJars());
+        mutationSettingsComponent.setReuseMutationWorker(MutationConfigService.getInstance().isReuseMutationWorker());
+        mutationSettingsComponent.setIncrementalAnalysis(MutationConfigService.getInstance().isIncrementalAnalysis());
     }
 } 
\ No newline at end of file
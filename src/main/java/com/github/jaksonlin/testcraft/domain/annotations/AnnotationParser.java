@@ -17,6 +17,10 @@ public class AnnotationParser {
         this.validator = new AnnotationValidator(schema);
     }
 
+    public AnnotationSchema getSchema() {
+        return schema;
+    }
+
     public UnittestCase parseAnnotation(Map<String, Object> annotationValues) {
         AnnotationValidator.ValidationResult result = validator.validate(annotationValues);
 
@@ -0,0 +1,37 @@
+package com.github.jaksonlin.testcraft.domain.annotations;
+
+/**
+ * The annotation schema as parsed from one version of the settings, with the parser compiled for it.
+ * <p>
+ * A new snapshot is made for every change of the schema json, readers keep using the one they got. The schema
+ * inside is shared by all readers and must not be changed.
+ */
+public final class AnnotationSchemaSnapshot {
+    private final long version;
+    private final String schemaJson;
+    private final AnnotationSchema schema;
+    private final AnnotationParser parser;
+
+    public AnnotationSchemaSnapshot(long version, String schemaJson, AnnotationSchema schema) {
+        this.version = version;
+        this.schemaJson = schemaJson;
+        this.schema = schema;
+        this.parser = new AnnotationParser(schema);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getSchemaJson() {
+        return schemaJson;
+    }
+
+    public AnnotationSchema getSchema() {
+        return schema;
+    }
+
+    public AnnotationParser getParser() {
+        return parser;
+    }
+}
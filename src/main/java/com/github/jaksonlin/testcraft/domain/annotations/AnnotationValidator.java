@@ -3,15 +3,81 @@ package com.github.jaksonlin.testcraft.domain.annotations;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-
+import java.util.Set;
+
+/**
+ * Validates annotation values against a schema.
+ * <p>
+ * The schema is compiled once into a plan: the fields indexed by name, the required ones listed apart and the valid
+ * values of each field kept as a hash set, or lower-cased for CONTAINS mode. The plan is never changed afterwards,
+ * one validator can be shared by all threads validating against the same schema.
+ */
 public class AnnotationValidator {
-    private final AnnotationSchema schema;
+    private static final ValidationResult.Valid VALID = new ValidationResult.Valid();
+
+    private final Map<String, FieldPlan> fieldsByName = new LinkedHashMap<>();
+    private final List<FieldPlan> requiredFields = new ArrayList<>();
+
+    // what validating one field needs, worked out from its config
+    private static final class FieldPlan {
+        final AnnotationFieldConfig field;
+        @Nullable
+        final FieldValidation validation;
+        // whether the value has to be one of the valid values
+        final boolean restrictedValues;
+        final Set<String> exactValues;
+        final String[] lowerCaseCandidates;
+        final String validValuesText;
+
+        FieldPlan(AnnotationFieldConfig field) {
+            this.field = field;
+            this.validation = field.getValidation();
+            List<String> validValues = validation != null && validation.getValidValues() != null
+                    ? validation.getValidValues() : Collections.emptyList();
+            this.restrictedValues = !validValues.isEmpty() && !validation.isAllowCustomValues();
+            this.exactValues = new HashSet<>(validValues);
+            this.lowerCaseCandidates = new String[validValues.size()];
+            for (int i = 0; i < validValues.size(); i++) {
+                lowerCaseCandidates[i] = validValues.get(i).toLowerCase();
+            }
+            this.validValuesText = String.join(", ", validValues);
+        }
+
+        boolean isValidValue(String value) {
+            switch (validation.getMode()) {
+                case EXACT:
+                    return exactValues.contains(value);
+                case CONTAINS:
+                    String lowerCaseValue = value.toLowerCase();
+                    for (String candidate : lowerCaseCandidates) {
+                        if (lowerCaseValue.contains(candidate)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                default:
+                    return true;
+            }
+        }
+    }
 
     public AnnotationValidator(AnnotationSchema schema) {
-        this.schema = schema;
+        if (schema == null || schema.getFields() == null) {
+            return;
+        }
+        for (AnnotationFieldConfig field : schema.getFields()) {
+            FieldPlan plan = new FieldPlan(field);
+            if (field.isRequired()) {
+                requiredFields.add(plan);
+            }
+            // the first field of a name wins, as it did when the fields were searched in order
+            fieldsByName.putIfAbsent(field.getName(), plan);
+        }
     }
 
     public static abstract class ValidationResult {
@@ -32,34 +98,40 @@ public class AnnotationValidator {
     }
 
     public ValidationResult validate(Map<String, Object> annotationValues) {
-        List<String> errors = new ArrayList<>();
+        // most annotations are valid, the list is only created for the first error
+        List<String> errors = null;
 
         // Check required fields
-        schema.getFields().stream()
-                .filter(AnnotationFieldConfig::isRequired)
-                .forEach(field -> {
-                    if (!annotationValues.containsKey(field.getName()) || annotationValues.get(field.getName()) == null) {
-                        errors.add("Missing required field: " + field.getName());
-                    }
-                });
+        for (FieldPlan plan : requiredFields) {
+            if (annotationValues.get(plan.field.getName()) == null) {
+                errors = append(errors, "Missing required field: " + plan.field.getName());
+            }
+        }
 
         // Validate field types
-        annotationValues.forEach((name, value) -> schema.getFields().stream()
-                .filter(field -> field.getName().equals(name))
-                .findFirst()
-                .ifPresent(field -> {
-                    String error = validateField(field, value);
-                    if (error != null) {
-                        errors.add(error);
-                    }
-                }));
+        for (Map.Entry<String, Object> entry : annotationValues.entrySet()) {
+            FieldPlan plan = fieldsByName.get(entry.getKey());
+            if (plan != null) {
+                String error = validateField(plan, entry.getValue());
+                if (error != null) {
+                    errors = append(errors, error);
+                }
+            }
+        }
 
-        return errors.isEmpty() ? new ValidationResult.Valid() : new ValidationResult.Invalid(errors);
+        return errors == null ? VALID : new ValidationResult.Invalid(errors);
+    }
+
+    private static List<String> append(@Nullable List<String> list, String item) {
+        List<String> result = list != null ? list : new ArrayList<>(4);
+        result.add(item);
+        return result;
     }
 
     @Nullable
-    private String validateField(AnnotationFieldConfig field, @Nullable Object value) {
+    private String validateField(FieldPlan plan, @Nullable Object value) {
         if (value == null) return null;
+        AnnotationFieldConfig field = plan.field;
 
         // First validate the type
         String typeError = validateType(field, value);
@@ -70,14 +142,14 @@ public class AnnotationValidator {
         if (emptyError != null) return emptyError;
 
         // Then validate against the validation rules if they exist
-        FieldValidation validation = field.getValidation();
+        FieldValidation validation = plan.validation;
         if (validation != null) {
             if (value instanceof String) {
-                String error = validateStringValue(field.getName(), (String) value, validation);
+                String error = validateStringValue(plan, (String) value);
                 if (error != null) return error;
             } else if (value instanceof List<?>) {
                 // Validate list content
-                String contentError = validateListContent(field.getName(), (List<?>) value, validation);
+                String contentError = validateListContent(plan, (List<?>) value);
                 if (contentError != null) return contentError;
 
                 // Validate list length
@@ -130,61 +202,27 @@ public class AnnotationValidator {
     }
 
     @Nullable
-    private String validateStringValue(
-            String fieldName,
-            String value,
-            FieldValidation validation
-    ) {
-        if (!validation.isAllowEmpty() && value.trim().isEmpty()) {
-            return "Field " + fieldName + " cannot be empty";
+    private String validateStringValue(FieldPlan plan, String value) {
+        if (!plan.validation.isAllowEmpty() && value.trim().isEmpty()) {
+            return "Field " + plan.field.getName() + " cannot be empty";
         }
-        if (!validation.getValidValues().isEmpty() && !validation.isAllowCustomValues()) {
-            boolean isValid = false;
-            switch (validation.getMode()) {
-                case EXACT:
-                    isValid = validation.getValidValues().contains(value);
-                    break;
-                case CONTAINS:
-                    for (String candidate : validation.getValidValues()) {
-                        if (value.toLowerCase().contains(candidate.toLowerCase())) {
-                            isValid = true;
-                            break;
-                        }
-                    }
-                    break;
-            }
-            if (!isValid) {
-                return "Invalid value for " + fieldName + ": " + value + ". Valid values are: " + String.join(", ", validation.getValidValues());
-            }
+        if (plan.restrictedValues && !plan.isValidValue(value)) {
+            return "Invalid value for " + plan.field.getName() + ": " + value + ". Valid values are: " + plan.validValuesText;
         }
         return null;
     }
 
     @Nullable
-    private String validateListContent(
-            String fieldName,
-            List<?> value,
-            FieldValidation validation
-    ) {
-        if (!validation.getValidValues().isEmpty() && !validation.isAllowCustomValues()) {
-            List<String> invalidValues = value.stream()
-                    .filter(String.class::isInstance)
-                    .map(String.class::cast)
-                    .filter(item -> {
-                        switch (validation.getMode()) {
-                            case EXACT:
-                                return !validation.getValidValues().contains(item);
-                            case CONTAINS:
-                                return validation.getValidValues().stream()
-                                        .noneMatch(candidate -> item.toLowerCase().contains(candidate.toLowerCase()));
-                            default:
-                                return false;
-                        }
-                    })
-                    .collect(Collectors.toList());
-
-            if (!invalidValues.isEmpty()) {
-                return "Invalid values for " + fieldName + ": " + String.join(", ", invalidValues) + ". Valid values are: " + String.join(", ", validation.getValidValues());
+    private String validateListContent(FieldPlan plan, List<?> value) {
+        if (plan.restrictedValues) {
+            List<String> invalidValues = null;
+            for (Object item : value) {
+                if (item instanceof String && !plan.isValidValue((String) item)) {
+                    invalidValues = append(invalidValues, (String) item);
+                }
+            }
+            if (invalidValues != null) {
+                return "Invalid values for " + plan.field.getName() + ": " + String.join(", ", invalidValues) + ". Valid values are: " + plan.validValuesText;
             }
         }
         return null;
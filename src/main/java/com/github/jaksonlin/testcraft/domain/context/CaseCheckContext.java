@@ -2,8 +2,10 @@ package com.github.jaksonlin.testcraft.domain.context;
 
 import com.github.jaksonlin.testcraft.domain.annotations.AnnotationParser;
 import com.github.jaksonlin.testcraft.domain.annotations.AnnotationSchema;
+import com.github.jaksonlin.testcraft.infrastructure.commands.testscan.AssertionReachability;
 import com.github.jaksonlin.testcraft.infrastructure.services.config.AnnotationConfigService;
 import com.github.jaksonlin.testcraft.infrastructure.services.config.InvalidTestCaseConfigService;
+import com.github.jaksonlin.testcraft.util.AssertionPatternMatcher;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiMethod;
@@ -16,13 +18,20 @@ public class CaseCheckContext {
     private final AnnotationSchema schema;
     private final AnnotationParser parser;
     private final List<String> invalidAssertions;
+    private final AssertionReachability assertionReachability;
 
     public CaseCheckContext(PsiClass psiClass, PsiMethod psiMethod, AnnotationSchema schema, AnnotationParser parser, List<String> invalidAssertions) {
+        this(psiClass, psiMethod, schema, parser, invalidAssertions, new AssertionReachability(AssertionPatternMatcher.compile(invalidAssertions)));
+    }
+
+    private CaseCheckContext(PsiClass psiClass, PsiMethod psiMethod, AnnotationSchema schema, AnnotationParser parser, List<String> invalidAssertions,
+                             AssertionReachability assertionReachability) {
         this.psiClass = psiClass;
         this.psiMethod = psiMethod;
         this.schema = schema;
         this.parser = parser;
         this.invalidAssertions = invalidAssertions;
+        this.assertionReachability = assertionReachability;
     }
 
     public PsiClass getPsiClass() {
@@ -41,20 +50,34 @@ public class CaseCheckContext {
         return parser;
     }
 
+    public List<String> getInvalidAssertions() {
+        return invalidAssertions;
+    }
+
+    public AssertionReachability getAssertionReachability() {
+        return assertionReachability;
+    }
+
     public CaseCheckContext copy(PsiMethod newPsiMethod) {
-        return new CaseCheckContext(psiClass, newPsiMethod, schema, parser, invalidAssertions);
+        return new CaseCheckContext(psiClass, newPsiMethod, schema, parser, invalidAssertions, assertionReachability);
+    }
+
+    // shares the schema, parser, invalid assertions and assertion memo of this context, a batch scan takes them once for all methods
+    public CaseCheckContext copy(PsiClass newPsiClass, PsiMethod newPsiMethod) {
+        return new CaseCheckContext(newPsiClass, newPsiMethod, schema, parser, invalidAssertions, assertionReachability);
     }
 
     public static CaseCheckContext create(PsiMethod psiMethod, PsiClass psiClass) {
         AnnotationConfigService configService = ApplicationManager.getApplication().getService(AnnotationConfigService.class);
-        AnnotationSchema schema = configService.getSchema();
+        AnnotationParser parser = configService.getParser();
         InvalidTestCaseConfigService invalidAssertionConfigService = ApplicationManager.getApplication().getService(InvalidTestCaseConfigService.class);
         return new CaseCheckContext(
                 psiClass,
                 psiMethod,
-                schema,
-                new AnnotationParser(schema),
-                invalidAssertionConfigService.getInvalidAssertions()
+                parser.getSchema(),
+                parser,
+                invalidAssertionConfigService.getInvalidAssertions(),
+                new AssertionReachability(invalidAssertionConfigService.getInvalidAssertionMatcher())
         );
     }
 }
\ No newline at end of file
@@ -1,12 +1,18 @@
 package com.github.jaksonlin.testcraft.domain.context;
 
+import com.github.jaksonlin.testcraft.domain.model.RunTelemetry;
+import com.github.jaksonlin.testcraft.util.GitUtil;
 import com.github.jaksonlin.testcraft.util.Mutation;
+import com.github.jaksonlin.testcraft.util.MutationResult;
 import com.github.jaksonlin.testcraft.util.MutationReportParser;
+import com.github.jaksonlin.testcraft.util.MutationTable;
+import com.github.jaksonlin.testcraft.util.PitestResourcePlanner;
 import com.github.jaksonlin.testcraft.util.ProcessResult;
 
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.function.Supplier;
 
 public class PitestContext {
     private String testFilePath;
@@ -26,12 +32,103 @@ public class PitestContext {
     private String pitestDependencies;
     private List<String> resourceDirectories;
     private final long timestamp;
+    private MutationTable mutationTable;
+    // only set when loaded from a history file written before mutation tables, converted on first access
     private List<Mutation> mutationResults;
+    // set on entries loaded from the run history, the mutations are stored and cached separately
+    private transient Supplier<MutationTable> mutationTableLoader;
     private String workingDirectory;
     private String methodsToMutate;
     private String mutatorGroup;
     private Boolean isJunit5;
     private String javaVersion;
+    // runs started by a mutation campaign, no dialogs may be shown
+    private transient boolean unattended;
+    // incremental analysis: pitest history file and the revision the run was started at
+    private transient String historyFile;
+    private transient String headRevision;
+    // set when incremental analysis narrowed the run to the changed methods: their names and the diff since the last run
+    private transient List<String> incrementalMethods;
+    private transient List<GitUtil.DiffHunk> changedLines;
+    // target classes picked for the test, a campaign runs the test once against each of them
+    private transient List<String> targetClassFilePaths;
+    // number of pitest runs sharing the machine with this one, and the resources planned for it
+    private transient int concurrentRuns = 1;
+    private transient PitestResourcePlanner.Plan resourcePlan;
+    // timings of the commands of this run
+    private transient RunTelemetry telemetry;
+
+    public synchronized RunTelemetry getTelemetry() {
+        if (telemetry == null) {
+            telemetry = new RunTelemetry();
+            telemetry.setTimestamp(timestamp);
+        }
+        return telemetry;
+    }
+
+    public boolean isUnattended() {
+        return unattended;
+    }
+
+    public void setUnattended(boolean unattended) {
+        this.unattended = unattended;
+    }
+
+    public List<String> getTargetClassFilePaths() {
+        return targetClassFilePaths;
+    }
+
+    public void setTargetClassFilePaths(List<String> targetClassFilePaths) {
+        this.targetClassFilePaths = targetClassFilePaths;
+    }
+
+    public int getConcurrentRuns() {
+        return concurrentRuns;
+    }
+
+    public void setConcurrentRuns(int concurrentRuns) {
+        this.concurrentRuns = concurrentRuns;
+    }
+
+    public PitestResourcePlanner.Plan getResourcePlan() {
+        return resourcePlan;
+    }
+
+    public void setResourcePlan(PitestResourcePlanner.Plan resourcePlan) {
+        this.resourcePlan = resourcePlan;
+    }
+
+    public String getHistoryFile() {
+        return historyFile;
+    }
+
+    public void setHistoryFile(String historyFile) {
+        this.historyFile = historyFile;
+    }
+
+    public String getHeadRevision() {
+        return headRevision;
+    }
+
+    public void setHeadRevision(String headRevision) {
+        this.headRevision = headRevision;
+    }
+
+    public List<String> getIncrementalMethods() {
+        return incrementalMethods;
+    }
+
+    public void setIncrementalMethods(List<String> incrementalMethods) {
+        this.incrementalMethods = incrementalMethods;
+    }
+
+    public List<GitUtil.DiffHunk> getChangedLines() {
+        return changedLines;
+    }
+
+    public void setChangedLines(List<GitUtil.DiffHunk> changedLines) {
+        this.changedLines = changedLines;
+    }
 
     public String getJavaVersion() {
         return javaVersion;
@@ -66,17 +163,39 @@ public class PitestContext {
     }
 
     // this will also init the fielid mutationResults
-    public List<Mutation> collectMutationsResults() throws Exception {
+    public List<MutationResult> collectMutationsResults() throws Exception {
         String mutationReportFilePath = this.getPitestReportXml();
         try {
-            this.mutationResults = MutationReportParser.parseMutationsFromXml(mutationReportFilePath).getMutation();
-            return this.mutationResults;
+            this.mutationTable = MutationReportParser.parseMutationTableFromXml(mutationReportFilePath);
+            this.mutationResults = null;
+            return this.mutationTable.asList();
         } catch (IOException e) {
             throw new Exception("Error parsing mutation report: " + e.getMessage() + " at " + mutationReportFilePath);
         }
     }
-    public List<Mutation> getMutationResults()  {
-        return this.mutationResults;
+    public List<MutationResult> getMutationResults()  {
+        MutationTable table = getMutationTable();
+        if (table == null && this.mutationTableLoader != null) {
+            table = this.mutationTableLoader.get();
+        }
+        return table != null ? table.asList() : null;
+    }
+
+    public MutationTable getMutationTable() {
+        if (this.mutationTable == null && this.mutationResults != null) {
+            this.mutationTable = MutationTable.of(this.mutationResults);
+            this.mutationResults = null;
+        }
+        return this.mutationTable;
+    }
+
+    public void setMutationTable(MutationTable mutationTable) {
+        this.mutationTable = mutationTable;
+        this.mutationResults = null;
+    }
+
+    public void setMutationTableLoader(Supplier<MutationTable> mutationTableLoader) {
+        this.mutationTableLoader = mutationTableLoader;
     }
 
     public String getPitestReportXml() {
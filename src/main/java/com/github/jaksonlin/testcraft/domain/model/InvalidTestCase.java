@@ -25,6 +25,18 @@ public class InvalidTestCase {
         this.offset = psiMethod.getTextOffset();
     }
 
+    // restores a test case found by an earlier scan, without its PSI
+    public InvalidTestCase(Project project, String qualifiedName, String methodName, String testCaseCode, String filePath, int offset) {
+        this.project = project;
+        this.psiMethod = null;
+        this.psiClass = null;
+        this.qualifiedName = qualifiedName;
+        this.methodName = methodName;
+        this.testCaseCode = testCaseCode;
+        this.filePath = filePath;
+        this.offset = offset;
+    }
+
     public Project getProject() {
         return project;
     }
@@ -0,0 +1,41 @@
+package com.github.jaksonlin.testcraft.domain.model;
+
+/**
+ * What the run history index knows about the last run of a class, without reading the run itself.
+ */
+public class RunHistoryEntry {
+    private final String targetClassFullyQualifiedName;
+    private final String targetClassPackageName;
+    private final String targetClassName;
+    private final String targetClassFilePath;
+    private final long timestamp;
+
+    public RunHistoryEntry(String targetClassFullyQualifiedName, String targetClassPackageName, String targetClassName,
+                           String targetClassFilePath, long timestamp) {
+        this.targetClassFullyQualifiedName = targetClassFullyQualifiedName;
+        this.targetClassPackageName = targetClassPackageName;
+        this.targetClassName = targetClassName;
+        this.targetClassFilePath = targetClassFilePath;
+        this.timestamp = timestamp;
+    }
+
+    public String getTargetClassFullyQualifiedName() {
+        return targetClassFullyQualifiedName;
+    }
+
+    public String getTargetClassPackageName() {
+        return targetClassPackageName;
+    }
+
+    public String getTargetClassName() {
+        return targetClassName;
+    }
+
+    public String getTargetClassFilePath() {
+        return targetClassFilePath;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
@@ -0,0 +1,158 @@
+package com.github.jaksonlin.testcraft.domain.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Where the time of one pitest run went: a sample per command of the chain and the statistics pitest printed.
+ */
+public class RunTelemetry {
+    private String targetClassFullyQualifiedName;
+    private long timestamp;
+    private int exitCode = -1;
+    private boolean incremental;
+    private final List<StageSample> stages = new ArrayList<>();
+    private int mutationsGenerated = -1;
+    private int mutationsKilled = -1;
+    private int testsRun = -1;
+    private double testsPerMutation = -1;
+    private int coverageMillis = -1;
+    private int mutationAnalysisMillis = -1;
+
+    public static class StageSample {
+        private final String name;
+        private final long wallMillis;
+        // bytes allocated by the thread running the command, -1 when the JVM does not count them
+        private final long allocatedBytes;
+        private final boolean failed;
+
+        public StageSample(String name, long wallMillis, long allocatedBytes, boolean failed) {
+            this.name = name;
+            this.wallMillis = wallMillis;
+            this.allocatedBytes = allocatedBytes;
+            this.failed = failed;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getWallMillis() {
+            return wallMillis;
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+    }
+
+    public synchronized void addStage(StageSample stage) {
+        stages.add(stage);
+    }
+
+    public synchronized List<StageSample> getStages() {
+        return new ArrayList<>(stages);
+    }
+
+    public long getWallMillis(String stageName) {
+        long wallMillis = -1;
+        for (StageSample stage : getStages()) {
+            if (stage.getName().equals(stageName)) {
+                wallMillis = Math.max(0, wallMillis) + stage.getWallMillis();
+            }
+        }
+        return wallMillis;
+    }
+
+    public long getTotalWallMillis() {
+        long total = 0;
+        for (StageSample stage : getStages()) {
+            total += stage.getWallMillis();
+        }
+        return total;
+    }
+
+    public String getTargetClassFullyQualifiedName() {
+        return targetClassFullyQualifiedName;
+    }
+
+    public void setTargetClassFullyQualifiedName(String targetClassFullyQualifiedName) {
+        this.targetClassFullyQualifiedName = targetClassFullyQualifiedName;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    public void setExitCode(int exitCode) {
+        this.exitCode = exitCode;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public int getMutationsGenerated() {
+        return mutationsGenerated;
+    }
+
+    public void setMutationsGenerated(int mutationsGenerated) {
+        this.mutationsGenerated = mutationsGenerated;
+    }
+
+    public int getMutationsKilled() {
+        return mutationsKilled;
+    }
+
+    public void setMutationsKilled(int mutationsKilled) {
+        this.mutationsKilled = mutationsKilled;
+    }
+
+    public int getTestsRun() {
+        return testsRun;
+    }
+
+    public void setTestsRun(int testsRun) {
+        this.testsRun = testsRun;
+    }
+
+    public double getTestsPerMutation() {
+        return testsPerMutation;
+    }
+
+    public void setTestsPerMutation(double testsPerMutation) {
+        this.testsPerMutation = testsPerMutation;
+    }
+
+    public int getCoverageMillis() {
+        return coverageMillis;
+    }
+
+    public void setCoverageMillis(int coverageMillis) {
+        this.coverageMillis = coverageMillis;
+    }
+
+    public int getMutationAnalysisMillis() {
+        return mutationAnalysisMillis;
+    }
+
+    public void setMutationAnalysisMillis(int mutationAnalysisMillis) {
+        this.mutationAnalysisMillis = mutationAnalysisMillis;
+    }
+}
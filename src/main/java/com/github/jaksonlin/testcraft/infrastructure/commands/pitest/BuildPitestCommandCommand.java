@@ -1,13 +1,18 @@
 package com.github.jaksonlin.testcraft.infrastructure.commands.pitest;
 
 import com.github.jaksonlin.testcraft.domain.context.PitestContext;
+import com.github.jaksonlin.testcraft.infrastructure.services.business.PitestService;
+import com.github.jaksonlin.testcraft.util.PitestResourcePlanner;
+import com.github.jaksonlin.testcraft.util.TestPriorities;
 import com.intellij.openapi.project.Project;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 
 public class BuildPitestCommandCommand extends PitestCommand {
-
     public BuildPitestCommandCommand(Project project, PitestContext context) {
         super(project, context);
     }
@@ -55,12 +60,14 @@ public class BuildPitestCommandCommand extends PitestCommand {
         }
 
         String javaExe = javaHome + "/bin/java";
+        PitestResourcePlanner.Plan plan = PitestResourcePlanner.plan(reportDirectory, getContext().getConcurrentRuns());
+        getContext().setResourcePlan(plan);
 
         List<String> command = new ArrayList<>();
         command.add(javaExe);
         command.add("-cp");
         command.add(piptestDependencies);
-        command.add("org.pitest.mutationtest.commandline.MutationCoverageReport");
+        command.add(PitestService.MUTATION_COVERAGE_REPORT);
         command.add("--reportDir");
         command.add(reportDirectory);
         command.add("--targetClasses");
@@ -74,22 +81,44 @@ public class BuildPitestCommandCommand extends PitestCommand {
         command.add("--outputFormats");
         command.add("HTML,XML");
         command.add("--timeoutConst");
-        command.add("10000");
+        command.add(String.valueOf(plan.getTimeoutConst()));
         command.add("--threads");
-        command.add("4");
+        command.add(String.valueOf(plan.getThreads()));
+        if (plan.getMinionHeapMb() > 0) {
+            command.add("--jvmArgs");
+            command.add("-Xmx" + plan.getMinionHeapMb() + "m");
+        }
         command.add("--verbose");
         command.add("true");
         command.add("--timeoutFactor");
-        command.add("2.0");
+        command.add(String.valueOf(plan.getTimeoutFactor()));
         command.add("--mutators");
         command.add(mutatorGroup);
         command.add("--skipFailingTests");
+        // the line coverage of this run orders the tests of the next one
+        command.add("--exportLineCoverage");
+        command.add("true");
+        Path testPriorities = Paths.get(reportDirectory, TestPriorities.FILE_NAME);
+        if (Files.exists(testPriorities)) {
+            command.add("--pluginConfiguration");
+            command.add(TestPriorities.PLUGIN_CONFIGURATION_KEY + "=" + testPriorities);
+        }
 
         if (getContext().getMethodsToMutate() != null) {
             command.add("--targetMethods");
             command.add(getContext().getMethodsToMutate());
         }
 
+        if (getContext().getHistoryFile() != null) {
+            command.add("--historyInputLocation");
+            command.add(getContext().getHistoryFile());
+            // a run narrowed to some methods would write a history of those only
+            if (getContext().getIncrementalMethods() == null) {
+                command.add("--historyOutputLocation");
+                command.add(getContext().getHistoryFile());
+            }
+        }
+
         getContext().setCommand(command);
     }
 }
@@ -51,6 +51,7 @@ public class HandlePitestResultCommand extends PitestCommand {
                 errorMessage.append("\n=== Verbose Output ===\n");
                 errorMessage.append(result.getErrorOutput());
             }
+            appendOutputLogFile(errorMessage, result);
 
             showOutput(errorMessage.toString(), "Pitest Error");
         }
@@ -66,9 +67,17 @@ public class HandlePitestResultCommand extends PitestCommand {
             combinedOutputSB.append("\n=== Verbose Output ===\n");
             combinedOutputSB.append(result.getErrorOutput());
         }
+        appendOutputLogFile(combinedOutputSB, result);
         return combinedOutputSB;
     }
 
+    private static void appendOutputLogFile(StringBuilder output, ProcessResult result) {
+        if (result.getOutputLogFile() != null) {
+            output.append("\n=== Full Output ===\n");
+            output.append(result.getOutputLogFile()).append("\n");
+        }
+    }
+
     private void showOutputWithReportButton(String output, String title, File reportFile) {
         ApplicationManager.getApplication().invokeLater(() -> {
             new PitestOutputDialog(getProject(), output, title, reportFile).show();
@@ -0,0 +1,244 @@
+package com.github.jaksonlin.testcraft.infrastructure.commands.pitest;
+
+import com.github.jaksonlin.testcraft.domain.context.PitestContext;
+import com.github.jaksonlin.testcraft.infrastructure.services.config.MutationConfigService;
+import com.github.jaksonlin.testcraft.util.GitUtil;
+import com.github.jaksonlin.testcraft.util.Mutation;
+import com.github.jaksonlin.testcraft.util.MutationResult;
+import com.github.jaksonlin.testcraft.util.MutationTable;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiMethod;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Makes a run incremental when enabled in the mutation settings.
+ * <p>
+ * The pitest history of the target class is kept in its report directory and fed back into the next run, so
+ * mutants whose class and tests did not change are not analysed again. When the previous run recorded the git
+ * revision it was started at, and the lines changed since then all fall into methods of the target class,
+ * only those methods are mutated. The results of the other methods are then taken over from the previous run
+ * before the run is stored, and the history file is left as it was, so neither loses the unchanged methods.
+ */
+public class IncrementalAnalysisCommand extends PitestCommand {
+    private static final Logger log = Logger.getInstance(IncrementalAnalysisCommand.class);
+    private static final String HISTORY_FILE = "pitest-history.bin";
+    private static final String REVISION_FILE = "pitest-history.rev";
+
+    public IncrementalAnalysisCommand(Project project, PitestContext context) {
+        super(project, context);
+    }
+
+    @Override
+    public void execute() {
+        if (!MutationConfigService.getInstance().isIncrementalAnalysis()) {
+            return;
+        }
+        String reportDirectory = getContext().getReportDirectory();
+        if (reportDirectory == null) {
+            throw new IllegalStateException("Report directory not set");
+        }
+        getContext().setHistoryFile(Paths.get(reportDirectory, HISTORY_FILE).toString());
+
+        VirtualFile targetClassFile = ReadAction.compute(() ->
+                LocalFileSystem.getInstance().findFileByPath(getContext().getTargetClassFilePath()));
+        if (targetClassFile == null) {
+            return;
+        }
+        String headRevision = GitUtil.getHeadRevision(getProject(), targetClassFile);
+        getContext().setHeadRevision(headRevision);
+        String lastRevision = readLastRevision(reportDirectory);
+        // the method selection of the user wins, and without a previous run there is nothing to compare to
+        if (headRevision == null || lastRevision == null || getContext().getMethodsToMutate() != null
+                || !Files.exists(Paths.get(getContext().getHistoryFile()))) {
+            return;
+        }
+
+        List<GitUtil.DiffHunk> changedLines = GitUtil.getChangedLines(getProject(), targetClassFile, lastRevision);
+        if (changedLines == null || changedLines.isEmpty()) {
+            // only the tests changed, the history alone keeps the run short
+            return;
+        }
+        List<String> changedMethods = ReadAction.compute(() -> findChangedMethods(targetClassFile, changedLines));
+        if (changedMethods == null || changedMethods.isEmpty()) {
+            return;
+        }
+        String targetClass = getContext().getTargetClassFullyQualifiedName();
+        // the results of the other methods come from the previous run, without it the run has to cover them all
+        if (runHistoryManager.getRunHistoryForClass(targetClass) == null) {
+            return;
+        }
+        log.info("Incremental analysis of " + targetClass + " limited to " + changedMethods);
+        getContext().setIncrementalMethods(changedMethods);
+        getContext().setChangedLines(changedLines);
+        getContext().setMethodsToMutate(changedMethods.stream()
+                .map(method -> targetClass + "::" + method)
+                .collect(Collectors.joining(",")));
+    }
+
+    /**
+     * Adds the results the previous run had for the methods a narrowed run left out, moved to the lines they are on
+     * now. Mutants on changed lines are dropped, the code they mutated is gone.
+     * @return false when the run was narrowed but the previous results are gone, the run then only covers the
+     * changed methods and must not become the base of the next comparison
+     */
+    static boolean mergePreviousResults(PitestContext context, PitestContext previous) {
+        List<String> incrementalMethods = context.getIncrementalMethods();
+        if (incrementalMethods == null) {
+            return true;
+        }
+        MutationTable mutationTable = context.getMutationTable();
+        List<MutationResult> previousMutations = previous != null ? previous.getMutationResults() : null;
+        if (mutationTable == null || previousMutations == null) {
+            log.warn("No previous results to complete the incremental run of " + context.getTargetClassFullyQualifiedName());
+            return false;
+        }
+        MutationTable.Builder builder = new MutationTable.Builder();
+        mutationTable.asList().forEach(builder::add);
+        for (MutationResult mutation : previousMutations) {
+            if (incrementalMethods.contains(mutation.getMutatedMethod())) {
+                continue;
+            }
+            int lineNumber = movedLine(context.getChangedLines(), mutation.getLineNumber());
+            if (lineNumber < 0) {
+                continue;
+            }
+            builder.add(new Mutation(mutation.isDetected(), mutation.getStatus(), mutation.getNumberOfTestsRun(),
+                    mutation.getSourceFile(), mutation.getMutatedClass(), mutation.getMutatedMethod(),
+                    mutation.getMethodDescription(), lineNumber, mutation.getMutator(), mutation.getIndexes(),
+                    mutation.getBlocks(), mutation.getKillingTest(), mutation.getDescription()));
+        }
+        context.setMutationTable(builder.build());
+        return true;
+    }
+
+    // where a line of the previous run is now, -1 when it changed
+    private static int movedLine(List<GitUtil.DiffHunk> changedLines, int oldLine) {
+        int line = oldLine;
+        for (GitUtil.DiffHunk hunk : changedLines) {
+            if (hunk.replaces(oldLine)) {
+                return -1;
+            }
+            line += hunk.getLineShift(oldLine);
+        }
+        return line;
+    }
+
+    /**
+     * Remembers the revision of a successful run whose results cover the whole class, the next run compares the
+     * target class against it.
+     */
+    static void recordRevision(PitestContext context) {
+        if (context.getHistoryFile() == null || context.getHeadRevision() == null) {
+            return;
+        }
+        try {
+            Files.write(revisionFile(context.getReportDirectory()), context.getHeadRevision().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.warn("Cannot record the revision of the pitest run in " + context.getReportDirectory(), e);
+        }
+    }
+
+    private static Path revisionFile(String reportDirectory) {
+        return Paths.get(reportDirectory, REVISION_FILE);
+    }
+
+    private static String readLastRevision(String reportDirectory) {
+        Path revisionFile = revisionFile(reportDirectory);
+        if (!Files.exists(revisionFile)) {
+            return null;
+        }
+        try {
+            String revision = new String(Files.readAllBytes(revisionFile), StandardCharsets.UTF_8).trim();
+            return revision.isEmpty() ? null : revision;
+        } catch (IOException e) {
+            log.warn("Cannot read " + revisionFile, e);
+            return null;
+        }
+    }
+
+    // null when a change lies outside the methods (fields, initializers, imports), those can affect every mutant
+    private List<String> findChangedMethods(VirtualFile targetClassFile, List<GitUtil.DiffHunk> changedLines) {
+        PsiFile psiFile = PsiManager.getInstance(getProject()).findFile(targetClassFile);
+        Document document = FileDocumentManager.getInstance().getDocument(targetClassFile);
+        if (!(psiFile instanceof PsiJavaFile) || document == null) {
+            return null;
+        }
+        PsiClass targetClass = null;
+        for (PsiClass psiClass : ((PsiJavaFile) psiFile).getClasses()) {
+            if (getContext().getTargetClassFullyQualifiedName().equals(psiClass.getQualifiedName())) {
+                targetClass = psiClass;
+            }
+        }
+        if (targetClass == null) {
+            return null;
+        }
+
+        List<PsiMethod> methods = new ArrayList<>();
+        List<int[]> methodLines = new ArrayList<>();
+        for (PsiMethod method : targetClass.getMethods()) {
+            TextRange range = method.getTextRange();
+            methods.add(method);
+            methodLines.add(new int[]{
+                    document.getLineNumber(range.getStartOffset()) + 1,
+                    document.getLineNumber(range.getEndOffset()) + 1
+            });
+        }
+
+        Set<String> changedMethods = new LinkedHashSet<>();
+        for (GitUtil.DiffHunk hunk : changedLines) {
+            for (int line = hunk.getStartLine(); line <= Math.min(hunk.getEndLine(), document.getLineCount()); line++) {
+                boolean inMethod = false;
+                for (int i = 0; i < methods.size(); i++) {
+                    int[] lines = methodLines.get(i);
+                    if (line >= lines[0] && line <= lines[1]) {
+                        PsiMethod method = methods.get(i);
+                        // named as pitest reports them in mutatedMethod
+                        changedMethods.add(method.isConstructor() ? "<init>" : method.getName());
+                        inMethod = true;
+                    }
+                }
+                if (!inMethod && !isBlankOrInOtherClass(document, targetClass, line)) {
+                    return null;
+                }
+            }
+        }
+        return new ArrayList<>(changedMethods);
+    }
+
+    // blank lines, comments between members and nested classes (mutated as classes of their own) do not matter
+    private static boolean isBlankOrInOtherClass(Document document, PsiClass targetClass, int line) {
+        int start = document.getLineStartOffset(line - 1);
+        int end = document.getLineEndOffset(line - 1);
+        String text = document.getText(new TextRange(start, end)).trim();
+        if (text.isEmpty() || text.startsWith("//") || text.startsWith("*") || text.startsWith("/*") || "}".equals(text)) {
+            return true;
+        }
+        for (PsiClass innerClass : targetClass.getInnerClasses()) {
+            if (innerClass.getTextRange().containsOffset(start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -5,31 +5,37 @@ import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.application.ModalityState;
 import com.intellij.openapi.project.Project;
 
+import com.github.jaksonlin.testcraft.infrastructure.services.business.TargetClassIndexService;
 import com.github.jaksonlin.testcraft.presentation.components.common.ItemSearchAdditionComponent;
-import com.github.jaksonlin.testcraft.util.ClassFileInfo;
-import com.github.jaksonlin.testcraft.util.FileUtils;
 import com.github.jaksonlin.testcraft.util.TargetClassInfo;
-import com.github.jaksonlin.testcraft.util.JavaFileProcessor;
 
-import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class MultiTargetClassCheckCommand extends PitestCommand {
-    private final JavaFileProcessor javaFileProcessor = new JavaFileProcessor();
+    private static final int MAX_CANDIDATES = 50;
+
     public MultiTargetClassCheckCommand(Project project, PitestContext context) {
         super(project, context);
     }
 
     @Override
     public void execute() {
-        List<String> targetClassFilePaths = getMultiTargetClass();
-        if (targetClassFilePaths == null || targetClassFilePaths.isEmpty()) {
+        List<String> targetClasses = getMultiTargetClass();
+        if (targetClasses == null || targetClasses.isEmpty()) {
             return;
         }
-        //getContext().setTargetClassFilePaths(targetClassFilePaths);
+        List<String> sourceRoots = getContext().getSourceRoots() != null ? getContext().getSourceRoots() : Collections.emptyList();
+        List<String> targetClassFilePaths = new ArrayList<>();
+        for (String targetClass : targetClasses) {
+            TargetClassInfo targetClassInfo = TargetClassIndexService.getInstance(getProject()).findTargetClass(sourceRoots, targetClass);
+            if (targetClassInfo != null) {
+                targetClassFilePaths.add(targetClassInfo.getFile().normalize().toString().replace("\\", "/"));
+            }
+        }
+        getContext().setTargetClassFilePaths(targetClassFilePaths);
     }
 
     private List<String> getMultiTargetClass() {
@@ -43,26 +49,8 @@ public class MultiTargetClassCheckCommand extends PitestCommand {
     }
 
     private List<String> getTargetClassFullyQualifiedName(String classCandidateName) {
-        List<String> sourceRoots = getContext().getSourceRoots();
-        TargetClassInfo targetClassInfo = FileUtils.findTargetClassFile(sourceRoots, classCandidateName);
-        if (targetClassInfo == null) {
-            showError("Cannot find target class file");
-            throw new IllegalStateException("Cannot find target class file");
-        }
-        try {
-            Optional<ClassFileInfo> classInfo = javaFileProcessor.getFullyQualifiedName(targetClassInfo.getFile().toString());
-
-            if (!classInfo.isPresent()) {
-                showError("Cannot get fully qualified name for target class");
-                throw new IllegalStateException("Cannot get fully qualified name for target class");
-            }
-            List<String> fullyQualifiedNames = new ArrayList<>();
-            fullyQualifiedNames.add(classInfo.get().getFullyQualifiedName());
-            return fullyQualifiedNames;
-        } catch (IOException e) {
-            showError("Error getting fully qualified name for target class: " + e.getMessage());
-            throw new IllegalStateException("Error getting fully qualified name for target class", e);
-        }
+        List<String> sourceRoots = getContext().getSourceRoots() != null ? getContext().getSourceRoots() : Collections.<String>emptyList();
+        return TargetClassIndexService.getInstance(getProject()).searchClasses(sourceRoots, classCandidateName, MAX_CANDIDATES);
     }
 
     private String displayCandidateClass(String classCandidateName) {
@@ -0,0 +1,254 @@
+package com.github.jaksonlin.testcraft.infrastructure.commands.pitest;
+
+import com.github.jaksonlin.testcraft.domain.context.PitestContext;
+import com.github.jaksonlin.testcraft.infrastructure.services.business.RunTelemetryService;
+import com.github.jaksonlin.testcraft.infrastructure.services.business.TargetClassIndexService;
+import com.github.jaksonlin.testcraft.infrastructure.services.system.I18nService;
+import com.github.jaksonlin.testcraft.util.MutationResult;
+import com.github.jaksonlin.testcraft.util.PitestResourcePlanner;
+import com.github.jaksonlin.testcraft.util.ProcessResult;
+import com.github.jaksonlin.testcraft.util.TargetClassInfo;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowManager;
+import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiMethod;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the pitest command chain unattended for many test classes, one {@link PitestContext} per test and target
+ * class.
+ * <p>
+ * The target classes are resolved through {@link TargetClassIndexService} before the first run, tests without one are
+ * reported as failed. Runs are scheduled on a work-stealing pool whose size is capped by the cores and the available
+ * physical memory (see {@link PitestResourcePlanner}), the runs then share the machine for their minions. The runs of
+ * one target class write the same report directory, so they run one after another. Every run gets its own progress
+ * indicator, cancelled with the campaign, which stops the pitest process of the run.
+ */
+public class MutationCampaignCommand {
+    private static final Logger log = Logger.getInstance(MutationCampaignCommand.class);
+    private static final List<String> TEST_ANNOTATIONS = Arrays.asList("org.junit.Test", "org.junit.jupiter.api.Test");
+
+    private final Project project;
+    private final List<String> testFilePaths;
+    // test file -> target class files picked for it, the other tests get theirs resolved
+    private final Map<String, List<String>> pickedTargetClassFilePaths = new LinkedHashMap<>();
+
+    public MutationCampaignCommand(Project project, List<String> testFilePaths) {
+        this.project = project;
+        this.testFilePaths = testFilePaths;
+    }
+
+    /**
+     * Runs one test against each of the given target classes.
+     */
+    public MutationCampaignCommand(Project project, String testFilePath, List<String> targetClassFilePaths) {
+        this(project, Collections.singletonList(testFilePath));
+        pickedTargetClassFilePaths.put(testFilePath, targetClassFilePaths);
+    }
+
+    public void execute() {
+        new Task.Backgroundable(project, I18nService.getInstance().message("campaign.running"), true) {
+            private final List<String> succeeded = Collections.synchronizedList(new ArrayList<>());
+            private final List<String> failed = Collections.synchronizedList(new ArrayList<>());
+            private final AtomicInteger mutationCount = new AtomicInteger();
+            private final AtomicInteger killedCount = new AtomicInteger();
+            private int runCount;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                Map<String, List<String>> testFilePathsByTarget = planRuns(indicator);
+                runCount = testFilePathsByTarget.values().stream().mapToInt(List::size).sum() + failed.size();
+                if (testFilePathsByTarget.isEmpty()) {
+                    return;
+                }
+                int parallelism = Math.max(1, Math.min(PitestResourcePlanner.concurrentRunLimit(), testFilePathsByTarget.size()));
+                log.info("Mutation campaign of " + runCount + " runs on " + testFilePathsByTarget.size() + " target classes with parallelism " + parallelism);
+                indicator.setIndeterminate(false);
+                indicator.setFraction(0.0);
+                AtomicInteger finished = new AtomicInteger();
+
+                ForkJoinPool pool = new ForkJoinPool(parallelism);
+                try {
+                    List<ForkJoinTask<?>> tasks = new ArrayList<>();
+                    testFilePathsByTarget.forEach((targetClassFilePath, targetTestFilePaths) -> tasks.add(pool.submit(() -> {
+                        for (String testFilePath : targetTestFilePaths) {
+                            if (indicator.isCanceled()) {
+                                return;
+                            }
+                            indicator.setText2(testFilePath);
+                            ProgressManager.getInstance().runProcess(
+                                    () -> runOne(testFilePath, targetClassFilePath, parallelism, indicator), new RunIndicator(indicator));
+                            indicator.setFraction((double) finished.incrementAndGet() / runCount);
+                        }
+                    })));
+                    for (ForkJoinTask<?> task : tasks) {
+                        task.join();
+                    }
+                } finally {
+                    pool.shutdownNow();
+                }
+            }
+
+            // target class file -> the tests run against it, in the order of the tests
+            private Map<String, List<String>> planRuns(ProgressIndicator indicator) {
+                indicator.setText(I18nService.getInstance().message("campaign.resolving.targets"));
+                Map<String, List<String>> testFilePathsByTarget = new LinkedHashMap<>();
+                TargetClassIndexService targetClassIndex = TargetClassIndexService.getInstance(project);
+                for (String testFilePath : testFilePaths) {
+                    indicator.checkCanceled();
+                    List<String> targetClassFilePaths = pickedTargetClassFilePaths.get(testFilePath);
+                    if (targetClassFilePaths == null) {
+                        VirtualFile testFile = LocalFileSystem.getInstance().findFileByPath(testFilePath);
+                        if (testFile == null || !containsTests(testFile)) {
+                            continue;
+                        }
+                        TargetClassInfo targetClassInfo = targetClassIndex.findTargetClassOfTest(testFile);
+                        if (targetClassInfo == null) {
+                            failed.add(testFilePath + ": " + I18nService.getInstance().message("campaign.no.target.class"));
+                            continue;
+                        }
+                        targetClassFilePaths = Collections.singletonList(targetClassInfo.getFile().normalize().toString().replace("\\", "/"));
+                    }
+                    for (String targetClassFilePath : targetClassFilePaths) {
+                        testFilePathsByTarget.computeIfAbsent(targetClassFilePath, key -> new ArrayList<>()).add(testFilePath);
+                    }
+                }
+                indicator.setText(I18nService.getInstance().message("campaign.running"));
+                return testFilePathsByTarget;
+            }
+
+            // helpers and base classes under the test sources are no tests
+            private boolean containsTests(VirtualFile testFile) {
+                return DumbService.getInstance(project).runReadActionInSmartMode(() -> {
+                    PsiFile psiFile = PsiManager.getInstance(project).findFile(testFile);
+                    if (!(psiFile instanceof PsiJavaFile)) {
+                        return false;
+                    }
+                    for (PsiClass psiClass : ((PsiJavaFile) psiFile).getClasses()) {
+                        for (PsiMethod method : psiClass.getMethods()) {
+                            for (PsiAnnotation annotation : method.getAnnotations()) {
+                                if (TEST_ANNOTATIONS.contains(annotation.getQualifiedName())) {
+                                    return true;
+                                }
+                            }
+                        }
+                    }
+                    return false;
+                });
+            }
+
+            private void runOne(String testFilePath, String targetClassFilePath, int parallelism, ProgressIndicator campaignIndicator) {
+                PitestContext context = new PitestContext(testFilePath, System.currentTimeMillis());
+                context.setUnattended(true);
+                context.setConcurrentRuns(parallelism);
+                context.setTargetClassFilePath(targetClassFilePath);
+                List<PitestCommand> commands = Arrays.asList(
+                        new PrepareEnvironmentCommand(project, context),
+                        new IncrementalAnalysisCommand(project, context),
+                        new BuildPitestCommandCommand(project, context),
+                        new RunPitestCommand(project, context),
+                        new StoreHistoryCommand(project, context)
+                );
+                // a test run against picked target classes is named after both
+                String runName = pickedTargetClassFilePaths.containsKey(testFilePath)
+                        ? testFilePath + " -> " + Paths.get(targetClassFilePath).getFileName()
+                        : testFilePath;
+                try {
+                    for (PitestCommand command : commands) {
+                        // a cancelled run is neither a success nor a failure, and its results are not stored
+                        if (campaignIndicator.isCanceled()) {
+                            return;
+                        }
+                        command.executeMeasured();
+                    }
+                    ProcessResult result = context.getProcessResult();
+                    if (result == null || result.getExitCode() != 0) {
+                        failed.add(runName + ": pitest exited with code " + (result == null ? "-" : result.getExitCode()));
+                        return;
+                    }
+                    List<MutationResult> mutations = context.getMutationResults();
+                    if (mutations != null) {
+                        mutationCount.addAndGet(mutations.size());
+                        killedCount.addAndGet((int) mutations.stream().filter(m -> "KILLED".equals(m.getStatus())).count());
+                    }
+                    succeeded.add(runName);
+                } catch (ProcessCanceledException e) {
+                    throw e;
+                } catch (Exception e) {
+                    if (campaignIndicator.isCanceled()) {
+                        return;
+                    }
+                    log.warn("Mutation campaign run failed for " + runName, e);
+                    failed.add(runName + ": " + e.getMessage());
+                } finally {
+                    RunTelemetryService.getInstance().record(context);
+                }
+            }
+
+            @Override
+            public void onFinished() {
+                StringBuilder message = new StringBuilder(I18nService.getInstance().message("campaign.summary",
+                        succeeded.size(), failed.size(), runCount - succeeded.size() - failed.size(),
+                        mutationCount.get(), killedCount.get()));
+                for (String failure : failed) {
+                    message.append("\n- ").append(failure);
+                }
+                ToolWindow toolWindow = ToolWindowManager.getInstance(project).getToolWindow("TestCraft");
+                if (toolWindow != null && !succeeded.isEmpty()) {
+                    toolWindow.show();
+                    toolWindow.getContentManager().setSelectedContent(
+                            toolWindow.getContentManager().findContent(I18nService.getInstance().message("toolwindow.mutation.tab.name"))
+                    );
+                }
+                Messages.showInfoMessage(project, message.toString(), I18nService.getInstance().message("campaign.summary.title"));
+            }
+        }.queue();
+    }
+
+    // the progress of one run: cancelled with the campaign, its text and fraction stay out of the campaign progress
+    private static final class RunIndicator extends EmptyProgressIndicator {
+        private final ProgressIndicator campaignIndicator;
+
+        RunIndicator(ProgressIndicator campaignIndicator) {
+            this.campaignIndicator = campaignIndicator;
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return super.isCanceled() || campaignIndicator.isCanceled();
+        }
+
+        @Override
+        public void checkCanceled() {
+            if (isCanceled()) {
+                throw new ProcessCanceledException();
+            }
+        }
+    }
+}
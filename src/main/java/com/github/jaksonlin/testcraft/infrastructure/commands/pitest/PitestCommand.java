@@ -2,6 +2,7 @@ package com.github.jaksonlin.testcraft.infrastructure.commands.pitest;
 
 import com.github.jaksonlin.testcraft.infrastructure.commands.CommandCancellationException;
 import com.github.jaksonlin.testcraft.domain.context.PitestContext;
+import com.github.jaksonlin.testcraft.domain.model.RunTelemetry;
 import com.github.jaksonlin.testcraft.infrastructure.services.business.RunHistoryManagerService;
 import com.github.jaksonlin.testcraft.presentation.components.mutation.PitestOutputDialog;
 import com.intellij.openapi.application.ApplicationManager;
@@ -11,7 +12,10 @@ import com.intellij.openapi.ui.DialogWrapper;
 import com.intellij.openapi.ui.Messages;
 
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.github.jaksonlin.testcraft.infrastructure.services.system.I18nService;
@@ -29,6 +33,36 @@ public abstract class PitestCommand {
 
     public abstract void execute();
 
+    /**
+     * Executes the command and adds its wall time and the bytes its thread allocated to the telemetry of the run.
+     */
+    public final void executeMeasured() {
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            execute();
+            failed = false;
+        } finally {
+            long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            long allocatedAfter = allocatedBytes();
+            long allocated = allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore;
+            context.getTelemetry().addStage(new RunTelemetry.StageSample(getClass().getSimpleName(), wallMillis, allocated, failed));
+        }
+    }
+
+    // -1 when the JVM does not count the allocations per thread
+    private static long allocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocationCounter = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (allocationCounter.isThreadAllocatedMemorySupported() && allocationCounter.isThreadAllocatedMemoryEnabled()) {
+                return allocationCounter.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
     protected Project getProject() {
         return project;
     }
@@ -38,6 +72,9 @@ public abstract class PitestCommand {
     }
 
     protected String showInputDialog(String message, String title) {
+        if (context.isUnattended()) {
+            return null;
+        }
         AtomicReference<String> result = new AtomicReference<>();
         ApplicationManager.getApplication().invokeAndWait(() -> {
             result.set(Messages.showInputDialog(project, message, title, Messages.getQuestionIcon()));
@@ -46,6 +83,9 @@ public abstract class PitestCommand {
     }
 
     protected void showOutput(String output, String title) {
+        if (context.isUnattended()) {
+            return;
+        }
         CompletableFuture<Void> future = new CompletableFuture<>();
         ApplicationManager.getApplication().invokeLater(() -> {
             PitestOutputDialog dialog = new PitestOutputDialog(project, output, title);
@@ -64,6 +104,10 @@ public abstract class PitestCommand {
     }
 
     protected void showError(String message) {
+        if (context.isUnattended()) {
+            // the caller throws right after, the campaign collects the failure
+            return;
+        }
         ApplicationManager.getApplication().invokeLater(() -> {
             String contextState = PitestContext.dumpPitestContext(context);
             String messageWithContextState = message + "\n\n" + contextState;
@@ -26,6 +26,8 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import com.github.jaksonlin.testcraft.infrastructure.services.system.I18nService;
+import com.github.jaksonlin.testcraft.infrastructure.services.business.ClasspathCacheService;
+import com.github.jaksonlin.testcraft.infrastructure.services.business.TargetClassIndexService;
 import com.github.jaksonlin.testcraft.infrastructure.services.config.MutationConfigService;
 
 public class PrepareEnvironmentCommand extends PitestCommand {
@@ -182,15 +184,22 @@ public class PrepareEnvironmentCommand extends PitestCommand {
     }
 
     private void collectTargetClassThatWeTest(List<String> sourceRoots) {
-        String targetClass = showInputDialog(I18nService.getInstance().message("dialog.target.class.message"), I18nService.getInstance().message("dialog.target.class.title"));
-        if (targetClass == null || targetClass.isEmpty()) {
-            try {
-                throw new CommandCancellationException("User cancelled the operation");
-            } catch (CommandCancellationException e) {
-                throw new RuntimeException(e);
+        TargetClassInfo targetClassInfo;
+        if (getContext().isUnattended()) {
+            // the campaign resolved the target class before the run
+            String targetClassFilePath = getContext().getTargetClassFilePath();
+            targetClassInfo = targetClassFilePath != null ? TargetClassIndexService.getTargetClassInfo(targetClassFilePath) : null;
+        } else {
+            String targetClass = showInputDialog(I18nService.getInstance().message("dialog.target.class.message"), I18nService.getInstance().message("dialog.target.class.title"));
+            if (targetClass == null || targetClass.isEmpty()) {
+                try {
+                    throw new CommandCancellationException("User cancelled the operation");
+                } catch (CommandCancellationException e) {
+                    throw new RuntimeException(e);
+                }
             }
+            targetClassInfo = TargetClassIndexService.getInstance(getProject()).findTargetClass(sourceRoots, targetClass);
         }
-        TargetClassInfo targetClassInfo = FileUtils.findTargetClassFile(sourceRoots, targetClass);
         if (targetClassInfo == null) {
             showError("Cannot find target class file");
             throw new IllegalStateException("Cannot find target class file");
@@ -296,79 +305,19 @@ public class PrepareEnvironmentCommand extends PitestCommand {
         return junit5PitestPluginJars;
     }
 
-    private boolean matchesAnyPattern(String fileName, List<String> patterns) {
-        for (String pattern : patterns) {
-            // Convert wildcard to regex
-            if (fileName.matches(pattern)) {
-                return true;
-            }
-        }
-        return false;
-    }
-    private void sortTestDependencies(List<String> testDependencies) {
-        // sort the test dependencies by the order of the dependencies
-        String dependencyDirectoriesOrder = MutationConfigService.getInstance().getDependencyDirectoriesOrder();
-        String[] dependencyDirectories = dependencyDirectoriesOrder.split(";");
-        List<String> firstLoadDependentJarsPatterns = MutationConfigService.getInstance().getFirstLoadDependentJarsPatterns();
-       
-        List<String> sortedDependencies = new ArrayList<>();
-        List<String> remainingDependencies = new ArrayList<>(testDependencies);
-
-        // 1. Add first-load dependencies
-        for (String dependency : new ArrayList<>(remainingDependencies)) {
-            String fileName = new File(dependency).getName();
-            if (matchesAnyPattern(fileName, firstLoadDependentJarsPatterns)) {
-                sortedDependencies.add(dependency);
-                remainingDependencies.remove(dependency);
-            }
+    private void collectClassPathFileForPitest(String reportDirectory, String targetPackageName, List<String> resourceDirectories) {
+        ClasspathCacheService classpathCache = ClasspathCacheService.getInstance(getProject());
+        // 0. the class file output paths, 1. the resource directories, 2. the external jars (resolved once per project model)
+        List<String> allDependencies = new ArrayList<>(classpathCache.getClasspath(resourceDirectories));
+        // 3. add the junit 5 pitest plugin jars
+        if (getContext().getIsJunit5()) {
+            allDependencies.addAll(getJunit5PitestPluginJars(classpathCache.getTestDependencies(resourceDirectories)));
         }
-
-        // 2. Add dependencies in the order of the dependency directories
-        for (String dependencyDirectory : dependencyDirectories) {
-            for (String dependency : new ArrayList<>(remainingDependencies)) {
-                String dirName = new File(dependency).getParent();
-                if (dirName != null && dirName.endsWith(dependencyDirectory)) {
-                    // Check if the dependency is in the current directory
-                    // If so, add it to the sorted dependencies
-                    // and remove it from the remaining dependencies
-                    sortedDependencies.add(dependency);
-                    remainingDependencies.remove(dependency);
-                }
-            }
+        // 4. add the tools.jar for JDK 8
+        if (getContext().getJavaVersion().contains("1.8.")) {
+            allDependencies.add(findToolsJarForJDK8());
         }
-        // 3. Add remaining dependencies
-        sortedDependencies.addAll(remainingDependencies);
-        // 4. update the test dependencies
-        testDependencies.clear();
-        testDependencies.addAll(sortedDependencies);
-    }
-
-    private void collectClassPathFileForPitest(String reportDirectory, String targetPackageName, List<String> resourceDirectories) {
-        String classPathFileContent = ReadAction.compute(() -> {
-            // class file output path
-            List<String> classpath = GradleUtils.getCompilationOutputPaths(getProject());
-            // external jars
-            List<String> testDependencies = GradleUtils.getTestRunDependencies(getProject());
-            // sort them by the orders
-            sortTestDependencies(testDependencies);
-            // 0. add the class file output path
-            List<String> allDependencies = new ArrayList<>(classpath);
-            // 1. add the resource directories
-            if (resourceDirectories != null) {
-                allDependencies.addAll(resourceDirectories);
-            }
-            // 2. add the external jars
-            allDependencies.addAll(testDependencies);
-            // 3. add the junit 5 pitest plugin jars
-            if (getContext().getIsJunit5()) {
-                allDependencies.addAll(getJunit5PitestPluginJars(testDependencies));
-            }
-            // 4. add the tools.jar for JDK 8
-            if (getContext().getJavaVersion().contains("1.8.")) {
-                allDependencies.add(findToolsJarForJDK8());
-            }
-            return String.join("\n", allDependencies);
-        });
+        String classPathFileContent = String.join("\n", allDependencies);
         showOutput("Classpath file content: " + classPathFileContent, "Classpath file content");
         getContext().setClasspathFileDirectory(Paths.get(reportDirectory, targetPackageName).toString());
         File classpathDir = new File(getContext().getClasspathFileDirectory());
@@ -377,7 +326,12 @@ public class PrepareEnvironmentCommand extends PitestCommand {
         }
         getContext().setClasspathFile(Paths.get(getContext().getClasspathFileDirectory(), "classpath.txt").toString());
         try {
-            java.nio.file.Files.write(Paths.get(getContext().getClasspathFile()), classPathFileContent.getBytes());
+            Path classpathFile = Paths.get(getContext().getClasspathFile());
+            byte[] content = classPathFileContent.getBytes();
+            if (java.nio.file.Files.exists(classpathFile) && java.util.Arrays.equals(java.nio.file.Files.readAllBytes(classpathFile), content)) {
+                return;
+            }
+            java.nio.file.Files.write(classpathFile, content);
         } catch (java.io.IOException e) {
             showError("Error writing classpath file: " + e.getMessage());
             throw new IllegalStateException("Error writing classpath file", e);
@@ -402,6 +356,11 @@ public class PrepareEnvironmentCommand extends PitestCommand {
                 }
             }
         }
+        // the plugin jar carries the test prioritiser pitest picks up as a plugin
+        String prioritiserJar = PathManager.getJarPathForClass(TestCraftTestPrioritiserFactory.class);
+        if (!dependencies.isEmpty() && prioritiserJar != null) {
+            dependencies.add(prioritiserJar);
+        }
         dependencies.addAll(resourceDirectories);
         if (dependencies.isEmpty()) {
             Messages.showErrorDialog(I18nService.getInstance().message("error.pitest.dependencies"), I18nService.getInstance().message("error.pitest.title"));
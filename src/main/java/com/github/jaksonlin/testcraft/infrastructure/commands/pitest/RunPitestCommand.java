@@ -1,19 +1,36 @@
 package com.github.jaksonlin.testcraft.infrastructure.commands.pitest;
 
 import com.github.jaksonlin.testcraft.domain.context.PitestContext;
+import com.github.jaksonlin.testcraft.infrastructure.messaging.events.MutationEvent;
+import com.github.jaksonlin.testcraft.infrastructure.services.business.PitestService;
+import com.github.jaksonlin.testcraft.infrastructure.services.system.EventBusService;
+import com.github.jaksonlin.testcraft.infrastructure.services.system.I18nService;
 import com.github.jaksonlin.testcraft.util.Mutation;
-import com.github.jaksonlin.testcraft.util.ProcessExecutor;
+import com.github.jaksonlin.testcraft.util.MutationResult;
+import com.github.jaksonlin.testcraft.util.MutationReportTailer;
+import com.github.jaksonlin.testcraft.util.MutationTable;
+import com.github.jaksonlin.testcraft.util.Pair;
+import com.github.jaksonlin.testcraft.util.PitestProgressParser;
+import com.github.jaksonlin.testcraft.util.PitestResourcePlanner;
+import com.github.jaksonlin.testcraft.util.ProcessOutput;
 import com.github.jaksonlin.testcraft.util.ProcessResult;
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.util.concurrency.AppExecutorUtil;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 public class RunPitestCommand extends PitestCommand {
     private static final Logger log = Logger.getInstance(RunPitestCommand.class);
+    private static final String OUTPUT_LOG_FILE = "pitest-output.log";
+    private static final long STALLED_SECONDS = 30;
 
     public RunPitestCommand(Project project, PitestContext context) {
         super(project, context);
@@ -37,10 +54,40 @@ public class RunPitestCommand extends PitestCommand {
             // Not throwing exception here as it's not critical for the process execution
         }
 
-        ProcessResult processResult = ProcessExecutor.executeProcess(command, getContext().getWorkingDirectory());
+        // follow mutations.xml while pitest writes it, so the editor shows results before the run ends
+        String targetClassFilePath = getContext().getTargetClassFilePath();
+        EventBusService eventBusService = EventBusService.getInstance();
+        eventBusService.post(new MutationEvent(MutationEvent.MUTATION_PROGRESS_START, targetClassFilePath));
+        MutationReportTailer reportTailer = MutationReportTailer.start(getContext().getPitestReportXml(),
+                batch -> eventBusService.post(new MutationEvent(MutationEvent.MUTATION_PROGRESS, new Pair<String, List<Mutation>>(targetClassFilePath, batch))));
+
+        // verbose pitest output can be huge, only its tail stays in memory and the full log goes next to the report
+        ProcessOutput processOutput = new ProcessOutput(Paths.get(getContext().getReportDirectory(), OUTPUT_LOG_FILE));
+        PitestProgressParser progressParser = new PitestProgressParser(PitestResourcePlanner.expectedMutants(getContext().getReportDirectory()));
+        processOutput.subscribe(progressParser);
+        ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+        ScheduledFuture<?> progressUpdates = indicator == null ? null : AppExecutorUtil.getAppScheduledExecutorService()
+                .scheduleWithFixedDelay(() -> showProgress(indicator, progressParser), 0, 1, TimeUnit.SECONDS);
+        ProcessResult processResult;
+        try {
+            processResult = PitestService.getInstance().runMutationCoverage(getProject(), command, getContext().getWorkingDirectory(), processOutput, indicator);
+        } finally {
+            if (progressUpdates != null) {
+                progressUpdates.cancel(false);
+            }
+        }
+        log.info("pitest finished " + progressParser.getProcessedMutants() + " mutants at " + String.format("%.1f", progressParser.getMutantsPerSecond()) + " mutants/s");
         getContext().setProcessResult(processResult);
         try {
-            List<Mutation> mutations = getContext().collectMutationsResults();
+            MutationTable mutationTable = reportTailer != null ? reportTailer.finish() : null;
+            eventBusService.post(new MutationEvent(MutationEvent.MUTATION_PROGRESS_END, targetClassFilePath));
+            List<MutationResult> mutations;
+            if (mutationTable != null) {
+                getContext().setMutationTable(mutationTable);
+                mutations = mutationTable.asList();
+            } else {
+                mutations = getContext().collectMutationsResults();
+            }
             if (mutations.isEmpty()){
                 log.info("No mutations found");
             } else {
@@ -51,4 +98,37 @@ public class RunPitestCommand extends PitestCommand {
             // Not throwing exception here as it's not critical for the process execution
         }
     }
+
+    private static void showProgress(ProgressIndicator indicator, PitestProgressParser progressParser) {
+        I18nService i18n = I18nService.getInstance();
+        String text;
+        switch (progressParser.getPhase()) {
+            case SCAN_CLASSPATH:
+                text = i18n.message("pitest.progress.scan");
+                break;
+            case COVERAGE:
+                text = i18n.message("pitest.progress.coverage");
+                break;
+            case MUTATION_ANALYSIS:
+                String mutantsPerSecond = String.format("%.1f", progressParser.getMutantsPerSecond());
+                long etaSeconds = progressParser.getEtaSeconds();
+                text = etaSeconds >= 0
+                        ? i18n.message("pitest.progress.analysis.eta", progressParser.getProcessedMutants(), progressParser.getExpectedMutants(), mutantsPerSecond, etaSeconds)
+                        : i18n.message("pitest.progress.analysis", progressParser.getProcessedMutants(), mutantsPerSecond);
+                // a slow run still finishes mutants now and then, a stuck one does not
+                long stalledSeconds = progressParser.getMillisSinceLastMutant() / 1000;
+                if (stalledSeconds >= STALLED_SECONDS) {
+                    text += i18n.message("pitest.progress.stalled", stalledSeconds);
+                }
+                break;
+            case DONE:
+                text = i18n.message("pitest.progress.done");
+                break;
+            default:
+                return;
+        }
+        indicator.setIndeterminate(false);
+        indicator.setFraction(progressParser.getFraction());
+        indicator.setText2(text);
+    }
 }
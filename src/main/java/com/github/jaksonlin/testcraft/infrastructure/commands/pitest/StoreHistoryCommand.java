@@ -1,12 +1,26 @@
 package com.github.jaksonlin.testcraft.infrastructure.commands.pitest;
 
 import com.github.jaksonlin.testcraft.domain.context.PitestContext;
+import com.github.jaksonlin.testcraft.util.MutationResult;
+import com.github.jaksonlin.testcraft.util.PitestResourcePlanner;
+import com.github.jaksonlin.testcraft.util.TestPriorities;
+import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.wm.ToolWindow;
 import com.intellij.openapi.wm.ToolWindowManager;
 import com.github.jaksonlin.testcraft.infrastructure.services.system.I18nService;
 import com.intellij.openapi.application.ApplicationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
 public class StoreHistoryCommand extends PitestCommand {
+    private static final Logger log = Logger.getInstance(StoreHistoryCommand.class);
 
     public StoreHistoryCommand(Project project, PitestContext context) {
         super(project, context);
@@ -14,8 +28,19 @@ public class StoreHistoryCommand extends PitestCommand {
 
     @Override
     public void execute() {
+        PitestResourcePlanner.record(getContext().getReportDirectory(), getContext().getResourcePlan(),
+                getContext().getProcessResult(), getContext().getMutationResults());
+        // read the previous run before the save replaces it
+        boolean coversWholeClass = IncrementalAnalysisCommand.mergePreviousResults(getContext(),
+                runHistoryManager.getRunHistoryForClass(getContext().getTargetClassFullyQualifiedName()));
         runHistoryManager.saveRunHistory(getContext());
-        if (getContext().getProcessResult().getExitCode() == 0)
+        if (getContext().getProcessResult().getExitCode() == 0) {
+            if (coversWholeClass) {
+                IncrementalAnalysisCommand.recordRevision(getContext());
+            }
+            recordTestPriorities();
+        }
+        if (getContext().getProcessResult().getExitCode() == 0 && !getContext().isUnattended())
         ApplicationManager.getApplication().invokeLater(() -> {
             ToolWindow toolWindow = ToolWindowManager.getInstance(this.getProject()).getToolWindow("TestCraft");
             if (toolWindow != null) {
@@ -26,4 +51,39 @@ public class StoreHistoryCommand extends PitestCommand {
             }
         });
     }
+
+    // killing tests and line coverage of this run, the prioritiser orders the tests of the next run by them
+    private void recordTestPriorities() {
+        List<MutationResult> mutations = getContext().getMutationResults();
+        if (mutations == null) {
+            return;
+        }
+        Path lineCoverage = Paths.get(getContext().getReportDirectory(), TestPriorities.LINE_COVERAGE_FILE);
+        try {
+            Map<String, List<String>> testsPerBlock = Files.exists(lineCoverage)
+                    ? TestPriorities.readLineCoverage(lineCoverage) : Collections.emptyMap();
+            TestPriorities.Builder builder = new TestPriorities.Builder();
+            for (MutationResult mutation : mutations) {
+                if ("KILLED".equals(mutation.getStatus())) {
+                    builder.addKill(mutation.getLineNumber(), mutation.getKillingTest());
+                }
+                List<Integer> blocks = mutation.getBlocks() != null ? mutation.getBlocks().getBlock() : null;
+                if (blocks != null) {
+                    for (int block : blocks) {
+                        builder.addCoveringTests(mutation.getLineNumber(), testsPerBlock.get(TestPriorities.blockKey(
+                                mutation.getMutatedClass(), mutation.getMutatedMethod(), mutation.getMethodDescription(), block)));
+                    }
+                }
+            }
+            Path prioritiesFile = Paths.get(getContext().getReportDirectory(), TestPriorities.FILE_NAME);
+            TestPriorities priorities = builder.build();
+            // a run of some methods only knows their lines, keep what the earlier runs learned about the others
+            if (getContext().getMethodsToMutate() != null && Files.exists(prioritiesFile)) {
+                priorities = priorities.withLinesOf(TestPriorities.read(prioritiesFile));
+            }
+            priorities.write(prioritiesFile);
+        } catch (IOException e) {
+            log.warn("Cannot record the test priorities of " + getContext().getTargetClassFullyQualifiedName(), e);
+        }
+    }
 }
@@ -0,0 +1,135 @@
+package com.github.jaksonlin.testcraft.infrastructure.commands.testscan;
+
+import com.github.jaksonlin.testcraft.util.AssertionPatternMatcher;
+import com.intellij.lang.java.JavaLanguage;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds the method holding the assertion of a test: the test itself or a helper it calls, a few calls deep.
+ * <p>
+ * What a method calls and whether it asserts is worked out once per method and remembered, so a helper shared by
+ * many tests is only analysed once. One instance serves a whole scan, the memo is dropped when the Java PSI changes.
+ */
+public class AssertionReachability {
+    // the walk gives up after looking into this many methods
+    private static final int MAX_VISITED_METHODS = 5;
+
+    private final AssertionPatternMatcher invalidAssertionMatcher;
+    private final Map<PsiMethod, MethodFacts> facts = new ConcurrentHashMap<>();
+    private final Map<PsiMethod, Optional<AssertionPatternMatcher.Match>> invalidAssertions = new ConcurrentHashMap<>();
+    private volatile long modificationCount = -1;
+
+    private static class MethodFacts {
+        final boolean containsAssertion;
+        // the called methods resolved while looking for the assertion, in call order
+        final List<PsiMethod> callees;
+
+        MethodFacts(boolean containsAssertion, List<PsiMethod> callees) {
+            this.containsAssertion = containsAssertion;
+            this.callees = callees;
+        }
+    }
+
+    public AssertionReachability(AssertionPatternMatcher invalidAssertionMatcher) {
+        this.invalidAssertionMatcher = invalidAssertionMatcher;
+    }
+
+    /**
+     * Called in a read action.
+     * @param dependencies receives the files of the methods resolved on the way
+     * @return the first method found calling an assertion, verification or fail
+     */
+    public Optional<PsiMethod> findAssertionMethod(PsiMethod testMethod, Set<VirtualFile> dependencies) {
+        dropIfModified(testMethod);
+        Stack<PsiMethod> stack = new Stack<>();
+        stack.push(testMethod);
+        for (int visited = 1; !stack.isEmpty(); visited++) {
+            PsiMethod method = stack.pop();
+            MethodFacts methodFacts = facts.computeIfAbsent(method, AssertionReachability::analyse);
+            for (PsiMethod callee : methodFacts.callees) {
+                if (callee.getContainingFile() != null && callee.getContainingFile().getVirtualFile() != null) {
+                    dependencies.add(callee.getContainingFile().getVirtualFile());
+                }
+            }
+            if (methodFacts.containsAssertion) {
+                return Optional.of(method);
+            }
+            methodFacts.callees.forEach(stack::push);
+            if (visited >= MAX_VISITED_METHODS) {
+                break;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Called in a read action.
+     * @return the first configured invalid assertion in the text of the method, its offset is relative to the method
+     */
+    public Optional<AssertionPatternMatcher.Match> findInvalidAssertion(PsiMethod method) {
+        dropIfModified(method);
+        return invalidAssertions.computeIfAbsent(method, key -> Optional.ofNullable(invalidAssertionMatcher.findFirst(key.getText())));
+    }
+
+    private void dropIfModified(PsiMethod method) {
+        long currentModificationCount = PsiModificationTracker.getInstance(method.getProject())
+                .forLanguage(JavaLanguage.INSTANCE).getModificationCount();
+        if (currentModificationCount != modificationCount) {
+            synchronized (this) {
+                if (currentModificationCount != modificationCount) {
+                    facts.clear();
+                    invalidAssertions.clear();
+                    modificationCount = currentModificationCount;
+                }
+            }
+        }
+    }
+
+    private static MethodFacts analyse(PsiMethod method) {
+        List<PsiMethod> callees = new ArrayList<>();
+        // 1. iterate all the method call in the method body
+        for (PsiMethodCallExpression methodCall : PsiTreeUtil.findChildrenOfType(method, PsiMethodCallExpression.class)) {
+            // 2.1 check the method call text to see if it contains assert statement string
+            if (isAssertionName(methodCall.getText())) {
+                return new MethodFacts(true, callees);
+            }
+            // 2.2 check the method name to see if it contains assert statement string
+            String methodName = methodCall.getMethodExpression().getReferenceName();
+            if (methodName == null) {
+                continue;
+            }
+            if (isAssertionName(methodName)) {
+                return new MethodFacts(true, callees);
+            }
+            // 2.3 check the class of the called method, then look into the method itself
+            PsiMethod childMethod = methodCall.resolveMethod();
+            if (childMethod != null) {
+                callees.add(childMethod);
+                PsiClass containingClass = childMethod.getContainingClass();
+                String className = containingClass != null ? containingClass.getQualifiedName() : null;
+                if (className != null && isAssertionName(className)) {
+                    return new MethodFacts(true, callees);
+                }
+            }
+        }
+        return new MethodFacts(false, callees);
+    }
+
+    private static boolean isAssertionName(String text) {
+        String lowerCase = text.toLowerCase();
+        return lowerCase.contains("assert") || lowerCase.contains("verify") || lowerCase.contains("fail");
+    }
+}
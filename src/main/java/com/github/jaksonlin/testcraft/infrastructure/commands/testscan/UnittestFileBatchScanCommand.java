@@ -8,25 +8,45 @@ import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.actionSystem.CommonDataKeys;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
-import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.wm.ToolWindow;
 import com.intellij.openapi.wm.ToolWindowManager;
 import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.GlobalSearchScopesCore;
+import com.intellij.psi.search.searches.AnnotatedElementsSearch;
 import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import com.github.jaksonlin.testcraft.infrastructure.messaging.events.InvalidTestScanEvent;
+import com.github.jaksonlin.testcraft.infrastructure.services.business.InvalidTestScanCacheService;
 import com.github.jaksonlin.testcraft.infrastructure.services.system.EventBusService;
 import com.github.jaksonlin.testcraft.infrastructure.services.system.I18nService;
 
 public class UnittestFileBatchScanCommand {
+    private static final Logger log = Logger.getInstance(UnittestFileBatchScanCommand.class);
+    // the annotations the indexes are searched for, on test methods and on test classes
+    private static final List<String> TEST_METHOD_ANNOTATIONS = Arrays.asList(
+            "org.junit.Test",
+            "org.junit.jupiter.api.Test"
+    );
+    private static final List<String> TEST_CLASS_ANNOTATIONS = Arrays.asList(
+            "org.junit.runner.RunWith",
+            "org.junit.jupiter.api.TestInstance",
+            "org.junit.platform.suite.api.Suite"
+    );
     private final Set<String> testAnnotations = new HashSet<>(Arrays.asList(
             "org.junit.Test",
             "org.junit.jupiter.api.Test",
@@ -44,6 +64,8 @@ public class UnittestFileBatchScanCommand {
     public void execute() {
         new Task.Backgroundable(project, "Scanning Test Cases", false) {
             private List<InvalidTestCase> invalidTestCases = new ArrayList<>();
+            // the classes that could not be checked, they are reported rather than taken for valid
+            private final List<String> failedTestClasses = new ArrayList<>();
 
             @Override
             public void run(@NotNull ProgressIndicator indicator) {
@@ -51,57 +73,35 @@ public class UnittestFileBatchScanCommand {
                 indicator.setIndeterminate(false);
                 indicator.setText(I18nService.getInstance().message("testscan.scanning_test_classes"));
                 
-                List<PsiClass> testClasses = ReadAction.compute(() -> findTestClasses());
+                // the annotation indexes are needed, wait for indexing to finish instead of failing
+                List<SmartPsiElementPointer<PsiClass>> testClasses = ReadAction.nonBlocking(() -> findTestClasses())
+                        .inSmartMode(project)
+                        .wrapProgress(indicator)
+                        .executeSynchronously();
                 if (testClasses.isEmpty()) {
                     return;
                 }
 
                 indicator.setText(I18nService.getInstance().message("testscan.checking_test_cases"));
                 indicator.setFraction(0.0);
-                double progressStep = 1.0 / testClasses.size();
-
-                InspectionManager inspectionManager = InspectionManager.getInstance(project);
-
-                for (PsiClass testClass : testClasses) {
-                    if (indicator.isCanceled()) {
-                        break;
-                    }
-
-                    final PsiClass finalTestClass = testClass;
-                    String qualifiedName = ReadAction.compute(() -> finalTestClass.getQualifiedName());
-                    indicator.setText2(I18nService.getInstance().message("testscan.checking_test_cases", qualifiedName));
-                    
-                    ReadAction.run(() -> {
-                        for (PsiMethod method : testClass.getMethods()) {
-                            if (isTestMethod(method)) {
-                                CaseCheckContext caseContext = CaseCheckContext.create(method, testClass);
-                                ProblemsHolder holder = new ProblemsHolder(inspectionManager, method.getContainingFile(), true);
-                                UnittestFileInspectorCommand command = new UnittestFileInspectorCommand(holder, project, caseContext);
-                                command.execute();
-
-                                if (holder.hasResults()) {
-                                    InvalidTestCase invalidTestCase = new InvalidTestCase(project, testClass, method);
-                                    invalidTestCases.add(invalidTestCase);
-                                }
-                            }
-                        }
-                    });
-                    
-                    indicator.setFraction(indicator.getFraction() + progressStep);
-                }
+                invalidTestCases = scanTestClasses(testClasses, indicator, failedTestClasses);
             }
 
             @Override
             public void onSuccess() {
-                if (invalidTestCases.isEmpty()) {
+                if (invalidTestCases.isEmpty() && failedTestClasses.isEmpty()) {
                     Messages.showInfoMessage(project, I18nService.getInstance().message("testscan.no_invalid_test_cases_found"), I18nService.getInstance().message("testscan.test_case_validation_results"));
                     EventBusService.getInstance().post(new InvalidTestScanEvent(InvalidTestScanEvent.INVALID_TEST_SCAN_END_EVENT, null));
+                } else if (invalidTestCases.isEmpty()) {
+                    EventBusService.getInstance().post(new InvalidTestScanEvent(InvalidTestScanEvent.INVALID_TEST_SCAN_END_EVENT, null));
+                    Messages.showWarningDialog(project, failedTestClassesMessage(), I18nService.getInstance().message("testscan.test_case_validation_results"));
                 } else {
                     StringBuilder message = new StringBuilder();
                     message.append(String.format(I18nService.getInstance().message("testscan.found_invalid_test_cases", invalidTestCases.size())));
                     for (InvalidTestCase testCase : invalidTestCases) {
                         message.append(String.format("- %s\n", testCase.getQualifiedName()));
                     }
+                    message.append(failedTestClassesMessage());
                     if (invalidTestCases.size() > 0) {
                         // Show the tool window and select the invalid test cases tab
                         ApplicationManager.getApplication().invokeLater(() -> {
@@ -121,6 +121,18 @@ public class UnittestFileBatchScanCommand {
                 }
             }
 
+            private String failedTestClassesMessage() {
+                if (failedTestClasses.isEmpty()) {
+                    return "";
+                }
+                StringBuilder message = new StringBuilder(I18nService.getInstance().message("testscan.failed_test_classes", failedTestClasses.size()));
+                message.append("\n");
+                for (String testClassName : failedTestClasses) {
+                    message.append(String.format("- %s\n", testClassName));
+                }
+                return message.toString();
+            }
+
             @Override
             public void onCancel() {
                 Messages.showInfoMessage(project, I18nService.getInstance().message("testscan.test_case_validation_canceled"), I18nService.getInstance().message("testscan.test_case_validation_canceled"));
@@ -128,9 +140,105 @@ public class UnittestFileBatchScanCommand {
         }.queue();
     }
 
-    private List<PsiClass> findTestClasses() {
+    /**
+     * Checks the test classes on a bounded pool, each class in its own non-blocking read action so that a write
+     * action in the editor restarts the class instead of waiting for the whole scan.
+     * <p>
+     * The schema, parser and invalid assertions are taken once and shared by all methods of the scan. Classes whose
+     * files did not change since the last scan are answered from {@link InvalidTestScanCacheService}. The scans wait
+     * for indexing, classes that fail anyway are added to {@code failedTestClasses}.
+     */
+    private List<InvalidTestCase> scanTestClasses(List<SmartPsiElementPointer<PsiClass>> testClasses, ProgressIndicator indicator,
+                                                  List<String> failedTestClasses) {
+        CaseCheckContext scanContext = CaseCheckContext.create(null, null);
+        InspectionManager inspectionManager = InspectionManager.getInstance(project);
+        InvalidTestScanCacheService scanCache = InvalidTestScanCacheService.getInstance(project);
+        int parallelism = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), testClasses.size()));
+        ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("TestCraft Test Scan", parallelism);
+        List<Future<List<InvalidTestCase>>> scans = new ArrayList<>();
+        try {
+            for (SmartPsiElementPointer<PsiClass> testClassPointer : testClasses) {
+                scans.add(ReadAction.nonBlocking(() -> {
+                            PsiClass testClass = testClassPointer.getElement();
+                            if (testClass == null) {
+                                return Collections.<InvalidTestCase>emptyList();
+                            }
+                            List<InvalidTestCase> cached = scanCache.get(testClass);
+                            if (cached != null) {
+                                return cached;
+                            }
+                            indicator.setText2(testClass.getQualifiedName());
+                            return scanTestClass(testClass, scanContext, inspectionManager, scanCache);
+                        })
+                        .inSmartMode(project)
+                        .wrapProgress(indicator)
+                        .submit(executor));
+            }
+            // collected in the order of the classes so that the results do not depend on the scheduling
+            List<InvalidTestCase> found = new ArrayList<>();
+            for (int i = 0; i < scans.size() && !indicator.isCanceled(); i++) {
+                try {
+                    found.addAll(scans.get(i).get());
+                    indicator.setFraction((double) (i + 1) / scans.size());
+                } catch (ExecutionException ex) {
+                    String testClassName = describe(testClasses.get(i));
+                    log.warn("Test class scan failed: " + testClassName, ex.getCause());
+                    failedTestClasses.add(testClassName);
+                } catch (CancellationException ex) {
+                    // cancelled together with the indicator
+                }
+            }
+            return found;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return new ArrayList<>();
+        } finally {
+            for (Future<List<InvalidTestCase>> scan : scans) {
+                scan.cancel(false);
+            }
+            executor.shutdown();
+            scanCache.save();
+        }
+    }
+
+    private static String describe(SmartPsiElementPointer<PsiClass> testClassPointer) {
+        return ReadAction.compute(() -> {
+            PsiClass testClass = testClassPointer.getElement();
+            if (testClass != null && testClass.getQualifiedName() != null) {
+                return testClass.getQualifiedName();
+            }
+            VirtualFile file = testClassPointer.getVirtualFile();
+            return file != null ? file.getPath() : "<unknown class>";
+        });
+    }
+
+    // runs inside a read action, it may be restarted so it only returns what it found
+    private List<InvalidTestCase> scanTestClass(PsiClass testClass, CaseCheckContext scanContext, InspectionManager inspectionManager,
+                                                InvalidTestScanCacheService scanCache) {
+        List<InvalidTestCase> classInvalidTestCases = new ArrayList<>();
+        Set<VirtualFile> dependencies = new HashSet<>();
+        for (PsiMethod method : testClass.getMethods()) {
+            if (isTestMethod(method)) {
+                ProblemsHolder holder = new ProblemsHolder(inspectionManager, method.getContainingFile(), true);
+                UnittestFileInspectorCommand command = new UnittestFileInspectorCommand(holder, project, scanContext.copy(testClass, method));
+                command.execute();
+                dependencies.addAll(command.getDependencies());
+                if (holder.hasResults()) {
+                    classInvalidTestCases.add(new InvalidTestCase(project, testClass, method));
+                }
+            }
+        }
+        scanCache.put(testClass, classInvalidTestCases, dependencies);
+        return classInvalidTestCases;
+    }
+
+    /**
+     * Finds the test classes from the annotation indexes, only the files holding them are parsed afterwards.
+     * A project or directory scan is limited to the test source roots.
+     */
+    private List<SmartPsiElementPointer<PsiClass>> findTestClasses() {
         List<PsiClass> testClasses = new ArrayList<>();
-        PsiManager psiManager = PsiManager.getInstance(project);
+        GlobalSearchScope testScope = GlobalSearchScopesCore.projectTestScope(project);
 
         // Get the context from the action event
         PsiElement element = e.getData(CommonDataKeys.PSI_ELEMENT);
@@ -139,50 +247,69 @@ public class UnittestFileBatchScanCommand {
         if (element != null) {
             // If triggered from a file or directory in the project view
             if (element instanceof PsiFile) {
-                PsiFile psiFile = (PsiFile) element;
-                if (psiFile.getName().endsWith(".java")) {
-                    PsiClass[] classes = PsiTreeUtil.getChildrenOfType(psiFile, PsiClass.class);
-                    if (classes != null) {
-                        for (PsiClass psiClass : classes) {
-                            if (isTestClass(psiClass)) {
-                                testClasses.add(psiClass);
-                            }
-                        }
-                    }
-                }
+                findTestClassesInFile((PsiFile) element, testClasses);
             } else if (element instanceof PsiDirectory) {
-                // If triggered from a directory, scan that directory
-                findTestClassesInDirectory((PsiDirectory) element, testClasses);
+                // If triggered from a directory, scan the test sources under that directory
+                searchTestClasses(GlobalSearchScopesCore.directoryScope((PsiDirectory) element, true).intersectWith(testScope), testClasses);
             }
         } else if (file != null) {
             // If triggered from a file in the editor
-            if (file.getName().endsWith(".java")) {
-                PsiFile psiFile = psiManager.findFile(file);
-                if (psiFile != null) {
-                    PsiClass[] classes = PsiTreeUtil.getChildrenOfType(psiFile, PsiClass.class);
-                    if (classes != null) {
-                        for (PsiClass psiClass : classes) {
-                            if (isTestClass(psiClass)) {
-                                testClasses.add(psiClass);
-                            }
-                        }
-                    }
-                }
+            PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+            if (psiFile != null) {
+                findTestClassesInFile(psiFile, testClasses);
             }
         } else {
-            // If no specific context, scan the entire project
-            VirtualFile baseDir = LocalFileSystem.getInstance().findFileByPath(Objects.requireNonNull(project.getBasePath()));
-            if (baseDir != null) {
-                VirtualFile[] children = baseDir.getChildren();
-                for (VirtualFile child : children) {
-                    if (child.isDirectory() && (child.getName().equals("src") || child.getName().equals("test"))) {
-                        findTestClassesInDirectory(psiManager.findDirectory(child), testClasses);
-                    }
+            // If no specific context, scan all test sources of the project
+            searchTestClasses(testScope, testClasses);
+        }
+
+        SmartPointerManager smartPointerManager = SmartPointerManager.getInstance(project);
+        List<SmartPsiElementPointer<PsiClass>> pointers = new ArrayList<>();
+        for (PsiClass testClass : testClasses) {
+            pointers.add(smartPointerManager.createSmartPsiElementPointer(testClass));
+        }
+        return pointers;
+    }
+
+    private void findTestClassesInFile(PsiFile psiFile, List<PsiClass> testClasses) {
+        if (!psiFile.getName().endsWith(".java")) {
+            return;
+        }
+        PsiClass[] classes = PsiTreeUtil.getChildrenOfType(psiFile, PsiClass.class);
+        if (classes != null) {
+            for (PsiClass psiClass : classes) {
+                if (isTestClass(psiClass)) {
+                    testClasses.add(psiClass);
                 }
             }
         }
+    }
 
-        return testClasses;
+    private void searchTestClasses(GlobalSearchScope scope, List<PsiClass> testClasses) {
+        Set<PsiClass> found = new LinkedHashSet<>();
+        JavaPsiFacade psiFacade = JavaPsiFacade.getInstance(project);
+        GlobalSearchScope annotationScope = GlobalSearchScope.allScope(project);
+        for (String annotationName : TEST_METHOD_ANNOTATIONS) {
+            PsiClass annotationClass = psiFacade.findClass(annotationName, annotationScope);
+            if (annotationClass != null) {
+                AnnotatedElementsSearch.searchPsiMethods(annotationClass, scope).forEach(method -> {
+                    if (method.getContainingClass() != null) {
+                        found.add(method.getContainingClass());
+                    }
+                    return true;
+                });
+            }
+        }
+        for (String annotationName : TEST_CLASS_ANNOTATIONS) {
+            PsiClass annotationClass = psiFacade.findClass(annotationName, annotationScope);
+            if (annotationClass != null) {
+                AnnotatedElementsSearch.searchPsiClasses(annotationClass, scope).forEach(psiClass -> {
+                    found.add(psiClass);
+                    return true;
+                });
+            }
+        }
+        testClasses.addAll(found);
     }
 
     private boolean isTestClass(PsiClass psiClass) {
@@ -213,26 +340,4 @@ public class UnittestFileBatchScanCommand {
         }
         return false;
     }
-
-    private void findTestClassesInDirectory(PsiDirectory directory, List<PsiClass> testClasses) {
-        if (directory == null) return;
-
-        for (PsiElement child : directory.getChildren()) {
-            if (child instanceof PsiDirectory) {
-                findTestClassesInDirectory((PsiDirectory) child, testClasses);
-            } else if (child instanceof PsiFile) {
-                PsiFile file = (PsiFile) child;
-                if (file.getName().endsWith(".java")) {
-                    PsiClass[] classes = PsiTreeUtil.getChildrenOfType(file, PsiClass.class);
-                    if (classes != null) {
-                        for (PsiClass psiClass : classes) {
-                            if (isTestClass(psiClass)) {
-                                testClasses.add(psiClass);
-                            }
-                        }
-                    }
-                }
-            }
-        }
-    }
 }
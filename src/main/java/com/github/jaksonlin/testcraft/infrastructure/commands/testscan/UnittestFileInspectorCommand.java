@@ -3,32 +3,42 @@ package com.github.jaksonlin.testcraft.infrastructure.commands.testscan;
 import com.github.jaksonlin.testcraft.domain.context.CaseCheckContext;
 import com.github.jaksonlin.testcraft.infrastructure.services.config.AnnotationConfigService;
 import com.github.jaksonlin.testcraft.infrastructure.services.config.InvalidTestCaseConfigService;
+import com.github.jaksonlin.testcraft.util.AssertionPatternMatcher;
 import com.intellij.codeInspection.ProblemHighlightType;
 import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiAnnotation;
 import com.intellij.psi.PsiComment;
+import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiMethod;
-import com.intellij.psi.PsiMethodCallExpression;
 import com.intellij.psi.util.PsiTreeUtil;
 
-import java.util.List;
+import java.util.HashSet;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Stack;
+import java.util.Set;
 
 // this is inspector command for unittest file scan
 public class UnittestFileInspectorCommand extends UnittestCaseCheckCommand {
     private final ProblemsHolder holder;
     private final InvalidTestCaseConfigService invalidTestCaseConfigService = ApplicationManager.getApplication().getService(InvalidTestCaseConfigService.class);
     private final AnnotationConfigService annotationConfigService = ApplicationManager.getApplication().getService(AnnotationConfigService.class);
+    // files of the methods the assertion search resolved, what the result depends on beside the test file
+    private final Set<VirtualFile> dependencies = new HashSet<>();
+    private Optional<PsiMethod> assertionMethodOfTest;
 
     public UnittestFileInspectorCommand(ProblemsHolder holder, Project project, CaseCheckContext context) {
         super(project, context);
         this.holder = holder;
     }
 
+    public Set<VirtualFile> getDependencies() {
+        return dependencies;
+    }
+
     private void reportError(String message, ProblemHighlightType highlightType) {
         if (holder == null) {
             return;
@@ -119,84 +129,40 @@ public class UnittestFileInspectorCommand extends UnittestCaseCheckCommand {
        return assertionMethod.isPresent();
     }
 
+    // the walk is done once for both assertion checks, the helpers it goes through are memoized for the whole scan
     private Optional<PsiMethod> getAssertionMethodFromTestMethod(PsiMethod psiMethod) {
-        Stack<PsiMethod> stack = new Stack<>();
-        stack.push(psiMethod);
-        int depth = 0;
-        while (!stack.isEmpty()) {
-            PsiMethod method = stack.pop();
-            // 1. iterate all the method call in the method body
-            for (PsiMethodCallExpression methodCall : PsiTreeUtil.findChildrenOfType(method, PsiMethodCallExpression.class)) {
-                // 2. check if the method is assert statement
-                // 2.1 check the method body text to see if it contains assert statement string
-                String methodText = methodCall.getText().toLowerCase();
-                if (methodText.contains("assert")
-                        || methodText.contains("verify")
-                        || methodText.contains("fail")) {
-                    return Optional.of(method);
-                }
-
-                // 2.2 check the method name to see if it contains assert statement string
-                String methodName = methodCall.getMethodExpression().getReferenceName();
-                if (methodName == null){
-                    continue;
-                }
-
-                if (methodName.toLowerCase().contains("assert")
-                        || methodName.toLowerCase().contains("verify")
-                        || methodName.toLowerCase().contains("fail")) {
-                    // which means the method contains assert statement
-                    return Optional.of(method);
-                }
-                // 2.3. method class name
-                PsiMethod childMethod = methodCall.resolveMethod();
-                if (childMethod != null) {
-                    // 3.1 check if the method class name is not null
-                    if (childMethod.getContainingClass() == null
-                            || childMethod.getContainingClass().getQualifiedName() == null
-                            || childMethod.getContainingClass().getQualifiedName().isEmpty()) {
-                        stack.push(childMethod);
-                        continue;
-                    }
-                    String className = childMethod.getContainingClass().getQualifiedName();
-                    if (className.toLowerCase().contains("assert")
-                            || className.toLowerCase().contains("verify")
-                            || className.toLowerCase().contains("fail")) {
-                        // which means the method contains assert statement
-                        return Optional.of(method);
-                    }
-                    stack.push(childMethod);
-                }
-
-            }
-            // 4. if the depth is greater than 3, return false
-            if (depth > 3) {
-                return Optional.empty();
-            }
-            // 5. if the stack is empty, return false
-            if (stack.isEmpty()) {
-                return Optional.empty();
-            }
-            depth++;
+        if (assertionMethodOfTest == null) {
+            assertionMethodOfTest = getContext().getAssertionReachability().findAssertionMethod(psiMethod, dependencies);
         }
-
-        return Optional.empty();
+        return assertionMethodOfTest;
     }
 
-
     private void checkIfValidAssertionStatement(PsiMethod psiMethod) {
         // check method call statement to see if there's any assert statement that is not valid (listed in invalidAssertions)
         Optional<PsiMethod> assertionMethod = getAssertionMethodFromTestMethod(psiMethod);
         // use method call as assertion statement, check the method content
-        if (assertionMethod.isPresent()) {
-            List<String> invalidAssertions = invalidTestCaseConfigService.getInvalidAssertions();
-            String methodText = assertionMethod.get().getText();
-            for (String invalidAssertion : invalidAssertions) {
-                if (methodText.contains(invalidAssertion)) {
-                    reportError( "Method should contains valid assert statement", ProblemHighlightType.ERROR);
-                    return;
-                }
-            }
+        if (!assertionMethod.isPresent()) {
+            return;
+        }
+        Optional<AssertionPatternMatcher.Match> invalidAssertion = getContext().getAssertionReachability().findInvalidAssertion(assertionMethod.get());
+        if (invalidAssertion.isPresent()) {
+            reportError("Method should contains valid assert statement, found " + invalidAssertion.get().getPattern()
+                    + describeLocation(assertionMethod.get(), invalidAssertion.get().getOffset()), ProblemHighlightType.ERROR);
+        }
+    }
+
+    // where an invalid assertion was found: " in helper() at line 12", the method is left out when it is the test itself
+    private String describeLocation(PsiMethod method, int offsetInMethod) {
+        StringBuilder location = new StringBuilder();
+        if (method != getContext().getPsiMethod()) {
+            location.append(" in ").append(method.getName()).append("()");
+        }
+        PsiFile file = method.getContainingFile();
+        Document document = file != null ? file.getViewProvider().getDocument() : null;
+        int offset = method.getTextRange().getStartOffset() + offsetInMethod;
+        if (document != null && offset <= document.getTextLength()) {
+            location.append(" at line ").append(document.getLineNumber(offset) + 1);
         }
+        return location.toString();
     }
 }
\ No newline at end of file
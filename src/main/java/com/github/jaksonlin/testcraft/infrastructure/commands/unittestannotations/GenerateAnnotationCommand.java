@@ -6,6 +6,8 @@ import com.github.jaksonlin.testcraft.infrastructure.commands.testscan.UnittestC
 import com.github.jaksonlin.testcraft.domain.context.CaseCheckContext;
 import com.github.jaksonlin.testcraft.infrastructure.services.config.AnnotationConfigService;
 import com.github.jaksonlin.testcraft.infrastructure.services.business.AnnotationValueProviderService;
+import com.github.jaksonlin.testcraft.infrastructure.services.business.GitMetadataService;
+import com.github.jaksonlin.testcraft.infrastructure.services.system.I18nService;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.command.WriteCommandAction;
@@ -15,6 +17,8 @@ import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.*;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.ui.CheckboxTree;
@@ -25,8 +29,13 @@ import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.stream.Collectors;
 
@@ -35,6 +44,12 @@ public class GenerateAnnotationCommand extends UnittestCaseCheckCommand {
     private final AnnotationConfigService configService;
     private final AnnotationValueProviderService valueProviderService;
     private static final Logger LOG = Logger.getInstance(GenerateAnnotationCommand.class);
+    private static final Set<ValueProviderType> GIT_VALUE_PROVIDERS = EnumSet.of(
+            ValueProviderType.GIT_AUTHOR,
+            ValueProviderType.FIRST_CREATOR_AUTHOR,
+            ValueProviderType.FIRST_CREATOR_TIME,
+            ValueProviderType.LAST_MODIFIER_AUTHOR,
+            ValueProviderType.LAST_MODIFIER_TIME);
 
     public GenerateAnnotationCommand(Project project, CaseCheckContext context) {
         super(project, context);
@@ -153,18 +168,40 @@ public class GenerateAnnotationCommand extends UnittestCaseCheckCommand {
                         @Override
                         public void run(@NotNull ProgressIndicator indicator) {
                             indicator.setIndeterminate(true);
+                            AnnotationSchema schema = getContext().getSchema();
+                            List<String> skippedMethods = new ArrayList<>();
+                            // every annotation inserted changes the document, so all of them are built first: the
+                            // values of every method come from the same text and the same blame
+                            Map<PsiMethod, String> annotationTexts = new LinkedHashMap<>();
+                            boolean gitMetadataLoaded = loadGitMetadata(schema);
                             for (int i = 0; i < testMethods.size(); i++) {
-                                if (selected[i]) {
+                                if (selected[i] && !gitMetadataLoaded) {
+                                    skippedMethods.add(methodNames[i]);
+                                } else if (selected[i]) {
                                     int finalI = i;
 
                                         try {
-                                            generateAnnotation(testMethods.get(finalI), getContext().getSchema());
+                                            annotationTexts.put(testMethods.get(finalI), buildAnnotationText(testMethods.get(finalI), schema));
+                                        } catch (GitMetadataService.GitMetadataUnavailableException e) {
+                                            // better no annotation than a wrong author
+                                            LOG.warn("Skipped the annotation of " + methodNames[finalI] + ": " + e.getMessage());
+                                            skippedMethods.add(methodNames[finalI]);
                                         } catch (Exception e) {
                                             LOG.error("Failed to generate annotation", e);
                                         }
 
                                 }
                             }
+                            annotationTexts.forEach((psiMethod, annotationText) -> {
+                                try {
+                                    insertAnnotation(psiMethod, schema, annotationText);
+                                } catch (Exception e) {
+                                    LOG.error("Failed to generate annotation", e);
+                                }
+                            });
+                            if (!skippedMethods.isEmpty()) {
+                                ApplicationManager.getApplication().invokeLater(() -> showGitUnavailableMessage(getProject(), skippedMethods));
+                            }
 
                         }
                     });
@@ -173,6 +210,32 @@ public class GenerateAnnotationCommand extends UnittestCaseCheckCommand {
         });
     }
 
+    // git is waited for here, never inside the read actions the annotations are built in
+    private boolean loadGitMetadata(AnnotationSchema schema) {
+        boolean usesGit = schema.getFields().stream()
+                .anyMatch(field -> field.getValueProvider() != null && GIT_VALUE_PROVIDERS.contains(field.getValueProvider().getType()));
+        VirtualFile file = ReadAction.compute(() -> getContext().getPsiClass().getContainingFile().getVirtualFile());
+        if (!usesGit || file == null) {
+            return true;
+        }
+        try {
+            GitMetadataService.getInstance(getProject()).load(file);
+            return true;
+        } catch (GitMetadataService.GitMetadataUnavailableException e) {
+            LOG.warn("Cannot get the git information of " + file.getPath() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void showGitUnavailableMessage(Project project, List<String> skippedMethods) {
+        Messages.showMessageDialog(
+                project,
+                "Could not get the git information, no annotation was added to: " + String.join(", ", skippedMethods) + ". Please try again.",
+                I18nService.getInstance().message("test.methods.git.unavailable.title"),
+                Messages.getWarningIcon()
+        );
+    }
+
     private CheckboxTree createMethodSelectionTree(String[] methodNames, boolean[] selected) {
         CheckedTreeNode root = new CheckedTreeNode("Test Methods");
 
@@ -232,12 +295,14 @@ public class GenerateAnnotationCommand extends UnittestCaseCheckCommand {
     }
 
 
-    protected void generateAnnotation(PsiMethod psiMethod, AnnotationSchema schema) {
-        String annotationText = ReadAction.compute(() -> {
+    protected String buildAnnotationText(PsiMethod psiMethod, AnnotationSchema schema) {
+        return ReadAction.compute(() -> {
             CaseCheckContext newContext = getContext().copy(psiMethod);
             return buildAnnotationStr(schema, newContext);
         });
+    }
 
+    protected void insertAnnotation(PsiMethod psiMethod, AnnotationSchema schema, String annotationText) {
         WriteCommandAction.runWriteCommandAction(getProject(), () -> {
             PsiDocumentManager.getInstance(getProject()).commitDocument(PsiDocumentManager.getInstance(getProject()).getDocument(psiMethod.getContainingFile()));
 
@@ -0,0 +1,11 @@
+package com.github.jaksonlin.testcraft.infrastructure.messaging.events;
+
+import com.github.jaksonlin.testcraft.domain.annotations.AnnotationSchemaSnapshot;
+
+public class AnnotationSchemaEvent extends BaseEvent {
+    public static final String ANNOTATION_SCHEMA_CHANGED = "ANNOTATION_SCHEMA_CHANGED";
+
+    public AnnotationSchemaEvent(String eventType, AnnotationSchemaSnapshot snapshot) {
+        super(eventType, snapshot);
+    }
+}
@@ -4,6 +4,9 @@ public class ChatEvent extends BaseEvent {
     public static final String CLEAR_CHAT = "CLEAR_CHAT";
     public static final String CHAT_REQUEST = "CHAT_REQUEST";
     public static final String CHAT_RESPONSE = "CHAT_RESPONSE";
+    // the next tokens of the answer being generated, CHAT_RESPONSE follows with the whole answer
+    public static final String CHAT_RESPONSE_CHUNK = "CHAT_RESPONSE_CHUNK";
+    public static final String CANCEL_CHAT_REQUEST = "CANCEL_CHAT_REQUEST";
     public static final String START_LOADING = "START_LOADING";
     public static final String STOP_LOADING = "STOP_LOADING";
     public static final String REQUEST_COPY_CHAT_RESPONSE = "REQUEST_COPY_CHAT_RESPONSE";
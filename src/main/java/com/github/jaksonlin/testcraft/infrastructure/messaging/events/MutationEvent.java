@@ -3,6 +3,11 @@ package com.github.jaksonlin.testcraft.infrastructure.messaging.events;
 public class MutationEvent extends BaseEvent {
     public static final String MUTATION_RESULT = "MUTATION_RESULT";
     public static final String MUTATION_EVENT_TYPE_OPEN_NODE = "MUTATION_EVENT_TYPE_OPEN_NODE";
+    // live results of a running pitest process: start/end (target class file path), raw batches, rendered batches
+    public static final String MUTATION_PROGRESS_START = "MUTATION_PROGRESS_START";
+    public static final String MUTATION_PROGRESS = "MUTATION_PROGRESS";
+    public static final String MUTATION_PROGRESS_RESULT = "MUTATION_PROGRESS_RESULT";
+    public static final String MUTATION_PROGRESS_END = "MUTATION_PROGRESS_END";
 
     public MutationEvent(String eventType, Object payload) {
         super(eventType, payload);
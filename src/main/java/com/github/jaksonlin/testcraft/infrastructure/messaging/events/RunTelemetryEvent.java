@@ -0,0 +1,12 @@
+package com.github.jaksonlin.testcraft.infrastructure.messaging.events;
+
+import com.github.jaksonlin.testcraft.domain.model.RunTelemetry;
+
+public class RunTelemetryEvent extends BaseEvent {
+    public static final String RUN_TELEMETRY_RECORDED = "RUN_TELEMETRY_RECORDED";
+    public static final String RUN_TELEMETRY_CLEARED = "RUN_TELEMETRY_CLEARED";
+
+    public RunTelemetryEvent(String eventType, RunTelemetry telemetry) {
+        super(eventType, telemetry);
+    }
+}
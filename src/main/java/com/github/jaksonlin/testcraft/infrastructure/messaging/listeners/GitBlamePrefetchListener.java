@@ -0,0 +1,26 @@
+package com.github.jaksonlin.testcraft.infrastructure.messaging.listeners;
+
+import com.github.jaksonlin.testcraft.infrastructure.services.business.GitMetadataService;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.fileEditor.FileEditorManagerListener;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Starts the blame of the Java files opened in the editor, so that generating annotations finds it ready.
+ */
+public class GitBlamePrefetchListener implements FileEditorManagerListener {
+    private final Project project;
+
+    public GitBlamePrefetchListener(Project project) {
+        this.project = project;
+    }
+
+    @Override
+    public void fileOpened(@NotNull FileEditorManager source, @NotNull VirtualFile file) {
+        if (file.isInLocalFileSystem() && "java".equals(file.getExtension())) {
+            GitMetadataService.getInstance(project).prefetchBlame(file);
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package com.github.jaksonlin.testcraft.infrastructure.messaging.mediators;
 
-import com.github.jaksonlin.testcraft.util.Mutation;
+import com.github.jaksonlin.testcraft.util.MutationResult;
 
 import java.util.List;
 
 public interface IMutationMediator {
-    void processMutationResult(String mutationTargetClassFilePath, List<Mutation> mutationList);
+    void processMutationResult(String mutationTargetClassFilePath, List<? extends MutationResult> mutationList);
+
+    // render the lines changed by a live batch of new mutations, without opening the file
+    void processMutationProgress(String mutationTargetClassFilePath, List<? extends MutationResult> mutationList);
+
+    // forget the lines rendered for a live analysis of the file
+    void clearMutationProgress(String mutationTargetClassFilePath);
 }
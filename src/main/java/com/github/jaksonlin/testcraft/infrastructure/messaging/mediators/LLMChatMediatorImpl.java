@@ -3,7 +3,7 @@ package com.github.jaksonlin.testcraft.infrastructure.messaging.mediators;
 import com.github.jaksonlin.testcraft.infrastructure.services.system.I18nService;
 import com.github.jaksonlin.testcraft.infrastructure.messaging.events.ChatEvent;
 import com.github.jaksonlin.testcraft.infrastructure.services.system.EventBusService;
-import com.github.jaksonlin.testcraft.util.Mutation;
+import com.github.jaksonlin.testcraft.util.MutationResult;
 import com.github.jaksonlin.testcraft.util.OllamaClient;
 import com.intellij.openapi.diagnostic.Logger;
 
@@ -27,6 +27,8 @@ public class LLMChatMediatorImpl implements ILLMChatMediator {
     private final ExecutorService executorService = Executors.newSingleThreadExecutor();
     private OllamaClient ollamaClient;
     private final List<OllamaClient.Message> messageHistory = new ArrayList<>();
+    // cancels the request being processed, a new one for every request
+    private volatile OllamaClient.Cancellation activeRequest = new OllamaClient.Cancellation();
 
     public void setOllamaClient(OllamaClient ollamaClient) {
         this.ollamaClient = ollamaClient;
@@ -43,11 +45,13 @@ public class LLMChatMediatorImpl implements ILLMChatMediator {
     }
     // generate unittest using mutation result, this will clear the chat history
     @Override
-    public void generateUnittestRequest(String testCodeFile, String sourceCodeFile, List<Mutation> mutations) {
+    public void generateUnittestRequest(String testCodeFile, String sourceCodeFile, List<? extends MutationResult> mutations) {
         executorService.submit(() -> {
+            OllamaClient.Cancellation cancellation = startRequest();
+            OllamaClient client = ollamaClient;
             try {
                 // Test connection before attempting to send message
-                if (!ollamaClient.testConnection()) {
+                if (!client.testConnection()) {
                     eventBusService.post(new ChatEvent(ChatEvent.CHAT_RESPONSE, 
                         I18nService.getInstance().message("llm.error.connection")));
                     return;
@@ -60,10 +64,7 @@ public class LLMChatMediatorImpl implements ILLMChatMediator {
                     return;
                 }
                 messageHistory.addAll(messages);
-                String rawResponse = ollamaClient.chatCompletion(messageHistory);
-                messageHistory.add(new OllamaClient.Message("assistant", rawResponse));
-                String formattedResponse = formatResponse(rawResponse);
-                eventBusService.post(new ChatEvent(ChatEvent.CHAT_RESPONSE, formattedResponse));
+                streamResponse(client, cancellation);
                 
             } catch (Exception e) {
                 LOG.error("Failed to generate unit test suggestions", e);
@@ -76,19 +77,17 @@ public class LLMChatMediatorImpl implements ILLMChatMediator {
     @Override
     public void handleChatMessage(String message) {
         executorService.submit(() -> {
+            OllamaClient.Cancellation cancellation = startRequest();
+            OllamaClient client = ollamaClient;
             try {
                 // Test connection before attempting to send message
-                if (!ollamaClient.testConnection()) {
+                if (!client.testConnection()) {
                     eventBusService.post(new ChatEvent(ChatEvent.CHAT_RESPONSE, 
                         I18nService.getInstance().message("llm.error.connection")));
                     return;
                 }
                 messageHistory.add(new OllamaClient.Message("user", message));
-                String rawResponse = ollamaClient.chatCompletion(messageHistory);
-                messageHistory.add(new OllamaClient.Message("assistant", rawResponse));
-                // Format the response
-                String formattedResponse = formatResponse(rawResponse);
-                eventBusService.post(new ChatEvent(ChatEvent.CHAT_RESPONSE, formattedResponse));
+                streamResponse(client, cancellation);
             } catch (Exception e) {
                 LOG.error("Failed to respond to chat message", e);
                 eventBusService.post(new ChatEvent(ChatEvent.CHAT_RESPONSE, "Error: " + e.toString()));
@@ -96,7 +95,33 @@ public class LLMChatMediatorImpl implements ILLMChatMediator {
         });
     }
 
+    // a stop that comes after the request finished only reaches its own cancellation
+    @Override
+    public void cancelRequest() {
+        activeRequest.cancel();
+    }
+
+    private OllamaClient.Cancellation startRequest() {
+        OllamaClient.Cancellation cancellation = new OllamaClient.Cancellation();
+        activeRequest = cancellation;
+        return cancellation;
+    }
 
+    // the tokens are posted as they arrive, then the whole answer formatted
+    private void streamResponse(OllamaClient client, OllamaClient.Cancellation cancellation) throws IOException {
+        String rawResponse = client.chatCompletionStream(messageHistory, cancellation,
+                token -> eventBusService.post(new ChatEvent(ChatEvent.CHAT_RESPONSE_CHUNK, token)));
+        // keep what was generated, so that the conversation can go on from it
+        if (!rawResponse.isEmpty()) {
+            messageHistory.add(new OllamaClient.Message("assistant", rawResponse));
+        }
+        if (cancellation.isCancelled()) {
+            eventBusService.post(new ChatEvent(ChatEvent.CHAT_RESPONSE,
+                    formatResponse(rawResponse) + "\n\n_" + I18nService.getInstance().message("llm.cancelled") + "_"));
+            return;
+        }
+        eventBusService.post(new ChatEvent(ChatEvent.CHAT_RESPONSE, formatResponse(rawResponse)));
+    }
 
     private String formatResponse(String rawResponse) {
         // Process code blocks
@@ -144,13 +169,13 @@ public class LLMChatMediatorImpl implements ILLMChatMediator {
         return text;
     }
 
-    private StringBuilder analyzeMutations(List<Mutation> mutations) {
+    private StringBuilder analyzeMutations(List<? extends MutationResult> mutations) {
         if (mutations == null || mutations.isEmpty()) {
             return new StringBuilder();
         }
         // Group mutations by line number
-        Map<Integer, List<Mutation>> mutationsByLine = mutations.stream()
-                .collect(Collectors.groupingBy(Mutation::getLineNumber));
+        Map<Integer, List<MutationResult>> mutationsByLine = mutations.stream()
+                .collect(Collectors.groupingBy(MutationResult::getLineNumber));
 
         StringBuilder analysisBuilder = new StringBuilder();
         mutationsByLine.forEach((line, lineMutations) -> {
@@ -171,7 +196,7 @@ public class LLMChatMediatorImpl implements ILLMChatMediator {
         return analysisBuilder;
     }
 
-    private List<OllamaClient.Message> createPromptOnly(String testCodeFile, String sourceCodeFile, List<Mutation> mutations) throws IOException {
+    private List<OllamaClient.Message> createPromptOnly(String testCodeFile, String sourceCodeFile, List<? extends MutationResult> mutations) throws IOException {
         StringBuilder analysisBuilder = analyzeMutations(mutations);
         if (analysisBuilder.length() == 0) {
             return new ArrayList<>();
@@ -210,7 +235,7 @@ public class LLMChatMediatorImpl implements ILLMChatMediator {
         return promptOnlyMessages;
     }
 
-    private List<OllamaClient.Message> createPromptOnlyWithoutCodeContent(String testClassName, String sourceClassName, List<Mutation> mutations) throws IOException {
+    private List<OllamaClient.Message> createPromptOnlyWithoutCodeContent(String testClassName, String sourceClassName, List<? extends MutationResult> mutations) throws IOException {
         StringBuilder analysisBuilder = analyzeMutations(mutations);
         if (analysisBuilder.length() == 0) {
             return new ArrayList<>();
@@ -258,7 +283,7 @@ public class LLMChatMediatorImpl implements ILLMChatMediator {
         return readFileContent(sourceCodeFile);
     }
     @Override
-    public String dryRunGetPrompt(String testClassName, String sourceClassName, List<Mutation> mutations) {
+    public String dryRunGetPrompt(String testClassName, String sourceClassName, List<? extends MutationResult> mutations) {
         try {   
             List<OllamaClient.Message> dryRunMessages = createPromptOnlyWithoutCodeContent(testClassName, sourceClassName, mutations);
             
@@ -2,11 +2,10 @@ package com.github.jaksonlin.testcraft.infrastructure.messaging.mediators;
 
 import com.github.jaksonlin.testcraft.infrastructure.messaging.events.MutationEvent;
 import com.github.jaksonlin.testcraft.infrastructure.services.system.EventBusService;
-import com.github.jaksonlin.testcraft.util.Mutation;
+import com.github.jaksonlin.testcraft.util.MutationResult;
 import com.github.jaksonlin.testcraft.util.Pair;
 
 import javax.swing.*;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -15,52 +14,82 @@ import java.util.concurrent.Executors;
 
 public class MutationMediatorImpl implements IMutationMediator {
     private final ExecutorService executorService = Executors.newSingleThreadExecutor();
-    private final EventBusService eventBusService = EventBusService.getInstance();
+    private final EventBusService eventBusService;
+    // the lines rendered so far for each live analysis, only used on the executor thread
+    private final Map<String, Map<Integer, RenderedLine>> progressLines = new HashMap<>();
+
+    public MutationMediatorImpl() {
+        this(EventBusService.getInstance());
+    }
+
+    // the benchmarks run without the IntelliJ application and bring their own bus
+    MutationMediatorImpl(EventBusService eventBusService) {
+        this.eventBusService = eventBusService;
+    }
 
     @Override
-    public void processMutationResult(String mutationTargetClassFilePath, List<Mutation> mutations) {
+    public void processMutationResult(String mutationTargetClassFilePath, List<? extends MutationResult> mutations) {
         executorService.submit(() -> {
             Map<Integer, Pair<String, Boolean>> renderedFormat = convertResultToUIRenderFormat(mutations);
             eventBusService.post(new MutationEvent(MutationEvent.MUTATION_RESULT, new Pair<String, Map<Integer, Pair<String, Boolean>>>(mutationTargetClassFilePath, renderedFormat)));
         });
     }
 
-    protected Map<Integer, Pair<String, Boolean>> convertResultToUIRenderFormat(List<Mutation> mutations) {
-        Map<Integer, List<Pair<String, Boolean>>> groupedResult = new HashMap<>();
+    @Override
+    public void processMutationProgress(String mutationTargetClassFilePath, List<? extends MutationResult> mutations) {
+        executorService.submit(() -> {
+            Map<Integer, RenderedLine> lines = progressLines.computeIfAbsent(mutationTargetClassFilePath, k -> new HashMap<>());
+            Map<Integer, Pair<String, Boolean>> renderedFormat = new HashMap<>();
+            for (MutationResult mutation : mutations) {
+                lines.computeIfAbsent(mutation.getLineNumber(), k -> new RenderedLine()).add(mutation);
+            }
+            for (MutationResult mutation : mutations) {
+                renderedFormat.put(mutation.getLineNumber(), lines.get(mutation.getLineNumber()).toMarker());
+            }
+            eventBusService.post(new MutationEvent(MutationEvent.MUTATION_PROGRESS_RESULT, new Pair<String, Map<Integer, Pair<String, Boolean>>>(mutationTargetClassFilePath, renderedFormat)));
+        });
+    }
 
-        for (Mutation mutation : mutations) {
-            int line = mutation.getLineNumber();
-            String mutationMessage = mutationMessageFormat(mutation, groupedResult.containsKey(line) ? groupedResult.get(line).size() + 1 : 1);
-            Pair<String, Boolean> mutationPair = new Pair<>(mutationMessage, mutation.getStatus().equals("KILLED"));
+    @Override
+    public void clearMutationProgress(String mutationTargetClassFilePath) {
+        executorService.submit(() -> {
+            progressLines.remove(mutationTargetClassFilePath);
+        });
+    }
 
-            if (groupedResult.containsKey(line)) {
-                List<Pair<String, Boolean>> existingList = groupedResult.get(line);
-                existingList.add(mutationPair);
-            } else {
-                List<Pair<String, Boolean>> newList = new ArrayList<>();
-                newList.add(mutationPair);
-                groupedResult.put(line, newList);
-            }
+    protected Map<Integer, Pair<String, Boolean>> convertResultToUIRenderFormat(List<? extends MutationResult> mutations) {
+        Map<Integer, RenderedLine> lines = new HashMap<>();
+        for (MutationResult mutation : mutations) {
+            lines.computeIfAbsent(mutation.getLineNumber(), k -> new RenderedLine()).add(mutation);
         }
-
         Map<Integer, Pair<String, Boolean>> finalResult = new HashMap<>();
-        for (Map.Entry<Integer, List<Pair<String, Boolean>>> entry : groupedResult.entrySet()) {
-            boolean isAllKilled = true;
-            StringBuilder messageBuilder = new StringBuilder();
-            for (Pair<String, Boolean> pair : entry.getValue()) {
-                if (!pair.getSecond()) {
-                    isAllKilled = false;
-                }
-                messageBuilder.append(pair.getFirst()).append("\n");
-            }
-            finalResult.put(entry.getKey(), new Pair<>(messageBuilder.toString().trim(), isAllKilled));
+        for (Map.Entry<Integer, RenderedLine> entry : lines.entrySet()) {
+            finalResult.put(entry.getKey(), entry.getValue().toMarker());
         }
         return finalResult;
     }
 
-    private String mutationMessageFormat(Mutation mutation, int groupNumber) {
+    private static String mutationMessageFormat(MutationResult mutation, int groupNumber) {
         return groupNumber + " " + mutation.getDescription() + " -> " + mutation.getStatus();
     }
 
+    // the gutter marker of a line: its mutations numbered in the order they came, all killed or not
+    private static final class RenderedLine {
+        private final StringBuilder message = new StringBuilder();
+        private int count;
+        private boolean allKilled = true;
+
+        void add(MutationResult mutation) {
+            if (count > 0) {
+                message.append("\n");
+            }
+            message.append(mutationMessageFormat(mutation, ++count));
+            allKilled &= mutation.getStatus().equals("KILLED");
+        }
+
+        Pair<String, Boolean> toMarker() {
+            return new Pair<>(message.toString().trim(), allKilled);
+        }
+    }
 
 }
@@ -3,7 +3,6 @@ package com.github.jaksonlin.testcraft.infrastructure.services.business;
 import com.github.jaksonlin.testcraft.domain.annotations.ValueProvider;
 import com.github.jaksonlin.testcraft.domain.annotations.ValueProviderType;
 import com.github.jaksonlin.testcraft.domain.context.CaseCheckContext;
-import com.github.jaksonlin.testcraft.util.GitUtil;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.components.Service;
 import com.intellij.openapi.project.Project;
@@ -68,20 +67,26 @@ public final class AnnotationValueProviderService {
         });
     }
 
+    private GitMetadataService getGitMetadata() {
+        return GitMetadataService.getInstance(project);
+    }
+
     private String getGitAuthor() {
-        return Objects.toString(GitUtil.getGitUserInfo(project));
+        return Objects.toString(getGitMetadata().getGitUserInfo());
     }
 
     private String getLastModifierAuthor(@NotNull PsiMethod psiMethod) {
-        Object lastModifyInfo = GitUtil.getLastModifyInfo(project, psiMethod);
-        return lastModifyInfo != null ? Objects.toString(lastModifyInfo) : getGitAuthor();
+        return Objects.toString(getGitMetadata().getLastModifyInfo(psiMethod));
     }
 
     private String getLastModifierTime(@NotNull PsiMethod psiMethod) {
-        Long timestamp = GitUtil.getLastModifyInfo(project, psiMethod).getTimestamp();
-        timestamp = timestamp != null ? timestamp * 1000 : null;
+        return formatGitTimestamp(getGitMetadata().getLastModifyInfo(psiMethod).getTimestamp());
+    }
+
+    // git timestamps are in seconds, 0 when the file is not under git
+    private static String formatGitTimestamp(long timestamp) {
         SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-        return dateFormat.format(new Date(timestamp != null ? timestamp : System.currentTimeMillis()));
+        return dateFormat.format(new Date(timestamp > 0 ? timestamp * 1000 : System.currentTimeMillis()));
     }
 
     private String getCurrentDate(@Nullable String format) {
@@ -190,15 +195,11 @@ public final class AnnotationValueProviderService {
     }
 
     private String getFirstCreatorAuthor(@NotNull PsiMethod psiMethod) {
-        Object firstCreatorInfo = GitUtil.getFirstCreatorInfo(project, psiMethod);
-        return firstCreatorInfo != null ? firstCreatorInfo.toString() : getGitAuthor();
+        return Objects.toString(getGitMetadata().getFirstCreatorInfo(psiMethod));
     }
 
     private String getFirstCreatorTime(@NotNull PsiMethod psiMethod) {
-        Long timestamp = GitUtil.getFirstCreatorInfo(project, psiMethod).getTimestamp();
-        timestamp = timestamp != null ? timestamp * 1000 : null;
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-        return dateFormat.format(new Date(timestamp != null ? timestamp : System.currentTimeMillis()));
+        return formatGitTimestamp(getGitMetadata().getFirstCreatorInfo(psiMethod).getTimestamp());
     }
 
     private static String capitalizeFirst(String str) {
@@ -0,0 +1,164 @@
+package com.github.jaksonlin.testcraft.infrastructure.services.business;
+
+import com.github.jaksonlin.testcraft.infrastructure.services.config.MutationConfigService;
+import com.github.jaksonlin.testcraft.util.GradleUtils;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
+import com.intellij.openapi.roots.ProjectRootManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps the resolved pitest classpath of a project: compilation outputs, resource directories and the test run
+ * dependencies in the configured load order.
+ * <p>
+ * Resolving walks the order entries of every module, so the result is reused until the project model changes
+ * (roots changed events, or a new modification count of the project roots) or the dependency order settings do.
+ */
+@Service(Service.Level.PROJECT)
+public final class ClasspathCacheService implements Disposable {
+    private static final Logger LOG = Logger.getInstance(ClasspathCacheService.class);
+
+    private final Project project;
+    // replaced as a whole, so a reader never sees the lists of one resolve with the key of another
+    private volatile ResolvedClasspath resolved;
+
+    private static final class ResolvedClasspath {
+        private final String key;
+        private final List<String> classpath;
+        private final List<String> testDependencies;
+
+        ResolvedClasspath(String key, List<String> classpath, List<String> testDependencies) {
+            this.key = key;
+            this.classpath = classpath;
+            this.testDependencies = testDependencies;
+        }
+    }
+
+    public ClasspathCacheService(Project project) {
+        this.project = project;
+        project.getMessageBus().connect(this).subscribe(ModuleRootListener.TOPIC, new ModuleRootListener() {
+            @Override
+            public void rootsChanged(@NotNull ModuleRootEvent event) {
+                invalidate();
+            }
+        });
+    }
+
+    public static ClasspathCacheService getInstance(Project project) {
+        return project.getService(ClasspathCacheService.class);
+    }
+
+    /**
+     * @return compilation outputs, then the resource directories, then the sorted test run dependencies
+     */
+    public List<String> getClasspath(List<String> resourceDirectories) {
+        return resolve(resourceDirectories).classpath;
+    }
+
+    /**
+     * @return the sorted test run dependencies of the last resolved classpath
+     */
+    public List<String> getTestDependencies(List<String> resourceDirectories) {
+        return resolve(resourceDirectories).testDependencies;
+    }
+
+    // not synchronized: roots changed events come within a write action, which a resolve waiting for its read
+    // action would never let finish
+    public void invalidate() {
+        resolved = null;
+    }
+
+    private synchronized ResolvedClasspath resolve(List<String> resourceDirectories) {
+        String key = cacheKey(resourceDirectories);
+        ResolvedClasspath current = resolved;
+        if (current != null && key.equals(current.key)) {
+            return current;
+        }
+        long start = System.currentTimeMillis();
+        current = ReadAction.compute(() -> {
+            // class file output path
+            List<String> outputPaths = GradleUtils.getCompilationOutputPaths(project);
+            // external jars, sorted by the configured load order
+            List<String> testDependencies = GradleUtils.getTestRunDependencies(project);
+            sortTestDependencies(testDependencies);
+
+            List<String> classpath = new ArrayList<>(outputPaths);
+            if (resourceDirectories != null) {
+                classpath.addAll(resourceDirectories);
+            }
+            classpath.addAll(testDependencies);
+            return new ResolvedClasspath(key, Collections.unmodifiableList(classpath), Collections.unmodifiableList(testDependencies));
+        });
+        // a change of the roots meanwhile gives the next call another key
+        resolved = current;
+        LOG.info("Resolved pitest classpath of " + current.classpath.size() + " entries in " + (System.currentTimeMillis() - start) + "ms");
+        return current;
+    }
+
+    private String cacheKey(List<String> resourceDirectories) {
+        MutationConfigService config = MutationConfigService.getInstance();
+        return ProjectRootManager.getInstance(project).getModificationCount()
+                + "|" + config.getDependencyDirectoriesOrder()
+                + "|" + config.getFirstLoadDependentJars()
+                + "|" + resourceDirectories;
+    }
+
+    private static boolean matchesAnyPattern(String fileName, List<String> patterns) {
+        for (String pattern : patterns) {
+            if (fileName.matches(pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void sortTestDependencies(List<String> testDependencies) {
+        // sort the test dependencies by the order of the dependencies
+        String dependencyDirectoriesOrder = MutationConfigService.getInstance().getDependencyDirectoriesOrder();
+        String[] dependencyDirectories = dependencyDirectoriesOrder.split(";");
+        List<String> firstLoadDependentJarsPatterns = MutationConfigService.getInstance().getFirstLoadDependentJarsPatterns();
+
+        List<String> sortedDependencies = new ArrayList<>();
+        List<String> remainingDependencies = new ArrayList<>(testDependencies);
+
+        // 1. Add first-load dependencies
+        for (String dependency : new ArrayList<>(remainingDependencies)) {
+            String fileName = new File(dependency).getName();
+            if (matchesAnyPattern(fileName, firstLoadDependentJarsPatterns)) {
+                sortedDependencies.add(dependency);
+                remainingDependencies.remove(dependency);
+            }
+        }
+
+        // 2. Add dependencies in the order of the dependency directories
+        for (String dependencyDirectory : dependencyDirectories) {
+            for (String dependency : new ArrayList<>(remainingDependencies)) {
+                String dirName = new File(dependency).getParent();
+                if (dirName != null && dirName.endsWith(dependencyDirectory)) {
+                    sortedDependencies.add(dependency);
+                    remainingDependencies.remove(dependency);
+                }
+            }
+        }
+        // 3. Add remaining dependencies
+        sortedDependencies.addAll(remainingDependencies);
+        // 4. update the test dependencies
+        testDependencies.clear();
+        testDependencies.addAll(sortedDependencies);
+    }
+
+    @Override
+    public void dispose() {
+        invalidate();
+    }
+}
@@ -0,0 +1,299 @@
+package com.github.jaksonlin.testcraft.infrastructure.services.business;
+
+import com.github.jaksonlin.testcraft.util.GitBlame;
+import com.github.jaksonlin.testcraft.util.GitUserInfo;
+import com.github.jaksonlin.testcraft.util.GitUtil;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * The git facts the annotation value providers need: the git user and the blame of test files.
+ * <p>
+ * Git runs on a small bounded pool whose queue never rejects work. Requests for the same file and version join the
+ * command already running instead of starting another one. Results are kept for a while, the least recently used
+ * ones go first when a cache is full. A blame is only reused for the same checked out revision and document
+ * modification stamp. Java files opened in the editor get their blame fetched in the background, see
+ * {@link com.github.jaksonlin.testcraft.infrastructure.messaging.listeners.GitBlamePrefetchListener}.
+ * <p>
+ * Git is only waited for in {@link #load(VirtualFile)}, which must not be called under a read action: waiting there
+ * would hold off every write action and freeze the UI. Under read access the getters only read what is already
+ * loaded. When git fails, does not answer in time or has not answered yet a {@link GitMetadataUnavailableException}
+ * is thrown rather than a guess returned, the values end up in annotations where a wrong author would go unnoticed.
+ */
+@Service(Service.Level.PROJECT)
+public final class GitMetadataService implements Disposable {
+    private static final Logger LOG = Logger.getInstance(GitMetadataService.class);
+    private static final int MAX_CONCURRENT_COMMANDS = 4;
+    private static final long GIT_COMMAND_TIMEOUT_SECONDS = 30;
+    private static final long USER_INFO_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final long FILE_INFO_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final int BLAME_CACHE_SIZE = 50;
+    private static final String USER_INFO_KEY = "user";
+    // the author of files that are not under git
+    private static final GitUserInfo UNKNOWN_USER = new GitUserInfo("Unknown", "unknown@email.com");
+
+    private final Project project;
+    private final ExecutorService gitExecutor = AppExecutorUtil.createBoundedApplicationPoolExecutor("TestCraft Git", MAX_CONCURRENT_COMMANDS);
+    private final ExpiringCache<GitUserInfo> userInfoCache = new ExpiringCache<>("user", 1, USER_INFO_TTL_MILLIS);
+    private final ExpiringCache<GitBlame> blameCache = new ExpiringCache<>("blame", BLAME_CACHE_SIZE, FILE_INFO_TTL_MILLIS);
+    // cache name|key|version -> the command running for it
+    private final Map<String, CompletableFuture<?>> pending = new ConcurrentHashMap<>();
+
+    public GitMetadataService(Project project) {
+        this.project = project;
+    }
+
+    public static GitMetadataService getInstance(Project project) {
+        return project.getService(GitMetadataService.class);
+    }
+
+    /**
+     * Waits for the git user and the blame of the file, so that the getters find them under a read action.
+     * @throws GitMetadataUnavailableException if git failed or did not answer in time
+     */
+    public void load(@NotNull VirtualFile file) {
+        getGitUserInfo();
+        getBlame(file);
+    }
+
+    /**
+     * @return user.name and user.email of the project repository, "Unknown" when git cannot tell
+     */
+    @NotNull
+    public GitUserInfo getGitUserInfo() {
+        return await(fetch(userInfoCache, USER_INFO_KEY, "", () -> GitUtil.readGitUserInfo(project)), "git user info");
+    }
+
+    /**
+     * @return the blame of the whole file, or null if the file is not under git
+     */
+    @Nullable
+    public GitBlame getBlame(@NotNull VirtualFile file) {
+        if (GitUtil.getRepositoryForFile(project, file) == null) {
+            return null;
+        }
+        return await(getBlameAsync(file), "blame of " + file.getPath());
+    }
+
+    /**
+     * Blames the document of the file when it has unsaved changes, so that the lines of the blame are those of the
+     * PSI. The blame is kept for the checked out revision and the modification stamp of the text it was made of.
+     */
+    public CompletableFuture<GitBlame> getBlameAsync(@NotNull VirtualFile file) {
+        Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+        // the text and its stamp are taken together, the document may change right after
+        Pair<CharSequence, Long> snapshot = document == null ? Pair.<CharSequence, Long>create(null, file.getModificationStamp())
+                : ReadAction.compute(() -> Pair.<CharSequence, Long>create(
+                        FileDocumentManager.getInstance().isDocumentUnsaved(document) ? document.getImmutableCharSequence() : null,
+                        document.getModificationStamp()));
+        String version = GitUtil.getHeadRevision(project, file) + "|" + snapshot.second;
+        return fetch(blameCache, file.getPath(), version, () -> GitUtil.blame(project, file, snapshot.first));
+    }
+
+    /**
+     * Fetches the blame of the file in the background, for the value providers to find it ready.
+     */
+    public void prefetchBlame(@NotNull VirtualFile file) {
+        gitExecutor.execute(() -> {
+            if (!project.isDisposed() && GitUtil.getRepositoryForFile(project, file) != null) {
+                getBlameAsync(file);
+            }
+        });
+    }
+
+    /**
+     * Gets the author of the first line of the method, the line it was declared on when it was created.
+     */
+    @NotNull
+    public GitUserInfo getFirstCreatorInfo(@NotNull PsiMethod psiMethod) {
+        int[] lines = getLineRange(psiMethod);
+        GitBlame blame = getBlame(psiMethod);
+        if (blame == null) {
+            return UNKNOWN_USER;
+        }
+        return toUserInfo(blame.getCommit(lines[0]), psiMethod);
+    }
+
+    /**
+     * Gets the author of the newest change among the lines of the method.
+     */
+    @NotNull
+    public GitUserInfo getLastModifyInfo(@NotNull PsiMethod psiMethod) {
+        int[] lines = getLineRange(psiMethod);
+        GitBlame blame = getBlame(psiMethod);
+        if (blame == null) {
+            return UNKNOWN_USER;
+        }
+        return toUserInfo(blame.getLatestCommit(lines[0], lines[1]), psiMethod);
+    }
+
+    // the blame of the file of the method, null if it is not under git
+    @Nullable
+    private GitBlame getBlame(PsiMethod psiMethod) {
+        PsiFile containingFile = psiMethod.getContainingFile();
+        VirtualFile file = containingFile != null ? containingFile.getVirtualFile() : null;
+        return file != null ? getBlame(file) : null;
+    }
+
+    private GitUserInfo toUserInfo(@Nullable GitBlame.Commit commit, PsiMethod psiMethod) {
+        if (commit == null) {
+            throw new GitMetadataUnavailableException("The blame has no lines of method " + psiMethod.getName());
+        }
+        long timestamp = commit.getTimestamp() != null ? commit.getTimestamp() : System.currentTimeMillis() / 1000;
+        if (commit.isNotCommitted()) {
+            GitUserInfo gitUserInfo = getGitUserInfo();
+            return new GitUserInfo(gitUserInfo.getName(), gitUserInfo.getEmail(), timestamp);
+        }
+        return new GitUserInfo(
+                commit.getAuthor() != null ? commit.getAuthor() : "Unknown",
+                commit.getEmail() != null ? commit.getEmail() : "unknown@email.com",
+                timestamp
+        );
+    }
+
+    private <T> CompletableFuture<T> fetch(ExpiringCache<T> cache, String key, String version, Supplier<T> command) {
+        T cached = cache.get(key, version);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        String pendingKey = cache.name + "|" + key + "|" + version;
+        CompletableFuture<T> created = new CompletableFuture<>();
+        @SuppressWarnings("unchecked")
+        CompletableFuture<T> running = (CompletableFuture<T>) pending.putIfAbsent(pendingKey, created);
+        if (running != null) {
+            return running;
+        }
+        CompletableFuture.supplyAsync(command, gitExecutor).whenComplete((value, error) -> {
+            if (value != null) {
+                cache.put(key, version, value);
+            }
+            pending.remove(pendingKey, created);
+            if (error != null) {
+                created.completeExceptionally(error);
+            } else {
+                created.complete(value);
+            }
+        });
+        return created;
+    }
+
+    // never waits under read access, the command keeps running so that the next caller finds the result in the cache
+    private static <T> T await(Future<T> future, String what) {
+        try {
+            if (ApplicationManager.getApplication().isReadAccessAllowed() && !future.isDone()) {
+                throw new GitMetadataUnavailableException("The " + what + " is not loaded yet");
+            }
+            return future.get(GIT_COMMAND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new GitMetadataUnavailableException("Git took more than " + GIT_COMMAND_TIMEOUT_SECONDS + " seconds for the " + what);
+        } catch (ExecutionException e) {
+            LOG.warn("Cannot get the " + what, e.getCause());
+            throw new GitMetadataUnavailableException("Git failed to get the " + what + ": " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GitMetadataUnavailableException("Interrupted while waiting for the " + what);
+        }
+    }
+
+    // [startLine, endLine] of the method in its document, 1-based
+    private static int[] getLineRange(PsiMethod psiMethod) {
+        PsiFile containingFile = psiMethod.getContainingFile();
+        VirtualFile file = containingFile != null ? containingFile.getVirtualFile() : null;
+        Document document = file != null ? FileDocumentManager.getInstance().getDocument(file) : null;
+        if (document == null) {
+            throw new GitMetadataUnavailableException("Cannot get the lines of method " + psiMethod.getName());
+        }
+        int startLine = document.getLineNumber(psiMethod.getTextRange().getStartOffset()) + 1;
+        int endLine = document.getLineNumber(psiMethod.getTextRange().getEndOffset()) + 1;
+        return new int[]{startLine, endLine};
+    }
+
+    @Override
+    public void dispose() {
+        gitExecutor.shutdownNow();
+        userInfoCache.clear();
+        blameCache.clear();
+    }
+
+    /**
+     * Git failed, did not answer in time or has not been {@link #load(VirtualFile) loaded}.
+     */
+    public static final class GitMetadataUnavailableException extends IllegalStateException {
+        GitMetadataUnavailableException(String message) {
+            super(message);
+        }
+    }
+
+    private static final class ExpiringCache<T> {
+        private final String name;
+        private final long ttlMillis;
+        // least recently used first
+        private final Map<String, CachedValue<T>> entries;
+
+        ExpiringCache(String name, int maxSize, long ttlMillis) {
+            this.name = name;
+            this.ttlMillis = ttlMillis;
+            this.entries = new LinkedHashMap<String, CachedValue<T>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedValue<T>> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        synchronized T get(String key, String version) {
+            CachedValue<T> cached = entries.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (!cached.version.equals(version) || System.currentTimeMillis() - cached.createdAt > ttlMillis) {
+                entries.remove(key);
+                return null;
+            }
+            return cached.value;
+        }
+
+        synchronized void put(String key, String version, T value) {
+            entries.put(key, new CachedValue<>(version, value));
+        }
+
+        synchronized void clear() {
+            entries.clear();
+        }
+    }
+
+    private static final class CachedValue<T> {
+        private final String version;
+        private final T value;
+        private final long createdAt = System.currentTimeMillis();
+
+        CachedValue(String version, T value) {
+            this.version = version;
+            this.value = value;
+        }
+    }
+}
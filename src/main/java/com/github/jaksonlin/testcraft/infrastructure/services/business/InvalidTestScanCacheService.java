@@ -0,0 +1,225 @@
+package com.github.jaksonlin.testcraft.infrastructure.services.business;
+
+import com.github.jaksonlin.testcraft.domain.model.InvalidTestCase;
+import com.github.jaksonlin.testcraft.infrastructure.services.config.AnnotationConfigService;
+import com.github.jaksonlin.testcraft.infrastructure.services.config.InvalidTestCaseConfigService;
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Remembers the invalid test cases found per test class, so that a batch scan only inspects the classes whose file,
+ * or a file their assertion search went through, changed since the last scan.
+ * <p>
+ * Files are compared by disk timestamp and length, files with unsaved changes are always inspected. The whole cache
+ * is dropped when the invalid test case or annotation settings change. It is kept in the system directory, one
+ * file per project, and survives restarts.
+ */
+@Service(Service.Level.PROJECT)
+public final class InvalidTestScanCacheService {
+    private static final Logger LOG = Logger.getInstance(InvalidTestScanCacheService.class);
+    // bump when the checks change, so that results of older checks are not reused
+    private static final int CACHE_VERSION = 1;
+
+    private final Project project;
+    private final Gson gson = new Gson();
+    private final File cacheFile;
+    private CacheContent content;
+    private boolean dirty;
+
+    private static class CacheContent {
+        int version = CACHE_VERSION;
+        int configHash;
+        // file path#class qualified name -> what the last inspection of the class found
+        Map<String, Entry> entries = new HashMap<>();
+    }
+
+    private static class Entry {
+        long timeStamp;
+        long length;
+        // path -> disk timestamp of the other files the inspection resolved methods from
+        Map<String, Long> dependencies = new HashMap<>();
+        List<Finding> findings = new ArrayList<>();
+    }
+
+    private static class Finding {
+        String qualifiedName;
+        String methodName;
+        String testCaseCode;
+        String filePath;
+        int offset;
+    }
+
+    public InvalidTestScanCacheService(Project project) {
+        this.project = project;
+        this.cacheFile = new File(new File(PathManager.getSystemPath(), "testcraft-scan-cache"), project.getLocationHash() + ".json");
+    }
+
+    public static InvalidTestScanCacheService getInstance(Project project) {
+        return project.getService(InvalidTestScanCacheService.class);
+    }
+
+    /**
+     * Called in a read action.
+     * @return the invalid test cases of the class from the last scan, null when it has to be inspected again
+     */
+    @Nullable
+    public synchronized List<InvalidTestCase> get(@NotNull PsiClass testClass) {
+        VirtualFile file = cacheableFile(testClass);
+        if (file == null) {
+            return null;
+        }
+        Entry entry = getContent().entries.get(key(file, testClass));
+        if (entry == null || entry.timeStamp != file.getTimeStamp() || entry.length != file.getLength()) {
+            return null;
+        }
+        for (Map.Entry<String, Long> dependency : entry.dependencies.entrySet()) {
+            VirtualFile dependencyFile = LocalFileSystem.getInstance().findFileByPath(dependency.getKey());
+            if (dependencyFile == null || dependencyFile.getTimeStamp() != dependency.getValue()
+                    || FileDocumentManager.getInstance().isFileModified(dependencyFile)) {
+                return null;
+            }
+        }
+        List<InvalidTestCase> invalidTestCases = new ArrayList<>();
+        for (Finding finding : entry.findings) {
+            invalidTestCases.add(new InvalidTestCase(project, finding.qualifiedName, finding.methodName,
+                    finding.testCaseCode, finding.filePath, finding.offset));
+        }
+        return invalidTestCases;
+    }
+
+    /**
+     * Called in a read action, right after the class was inspected.
+     * @param dependencies files of the methods the inspection resolved, beside the one of the class
+     */
+    public synchronized void put(@NotNull PsiClass testClass, @NotNull List<InvalidTestCase> invalidTestCases, @NotNull Collection<VirtualFile> dependencies) {
+        VirtualFile file = cacheableFile(testClass);
+        if (file == null) {
+            return;
+        }
+        Entry entry = new Entry();
+        entry.timeStamp = file.getTimeStamp();
+        entry.length = file.getLength();
+        for (VirtualFile dependency : dependencies) {
+            if (dependency.equals(file)) {
+                continue;
+            }
+            if (!dependency.isInLocalFileSystem() || FileDocumentManager.getInstance().isFileModified(dependency)) {
+                // a result that depends on unsaved code is not worth keeping
+                return;
+            }
+            entry.dependencies.put(dependency.getPath(), dependency.getTimeStamp());
+        }
+        for (InvalidTestCase invalidTestCase : invalidTestCases) {
+            Finding finding = new Finding();
+            finding.qualifiedName = invalidTestCase.getQualifiedName();
+            finding.methodName = invalidTestCase.getMethodName();
+            finding.testCaseCode = invalidTestCase.getTestCaseCode();
+            finding.filePath = invalidTestCase.getFilePath();
+            finding.offset = invalidTestCase.getOffset();
+            entry.findings.add(finding);
+        }
+        getContent().entries.put(key(file, testClass), entry);
+        dirty = true;
+    }
+
+    /**
+     * Writes the cache if the last scan changed it, entries of deleted files are dropped.
+     */
+    public synchronized void save() {
+        if (!dirty) {
+            return;
+        }
+        for (Iterator<String> keys = content.entries.keySet().iterator(); keys.hasNext(); ) {
+            String key = keys.next();
+            if (!new File(key.substring(0, key.lastIndexOf('#'))).exists()) {
+                keys.remove();
+            }
+        }
+        File partial = new File(cacheFile.getParentFile(), cacheFile.getName() + ".tmp");
+        try {
+            Files.createDirectories(cacheFile.getParentFile().toPath());
+            try (Writer writer = Files.newBufferedWriter(partial.toPath(), StandardCharsets.UTF_8)) {
+                gson.toJson(content, writer);
+            }
+            Files.move(partial.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            dirty = false;
+        } catch (IOException e) {
+            LOG.warn("Cannot save the test scan cache " + cacheFile, e);
+        }
+    }
+
+    private CacheContent getContent() {
+        int configHash = configHash();
+        if (content == null) {
+            content = load();
+        }
+        if (content.version != CACHE_VERSION || content.configHash != configHash) {
+            content = new CacheContent();
+            content.configHash = configHash;
+            dirty = true;
+        }
+        return content;
+    }
+
+    private CacheContent load() {
+        if (!cacheFile.exists()) {
+            return new CacheContent();
+        }
+        try (Reader reader = Files.newBufferedReader(cacheFile.toPath(), StandardCharsets.UTF_8)) {
+            CacheContent loaded = gson.fromJson(reader, CacheContent.class);
+            return loaded != null && loaded.entries != null ? loaded : new CacheContent();
+        } catch (IOException | JsonSyntaxException e) {
+            LOG.warn("Cannot read the test scan cache " + cacheFile + ", starting a new one", e);
+            return new CacheContent();
+        }
+    }
+
+    // the settings that decide what the inspection reports
+    private static int configHash() {
+        InvalidTestCaseConfigService invalidTestCaseConfig = ApplicationManager.getApplication().getService(InvalidTestCaseConfigService.class);
+        AnnotationConfigService annotationConfig = AnnotationConfigService.getInstance();
+        return Objects.hash(invalidTestCaseConfig.getState(), annotationConfig.getState(), annotationConfig.shouldCheckAnnotation());
+    }
+
+    @Nullable
+    private static VirtualFile cacheableFile(PsiClass testClass) {
+        PsiFile psiFile = testClass.getContainingFile();
+        VirtualFile file = psiFile != null ? psiFile.getVirtualFile() : null;
+        if (file == null || !file.isInLocalFileSystem() || testClass.getQualifiedName() == null
+                || FileDocumentManager.getInstance().isFileModified(file)) {
+            return null;
+        }
+        return file;
+    }
+
+    private static String key(VirtualFile file, PsiClass testClass) {
+        return file.getPath() + "#" + testClass.getQualifiedName();
+    }
+}
@@ -1,9 +1,171 @@
 package com.github.jaksonlin.testcraft.infrastructure.services.business;
 
+import com.github.jaksonlin.testcraft.infrastructure.services.config.MutationConfigService;
+import com.github.jaksonlin.testcraft.util.PitestWorkerMain;
+import com.github.jaksonlin.testcraft.util.PitestWorkerProcess;
+import com.github.jaksonlin.testcraft.util.ProcessExecutor;
+import com.github.jaksonlin.testcraft.util.ProcessOutput;
+import com.github.jaksonlin.testcraft.util.ProcessResult;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service(Service.Level.APP)
-public final class PitestService {
+public final class PitestService implements Disposable {
+    private static final Logger LOG = Logger.getInstance(PitestService.class);
+    public static final String MUTATION_COVERAGE_REPORT = "org.pitest.mutationtest.commandline.MutationCoverageReport";
+    private static final int MAX_WORKERS = 4;
+
+    // one warm worker per project working directory, most recently used last
+    private final Map<String, PitestWorkerProcess> workers = new LinkedHashMap<>(16, 0.75f, true);
+
+    public static PitestService getInstance() {
+        return ApplicationManager.getApplication().getService(PitestService.class);
+    }
+
+    /**
+     * Runs a MutationCoverageReport command, reusing a warm worker JVM when one matches the JDK, pitest classpath and
+     * working directory of the command. Falls back to a fresh process when reuse is disabled, the worker is busy,
+     * or the worker cannot be started.
+     */
+    public ProcessResult runMutationCoverage(@NotNull Project project, @NotNull List<String> command, @Nullable String workingDirectory) {
+        return runMutationCoverage(project, command, workingDirectory, new ProcessOutput(), null);
+    }
+
+    /**
+     * Same as {@link #runMutationCoverage(Project, List, String)}, the output lines of the run go to the given output.
+     * Cancelling the indicator stops the run, in a warm worker as well as in a new process.
+     */
+    public ProcessResult runMutationCoverage(@NotNull Project project, @NotNull List<String> command, @Nullable String workingDirectory,
+                                             @NotNull ProcessOutput processOutput, @Nullable ProgressIndicator indicator) {
+        if (!MutationConfigService.getInstance().isReuseMutationWorker()) {
+            return ProcessExecutor.executeProcess(command, workingDirectory, processOutput, indicator);
+        }
+        int mainClassIndex = command.indexOf(MUTATION_COVERAGE_REPORT);
+        List<String> workerCommand = mainClassIndex > 0 ? buildWorkerCommand(command.subList(0, mainClassIndex)) : null;
+        if (workerCommand == null) {
+            return ProcessExecutor.executeProcess(command, workingDirectory, processOutput, indicator);
+        }
+
+        String workerKey = project.getLocationHash() + "|" + workingDirectory;
+        PitestWorkerProcess worker = acquireWorker(workerKey, fingerprint(workerCommand, workingDirectory), workerCommand, workingDirectory);
+        if (worker == null) {
+            return ProcessExecutor.executeProcess(command, workingDirectory, processOutput, indicator);
+        }
+        ProcessResult result = worker.tryExecute(command.subList(mainClassIndex + 1, command.size()), processOutput, indicator);
+        if (result == null) {
+            LOG.info("Mutation worker is busy, running pitest in a new process");
+            return ProcessExecutor.executeProcess(command, workingDirectory, processOutput, indicator);
+        }
+        if (!worker.isAlive() || worker.isRetired()) {
+            releaseWorker(workerKey, worker);
+        }
+        return result;
+    }
+
+    @Nullable
+    private synchronized PitestWorkerProcess acquireWorker(String workerKey, String fingerprint, List<String> workerCommand, @Nullable String workingDirectory) {
+        PitestWorkerProcess worker = workers.get(workerKey);
+        if (worker != null && worker.isAlive() && worker.getFingerprint().equals(fingerprint)) {
+            return worker;
+        }
+        if (worker != null) {
+            // classpath or JDK changed (or the worker died), the old JVM is of no use anymore
+            if (worker.isBusy()) {
+                return null;
+            }
+            workers.remove(workerKey);
+            worker.destroy();
+        }
+
+        try {
+            LOG.info("Starting mutation worker: " + String.join(" ", workerCommand));
+            worker = PitestWorkerProcess.start(fingerprint, workerCommand, workingDirectory);
+        } catch (IOException e) {
+            LOG.warn("Cannot start mutation worker, running pitest in a new process", e);
+            return null;
+        }
+        workers.put(workerKey, worker);
+        evictIdleWorkers();
+        return worker;
+    }
+
+    private synchronized void releaseWorker(String workerKey, PitestWorkerProcess worker) {
+        if (workers.get(workerKey) == worker) {
+            workers.remove(workerKey);
+        }
+        worker.destroy();
+    }
+
+    private void evictIdleWorkers() {
+        Iterator<PitestWorkerProcess> iterator = workers.values().iterator();
+        while (workers.size() > MAX_WORKERS && iterator.hasNext()) {
+            PitestWorkerProcess worker = iterator.next();
+            if (!worker.isBusy()) {
+                iterator.remove();
+                worker.destroy();
+            }
+        }
+    }
+
+    // java -cp <pitest dependencies> => java -cp <pitest dependencies + worker> PitestWorkerMain
+    @Nullable
+    private List<String> buildWorkerCommand(List<String> launcher) {
+        int classpathIndex = launcher.indexOf("-cp");
+        if (classpathIndex < 0 || classpathIndex + 1 >= launcher.size()) {
+            return null;
+        }
+        String workerJar = PathManager.getJarPathForClass(PitestWorkerMain.class);
+        if (workerJar == null) {
+            return null;
+        }
+        List<String> workerCommand = new ArrayList<>(launcher);
+        String classpath = launcher.get(classpathIndex + 1);
+        // the plugin jar is already there when it brings the test prioritiser
+        if (!Arrays.asList(classpath.split(File.pathSeparator)).contains(workerJar)) {
+            workerCommand.set(classpathIndex + 1, classpath + File.pathSeparator + workerJar);
+        }
+        workerCommand.add(PitestWorkerMain.class.getName());
+        return workerCommand;
+    }
 
+    private static String fingerprint(List<String> workerCommand, @Nullable String workingDirectory) {
+        String content = String.join("\n", workerCommand) + "\n" + workingDirectory;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest(content.getBytes(StandardCharsets.UTF_8))) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return content;
+        }
+    }
 
+    @Override
+    public synchronized void dispose() {
+        for (PitestWorkerProcess worker : workers.values()) {
+            worker.destroy();
+        }
+        workers.clear();
+    }
 }
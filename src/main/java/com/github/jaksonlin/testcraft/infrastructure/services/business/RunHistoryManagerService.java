@@ -1,8 +1,10 @@
 package com.github.jaksonlin.testcraft.infrastructure.services.business;
 
 import com.github.jaksonlin.testcraft.domain.context.PitestContext;
+import com.github.jaksonlin.testcraft.domain.model.RunHistoryEntry;
 import com.github.jaksonlin.testcraft.infrastructure.messaging.events.RunHistoryEvent;
 import com.github.jaksonlin.testcraft.infrastructure.services.system.EventBusService;
+import com.github.jaksonlin.testcraft.util.MutationTable;
 import com.github.jaksonlin.testcraft.util.Pair;
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
@@ -18,19 +20,26 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service(Service.Level.APP)
 public final class RunHistoryManagerService {
     private static final Logger log = LoggerFactory.getLogger(RunHistoryManagerService.class);
+    private static final int MAX_CACHED_MUTATIONS = 200_000;
     private final EventBusService eventBusService = EventBusService.getInstance();
-    private final Gson gson = new Gson();
-    private final File historyFile;
-    private final Map<String, PitestContext> history;
+    private final RunHistoryStore store;
+    // entries read from the store so far, without their mutation results
+    private final Map<String, PitestContext> history = new ConcurrentHashMap<>();
+    // recently opened mutation results, bounded by the total number of mutations
+    private final Map<String, MutationTable> mutationCache = new LinkedHashMap<>(16, 0.75f, true);
+    private int cachedMutations = 0;
 
     public static RunHistoryManagerService getInstance() {
         return ApplicationManager.getApplication().getService(RunHistoryManagerService.class);
@@ -38,15 +47,15 @@ public final class RunHistoryManagerService {
 
 
     public RunHistoryManagerService() {
-        this.historyFile = new File(PathManager.getConfigPath(), "run-history.json");
-        this.history = loadRunHistory();
+        this.store = new RunHistoryStore(new File(PathManager.getConfigPath(), "run-history"));
+        migrateLegacyRunHistory(store, new File(PathManager.getConfigPath(), "run-history.json"));
     }
 
     public void addObserver(Object observer) {
         eventBusService.register(observer);
         // when observer is added, pass current value of history to observer, force it to update
-        List<Pair<String, String>> mappedHistory = history.entrySet().stream()
-                .map(entry -> new Pair<>(entry.getValue().getTargetClassPackageName(), entry.getValue().getTargetClassName()))
+        List<Pair<String, String>> mappedHistory = store.getEntries().stream()
+                .map(entry -> new Pair<>(entry.targetClassPackageName, entry.targetClassName))
                 .collect(Collectors.toList());
         eventBusService.post(new RunHistoryEvent(RunHistoryEvent.RUN_HISTORY, mappedHistory));
         eventBusService.post(new RunHistoryEvent(RunHistoryEvent.RUN_HISTORY_LIST, getRunHistory()));
@@ -54,38 +63,101 @@ public final class RunHistoryManagerService {
 
     @Nullable
     public PitestContext getRunHistoryForClass(@NotNull String targetClassFullyQualifiedName) {
-        return history.get(targetClassFullyQualifiedName);
+        PitestContext context = history.get(targetClassFullyQualifiedName);
+        if (context == null) {
+            context = store.read(targetClassFullyQualifiedName);
+            if (context != null) {
+                if (context.getMutationTable() == null) {
+                    context.setMutationTableLoader(() -> getMutationTable(targetClassFullyQualifiedName));
+                }
+                history.put(targetClassFullyQualifiedName, context);
+            }
+        }
+        return context;
     }
 
     @Nullable
     public PitestContext getRunHistoryForClassByTargetFilePath(@NotNull String classUnderTestFilePath) {
-        for (PitestContext context : history.values()) {
-            if (context.getTargetClassFilePath().equals(classUnderTestFilePath)) {
-                return context;
+        for (RunHistoryStore.IndexEntry entry : store.getEntries()) {
+            if (classUnderTestFilePath.equals(entry.targetClassFilePath)) {
+                return getRunHistoryForClass(entry.targetClassFullyQualifiedName);
             }
         }
         return null;
     }
 
+    @Nullable
+    public MutationTable getMutationTable(@NotNull String targetClassFullyQualifiedName) {
+        synchronized (mutationCache) {
+            MutationTable mutationTable = mutationCache.get(targetClassFullyQualifiedName);
+            if (mutationTable != null) {
+                return mutationTable;
+            }
+        }
+        MutationTable mutationTable = store.readMutations(targetClassFullyQualifiedName);
+        if (mutationTable != null) {
+            cacheMutationTable(targetClassFullyQualifiedName, mutationTable);
+        }
+        return mutationTable;
+    }
+
+    private void cacheMutationTable(String targetClassFullyQualifiedName, MutationTable mutationTable) {
+        synchronized (mutationCache) {
+            MutationTable previous = mutationCache.put(targetClassFullyQualifiedName, mutationTable);
+            if (previous != null) {
+                cachedMutations -= previous.size();
+            }
+            cachedMutations += mutationTable.size();
+            // evict least recently used, but always keep the one just added
+            Iterator<Map.Entry<String, MutationTable>> iterator = mutationCache.entrySet().iterator();
+            while (cachedMutations > MAX_CACHED_MUTATIONS && iterator.hasNext()) {
+                Map.Entry<String, MutationTable> eldest = iterator.next();
+                if (!eldest.getKey().equals(targetClassFullyQualifiedName)) {
+                    cachedMutations -= eldest.getValue().size();
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
     public void clearRunHistory() {
         history.clear();
-        if (historyFile.exists()) {
-            historyFile.delete();
+        synchronized (mutationCache) {
+            mutationCache.clear();
+            cachedMutations = 0;
         }
+        store.clear();
         eventBusService.post(new RunHistoryEvent(RunHistoryEvent.RUN_HISTORY, null));
         eventBusService.post(new RunHistoryEvent(RunHistoryEvent.RUN_HISTORY_LIST, null));
     }
 
+    /**
+     * @return the classes that have a run in the history, taken from the index only; the run of one of them is read
+     * by {@link #getRunHistoryForClass(String)} when it is needed
+     */
     @NotNull
-    public Map<String, PitestContext> getRunHistory() {
-        return new HashMap<>(history);
+    public List<RunHistoryEntry> getRunHistory() {
+        return store.getEntries().stream()
+                .map(entry -> new RunHistoryEntry(entry.targetClassFullyQualifiedName, entry.targetClassPackageName,
+                        entry.targetClassName, entry.targetClassFilePath, entry.timestamp))
+                .collect(Collectors.toList());
     }
 
     public void saveRunHistory(@NotNull PitestContext entry) {
-        history.put(entry.getTargetClassFullyQualifiedName(), entry);
+        String targetClassFullyQualifiedName = entry.getTargetClassFullyQualifiedName();
+        history.put(targetClassFullyQualifiedName, entry);
         try {
-            String json = gson.toJson(history);
-            Files.write(historyFile.toPath(), json.getBytes());
+            store.append(entry);
+            // from now on the entry is a header like the loaded ones, its mutations live in the cache
+            MutationTable mutationTable = entry.getMutationTable();
+            if (mutationTable != null) {
+                cacheMutationTable(targetClassFullyQualifiedName, mutationTable);
+                entry.setMutationTable(null);
+                entry.setMutationTableLoader(() -> getMutationTable(targetClassFullyQualifiedName));
+            }
+            if (store.needsCompaction()) {
+                ApplicationManager.getApplication().executeOnPooledThread(store::compact);
+            }
             // this should be a Pair<String, String>>
             eventBusService.post(new RunHistoryEvent(RunHistoryEvent.RUN_HISTORY, new Pair<String, String>(entry.getTargetClassPackageName(), entry.getTargetClassName())));
             eventBusService.post(new RunHistoryEvent(RunHistoryEvent.RUN_HISTORY_LIST, getRunHistory()));
@@ -95,21 +167,37 @@ public final class RunHistoryManagerService {
         }
     }
 
-    @NotNull
-    private Map<String, PitestContext> loadRunHistory() {
-        if (!historyFile.exists()) {
-            return new HashMap<>();
+    // run-history.json held the whole history in one json map, move it into the store once. Classes the store already
+    // has are newer or were moved by a migration that stopped halfway. The file is only deleted once everything is in
+    // the store, a file that cannot be migrated is kept aside as run-history.json.bak.
+    static void migrateLegacyRunHistory(RunHistoryStore store, File legacyHistoryFile) {
+        if (!legacyHistoryFile.exists()) {
+            return;
         }
         try {
-            byte[] bytes = Files.readAllBytes(historyFile.toPath());
-            String json = new String(bytes);
-            Type type = new TypeToken<HashMap<String, PitestContext>>() {}.getType();
-            return gson.fromJson(json, type);
+            String json = new String(Files.readAllBytes(legacyHistoryFile.toPath()), StandardCharsets.UTF_8);
+            Type type = new TypeToken<LinkedHashMap<String, PitestContext>>() {}.getType();
+            Map<String, PitestContext> legacyHistory = new Gson().fromJson(json, type);
+            if (legacyHistory != null) {
+                for (PitestContext context : legacyHistory.values()) {
+                    if (context == null || context.getTargetClassFullyQualifiedName() == null
+                            || store.contains(context.getTargetClassFullyQualifiedName())) {
+                        continue;
+                    }
+                    context.getMutationResults(); // turns the legacy mutation list into a table before writing
+                    store.append(context);
+                }
+            }
         } catch (IOException | JsonSyntaxException e) {
-            if (historyFile.exists()) {
-                historyFile.delete();
+            log.error("Error migrating run history, keeping it as " + legacyHistoryFile.getName() + ".bak", e);
+            File backup = new File(legacyHistoryFile.getParentFile(), legacyHistoryFile.getName() + ".bak");
+            if (!legacyHistoryFile.renameTo(backup)) {
+                log.error("Cannot rename " + legacyHistoryFile + " to " + backup);
             }
-            return new HashMap<>();
+            return;
+        }
+        if (!legacyHistoryFile.delete()) {
+            log.warn("Cannot delete migrated run history " + legacyHistoryFile);
         }
     }
 }
@@ -0,0 +1,437 @@
+package com.github.jaksonlin.testcraft.infrastructure.services.business;
+
+import com.github.jaksonlin.testcraft.domain.context.PitestContext;
+import com.github.jaksonlin.testcraft.util.MutationTable;
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Append-only storage of the run history.
+ * <p>
+ * Every saved run is appended to the active segment file as two json records, the context without its mutations
+ * and the mutation table right after it, and an index line pointing to both (plus the few fields the history tree
+ * needs) is appended to index.log. Loading the store only replays the index, records are read when asked for, and
+ * the mutations separately from the context. Records replaced by a later run of the same class stay in the segments
+ * until {@link #compact()} rewrites the live ones.
+ */
+class RunHistoryStore {
+    private static final Logger log = LoggerFactory.getLogger(RunHistoryStore.class);
+    private static final String INDEX_FILE = "index.log";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.log");
+    private static final long MAX_SEGMENT_SIZE = 8L * 1024 * 1024;
+    private static final long COMPACTION_MIN_SIZE = 4L * 1024 * 1024;
+
+    private final Gson gson = new Gson();
+    private final Gson contextGson = new GsonBuilder().setExclusionStrategies(new ExclusionStrategy() {
+        @Override
+        public boolean shouldSkipField(FieldAttributes f) {
+            return f.getDeclaringClass() == PitestContext.class
+                    && ("mutationTable".equals(f.getName()) || "mutationResults".equals(f.getName()));
+        }
+
+        @Override
+        public boolean shouldSkipClass(Class<?> clazz) {
+            return false;
+        }
+    }).create();
+    private final File directory;
+    private final File indexFile;
+    private final long maxSegmentSize;
+    private final long compactionMinSize;
+    // target class FQN -> latest record, in save order
+    private final Map<String, IndexEntry> index = new LinkedHashMap<>();
+    private int activeSegment = 1;
+    private long totalBytes = 0;
+    private long liveBytes = 0;
+    private boolean compacting = false;
+    // bumped by clear(), a compaction started before it must not swap in its copies
+    private int generation = 0;
+
+    static class IndexEntry {
+        String targetClassFullyQualifiedName;
+        String targetClassPackageName;
+        String targetClassName;
+        String targetClassFilePath;
+        long timestamp;
+        int segment;
+        long offset;
+        int length;
+        // 0 for entries whose context record still embeds the mutations
+        long mutationOffset;
+        int mutationLength;
+    }
+
+    RunHistoryStore(@NotNull File directory) {
+        this(directory, MAX_SEGMENT_SIZE, COMPACTION_MIN_SIZE);
+    }
+
+    // the tests use small sizes to rotate segments and compact after a few runs
+    RunHistoryStore(@NotNull File directory, long maxSegmentSize, long compactionMinSize) {
+        this.directory = directory;
+        this.indexFile = new File(directory, INDEX_FILE);
+        this.maxSegmentSize = maxSegmentSize;
+        this.compactionMinSize = compactionMinSize;
+        load();
+    }
+
+    synchronized List<IndexEntry> getEntries() {
+        return new ArrayList<>(index.values());
+    }
+
+    synchronized boolean contains(@NotNull String targetClassFullyQualifiedName) {
+        return index.containsKey(targetClassFullyQualifiedName);
+    }
+
+    @Nullable
+    synchronized PitestContext read(@NotNull String targetClassFullyQualifiedName) {
+        IndexEntry entry = index.get(targetClassFullyQualifiedName);
+        if (entry == null) {
+            return null;
+        }
+        try (RandomAccessFile segment = new RandomAccessFile(segmentFile(entry.segment), "r")) {
+            byte[] record = new byte[entry.length];
+            segment.seek(entry.offset);
+            segment.readFully(record);
+            return gson.fromJson(new String(record, StandardCharsets.UTF_8), PitestContext.class);
+        } catch (IOException | JsonSyntaxException e) {
+            log.error("Error reading run history of " + targetClassFullyQualifiedName, e);
+            return null;
+        }
+    }
+
+    @Nullable
+    synchronized MutationTable readMutations(@NotNull String targetClassFullyQualifiedName) {
+        IndexEntry entry = index.get(targetClassFullyQualifiedName);
+        if (entry == null || entry.mutationLength == 0) {
+            return null;
+        }
+        try (RandomAccessFile segment = new RandomAccessFile(segmentFile(entry.segment), "r")) {
+            byte[] record = new byte[entry.mutationLength];
+            segment.seek(entry.mutationOffset);
+            segment.readFully(record);
+            return gson.fromJson(new String(record, StandardCharsets.UTF_8), MutationTable.class);
+        } catch (IOException | JsonSyntaxException e) {
+            log.error("Error reading mutation results of " + targetClassFullyQualifiedName, e);
+            return null;
+        }
+    }
+
+    synchronized void append(@NotNull PitestContext context) throws IOException {
+        Files.createDirectories(directory.toPath());
+        byte[] record = (contextGson.toJson(context) + "\n").getBytes(StandardCharsets.UTF_8);
+        MutationTable mutationTable = context.getMutationTable();
+        byte[] mutationRecord = mutationTable != null
+                ? (gson.toJson(mutationTable) + "\n").getBytes(StandardCharsets.UTF_8)
+                : new byte[0];
+        File segment = segmentFile(activeSegment);
+        if (segment.length() > 0 && segment.length() + record.length + mutationRecord.length > maxSegmentSize) {
+            activeSegment++;
+            segment = segmentFile(activeSegment);
+        }
+
+        IndexEntry entry = new IndexEntry();
+        entry.targetClassFullyQualifiedName = context.getTargetClassFullyQualifiedName();
+        entry.targetClassPackageName = context.getTargetClassPackageName();
+        entry.targetClassName = context.getTargetClassName();
+        entry.targetClassFilePath = context.getTargetClassFilePath();
+        entry.timestamp = context.getTimestamp();
+        entry.segment = activeSegment;
+        entry.length = record.length - 1;
+        entry.mutationLength = Math.max(mutationRecord.length - 1, 0);
+        try (FileChannel channel = FileChannel.open(segment.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            entry.offset = channel.size();
+            entry.mutationOffset = entry.mutationLength > 0 ? entry.offset + record.length : 0;
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer = ByteBuffer.wrap(mutationRecord);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        // the record is in place before the index points to it, a crash in between only leaves garbage behind
+        Files.write(indexFile.toPath(), (gson.toJson(entry) + "\n").getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        put(entry);
+        totalBytes += record.length + mutationRecord.length;
+    }
+
+    synchronized void clear() {
+        index.clear();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (!file.delete()) {
+                    log.warn("Cannot delete run history file " + file);
+                }
+            }
+        }
+        activeSegment = 1;
+        totalBytes = 0;
+        liveBytes = 0;
+        generation++;
+    }
+
+    synchronized boolean needsCompaction() {
+        return totalBytes > compactionMinSize && totalBytes > 2 * liveBytes;
+    }
+
+    /**
+     * Copies the live records into fresh segments, swaps in the matching index and deletes the old segments.
+     * <p>
+     * The copy runs without holding the store, new runs are appended to a segment of their own meanwhile. Only the
+     * swap locks the store.
+     */
+    void compact() {
+        List<IndexEntry> snapshot;
+        int lastOldSegment;
+        int compactionGeneration;
+        synchronized (this) {
+            if (compacting || !needsCompaction()) {
+                return;
+            }
+            compacting = true;
+            snapshot = new ArrayList<>(index.values());
+            // the segments up to here are only read from now on, they are deleted after the swap
+            lastOldSegment = activeSegment;
+            activeSegment++;
+            compactionGeneration = generation;
+        }
+
+        List<File> parts = new ArrayList<>();
+        List<IndexEntry> compacted = new ArrayList<>();
+        try {
+            try {
+                copyLiveRecords(snapshot, parts, compacted);
+            } catch (IOException e) {
+                log.error("Error compacting run history, keeping the current segments", e);
+                deleteAll(parts);
+                return;
+            }
+            synchronized (this) {
+                swapCompacted(snapshot, parts, compacted, lastOldSegment, compactionGeneration);
+            }
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+        }
+    }
+
+    // writes the records of the entries into compact-N.tmp parts, the moved entries point to part N as their segment.
+    // Not private, the tests append to and clear the store while it runs.
+    void copyLiveRecords(List<IndexEntry> snapshot, List<File> parts, List<IndexEntry> compacted) throws IOException {
+        File target = compactPartFile(0);
+        parts.add(target);
+        Files.createDirectories(directory.toPath());
+        Files.deleteIfExists(target.toPath());
+        long written = 0;
+        RandomAccessFile output = new RandomAccessFile(target, "rw");
+        try {
+            for (IndexEntry entry : snapshot) {
+                if (written > 0 && written + recordBytes(entry) > maxSegmentSize) {
+                    output.close();
+                    target = compactPartFile(parts.size());
+                    parts.add(target);
+                    Files.deleteIfExists(target.toPath());
+                    output = new RandomAccessFile(target, "rw");
+                    written = 0;
+                }
+                IndexEntry moved = copyOf(entry);
+                moved.segment = parts.size() - 1;
+                moved.offset = written;
+                written += copyRecord(entry.segment, entry.offset, entry.length, output);
+                if (entry.mutationLength > 0) {
+                    moved.mutationOffset = written;
+                    written += copyRecord(entry.segment, entry.mutationOffset, entry.mutationLength, output);
+                }
+                compacted.add(moved);
+            }
+        } finally {
+            output.close();
+        }
+    }
+
+    private void swapCompacted(List<IndexEntry> snapshot, List<File> parts, List<IndexEntry> compacted,
+                               int lastOldSegment, int compactionGeneration) {
+        if (compactionGeneration != generation) {
+            // cleared meanwhile, the copied records are gone from the index
+            deleteAll(parts);
+            return;
+        }
+        int firstSegment = activeSegment + 1;
+        List<IndexEntry> entries = new ArrayList<>();
+        try {
+            for (int i = 0; i < parts.size(); i++) {
+                Files.move(parts.get(i).toPath(), segmentFile(firstSegment + i).toPath(), StandardCopyOption.ATOMIC_MOVE);
+            }
+            Map<IndexEntry, IndexEntry> movedEntries = new IdentityHashMap<>();
+            for (int i = 0; i < snapshot.size(); i++) {
+                IndexEntry moved = compacted.get(i);
+                moved.segment += firstSegment;
+                movedEntries.put(snapshot.get(i), moved);
+            }
+            // runs saved during the copy replaced their snapshot entry and live in segments that are kept
+            for (IndexEntry entry : index.values()) {
+                entries.add(movedEntries.getOrDefault(entry, entry));
+            }
+            File newIndex = new File(directory, INDEX_FILE + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(newIndex.toPath(), StandardCharsets.UTF_8)) {
+                for (IndexEntry entry : entries) {
+                    writer.write(gson.toJson(entry));
+                    writer.write("\n");
+                }
+            }
+            Files.move(newIndex.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Error compacting run history, keeping the current segments", e);
+            deleteAll(parts);
+            for (int i = 0; i < parts.size(); i++) {
+                segmentFile(firstSegment + i).delete();
+            }
+            return;
+        }
+
+        for (int i = 1; i <= lastOldSegment; i++) {
+            segmentFile(i).delete();
+        }
+        index.clear();
+        liveBytes = 0;
+        for (IndexEntry entry : entries) {
+            put(entry);
+        }
+        activeSegment = firstSegment + parts.size() - 1;
+        totalBytes = 0;
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (SEGMENT_NAME.matcher(file.getName()).matches()) {
+                    totalBytes += file.length();
+                }
+            }
+        }
+        log.info("Compacted run history into " + entries.size() + " records");
+    }
+
+    private void load() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getName());
+                if (matcher.matches()) {
+                    activeSegment = Math.max(activeSegment, Integer.parseInt(matcher.group(1)));
+                    totalBytes += file.length();
+                }
+            }
+        }
+        if (!indexFile.exists()) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(indexFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    IndexEntry entry = gson.fromJson(line, IndexEntry.class);
+                    if (entry != null && entry.targetClassFullyQualifiedName != null && isInSegment(entry)) {
+                        put(entry);
+                    }
+                } catch (JsonSyntaxException e) {
+                    // a line cut short by a crash, the previous entry of that class is still valid
+                    log.warn("Skipping broken run history index line");
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error loading run history index", e);
+        }
+    }
+
+    private boolean isInSegment(IndexEntry entry) {
+        File segment = segmentFile(entry.segment);
+        return segment.exists() && entry.offset + entry.length <= segment.length()
+                && entry.mutationOffset + entry.mutationLength <= segment.length();
+    }
+
+    private long copyRecord(int segment, long offset, int length, RandomAccessFile output) throws IOException {
+        byte[] record = new byte[length];
+        try (RandomAccessFile input = new RandomAccessFile(segmentFile(segment), "r")) {
+            input.seek(offset);
+            input.readFully(record);
+        }
+        output.write(record);
+        output.write('\n');
+        return length + 1;
+    }
+
+    private static long recordBytes(IndexEntry entry) {
+        return entry.length + 1 + (entry.mutationLength > 0 ? entry.mutationLength + 1 : 0);
+    }
+
+    private void put(IndexEntry entry) {
+        // re-insert so that iteration order follows the latest save
+        IndexEntry previous = index.remove(entry.targetClassFullyQualifiedName);
+        if (previous != null) {
+            liveBytes -= recordBytes(previous);
+        }
+        index.put(entry.targetClassFullyQualifiedName, entry);
+        liveBytes += recordBytes(entry);
+    }
+
+    private File compactPartFile(int part) {
+        return new File(directory, String.format("compact-%05d.tmp", part));
+    }
+
+    private static void deleteAll(List<File> files) {
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    private File segmentFile(int segment) {
+        return new File(directory, String.format("segment-%05d.log", segment));
+    }
+
+    private static IndexEntry copyOf(IndexEntry entry) {
+        IndexEntry copy = new IndexEntry();
+        copy.targetClassFullyQualifiedName = entry.targetClassFullyQualifiedName;
+        copy.targetClassPackageName = entry.targetClassPackageName;
+        copy.targetClassName = entry.targetClassName;
+        copy.targetClassFilePath = entry.targetClassFilePath;
+        copy.timestamp = entry.timestamp;
+        copy.segment = entry.segment;
+        copy.offset = entry.offset;
+        copy.length = entry.length;
+        copy.mutationOffset = entry.mutationOffset;
+        copy.mutationLength = entry.mutationLength;
+        return copy;
+    }
+}
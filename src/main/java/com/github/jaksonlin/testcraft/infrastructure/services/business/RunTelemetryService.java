@@ -0,0 +1,162 @@
+package com.github.jaksonlin.testcraft.infrastructure.services.business;
+
+import com.github.jaksonlin.testcraft.domain.context.PitestContext;
+import com.github.jaksonlin.testcraft.domain.model.RunTelemetry;
+import com.github.jaksonlin.testcraft.infrastructure.messaging.events.RunTelemetryEvent;
+import com.github.jaksonlin.testcraft.infrastructure.services.system.EventBusService;
+import com.github.jaksonlin.testcraft.util.PitestRunStatistics;
+import com.github.jaksonlin.testcraft.util.ProcessResult;
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.Service;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the telemetry of the recent pitest runs, one json line per run in a file beside the run history.
+ * <p>
+ * Only the last {@link #MAX_RECORDS} runs are kept, the file is rewritten once it holds twice as many.
+ */
+@Service(Service.Level.APP)
+public final class RunTelemetryService {
+    private static final Logger log = LoggerFactory.getLogger(RunTelemetryService.class);
+    private static final int MAX_RECORDS = 1000;
+    private static final String TELEMETRY_FILE = "telemetry.jsonl";
+
+    private final EventBusService eventBusService = EventBusService.getInstance();
+    private final Gson gson = new Gson();
+    private final File telemetryFile;
+    private ArrayDeque<RunTelemetry> records;
+    private int linesInFile;
+
+    public static RunTelemetryService getInstance() {
+        return ApplicationManager.getApplication().getService(RunTelemetryService.class);
+    }
+
+    public RunTelemetryService() {
+        this.telemetryFile = new File(new File(PathManager.getConfigPath(), "run-telemetry"), TELEMETRY_FILE);
+    }
+
+    /**
+     * Completes the telemetry of a finished or failed run with what pitest printed and stores it.
+     */
+    public void record(@NotNull PitestContext context) {
+        RunTelemetry telemetry = context.getTelemetry();
+        if (telemetry.getStages().isEmpty()) {
+            return;
+        }
+        telemetry.setTargetClassFullyQualifiedName(context.getTargetClassFullyQualifiedName());
+        telemetry.setIncremental(context.getHistoryFile() != null);
+        ProcessResult processResult = context.getProcessResult();
+        if (processResult != null) {
+            telemetry.setExitCode(processResult.getExitCode());
+            PitestRunStatistics statistics = PitestRunStatistics.parse(processResult.getOutput());
+            telemetry.setMutationsGenerated(statistics.getMutationsGenerated());
+            telemetry.setMutationsKilled(statistics.getMutationsKilled());
+            telemetry.setTestsRun(statistics.getTestsRun());
+            telemetry.setTestsPerMutation(statistics.getTestsPerMutation());
+            telemetry.setCoverageMillis(statistics.getCoverageMillis());
+            telemetry.setMutationAnalysisMillis(statistics.getRunMutationTestsMillis());
+        }
+        synchronized (this) {
+            ensureLoaded();
+            records.addLast(telemetry);
+            while (records.size() > MAX_RECORDS) {
+                records.pollFirst();
+            }
+            append(telemetry);
+        }
+        eventBusService.post(new RunTelemetryEvent(RunTelemetryEvent.RUN_TELEMETRY_RECORDED, telemetry));
+    }
+
+    /**
+     * @return the kept runs, oldest first
+     */
+    @NotNull
+    public synchronized List<RunTelemetry> getRecords() {
+        ensureLoaded();
+        return new ArrayList<>(records);
+    }
+
+    public void clear() {
+        synchronized (this) {
+            records = new ArrayDeque<>();
+            linesInFile = 0;
+            if (telemetryFile.exists() && !telemetryFile.delete()) {
+                log.warn("Cannot delete run telemetry file " + telemetryFile);
+            }
+        }
+        eventBusService.post(new RunTelemetryEvent(RunTelemetryEvent.RUN_TELEMETRY_CLEARED, null));
+    }
+
+    private void ensureLoaded() {
+        if (records != null) {
+            return;
+        }
+        records = new ArrayDeque<>();
+        if (!telemetryFile.exists()) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(telemetryFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                linesInFile++;
+                try {
+                    RunTelemetry telemetry = gson.fromJson(line, RunTelemetry.class);
+                    if (telemetry != null) {
+                        records.addLast(telemetry);
+                        if (records.size() > MAX_RECORDS) {
+                            records.pollFirst();
+                        }
+                    }
+                } catch (JsonSyntaxException e) {
+                    // a line cut short by a crash, the others are still good
+                    log.warn("Skipping unreadable run telemetry line in " + telemetryFile);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error reading run telemetry", e);
+        }
+    }
+
+    private void append(RunTelemetry telemetry) {
+        try {
+            Files.createDirectories(telemetryFile.getParentFile().toPath());
+            if (linesInFile >= 2 * MAX_RECORDS) {
+                rewrite();
+            }
+            Files.write(telemetryFile.toPath(), (gson.toJson(telemetry) + "\n").getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            linesInFile++;
+        } catch (IOException e) {
+            log.error("Error saving run telemetry", e);
+        }
+    }
+
+    // the records in memory already include the one being appended, write all but the last
+    private void rewrite() throws IOException {
+        File rewritten = new File(telemetryFile.getParentFile(), TELEMETRY_FILE + ".tmp");
+        StringBuilder content = new StringBuilder();
+        List<RunTelemetry> kept = new ArrayList<>(records);
+        for (RunTelemetry telemetry : kept.subList(0, kept.size() - 1)) {
+            content.append(gson.toJson(telemetry)).append('\n');
+        }
+        Files.write(rewritten.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(rewritten.toPath(), telemetryFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        linesInFile = kept.size() - 1;
+    }
+}
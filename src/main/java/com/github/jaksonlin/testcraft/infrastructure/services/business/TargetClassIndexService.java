@@ -0,0 +1,276 @@
+package com.github.jaksonlin.testcraft.infrastructure.services.business;
+
+import com.github.jaksonlin.testcraft.util.FileUtils;
+import com.github.jaksonlin.testcraft.util.TargetClassInfo;
+import com.intellij.lang.java.JavaLanguage;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.JavaRecursiveElementWalkingVisitor;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiPackage;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.PsiShortNamesCache;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Finds the production classes of a project through the IDE class indexes instead of walking the source roots.
+ * <p>
+ * Lookups by name go to {@link JavaPsiFacade}/{@link PsiShortNamesCache}. Prefix search uses a sorted snapshot of the
+ * short class names of the project, rebuilt when the Java code of the project changed. While the indexes are
+ * being built the file system walk of {@link FileUtils} is used.
+ */
+@Service(Service.Level.PROJECT)
+public final class TargetClassIndexService {
+    private static final String SRC_MAIN_JAVA = "src" + File.separator + "main" + File.separator + "java";
+
+    private final Project project;
+    private long snapshotModificationCount = -1;
+    private String[] sortedClassNames = new String[0];
+
+    public TargetClassIndexService(Project project) {
+        this.project = project;
+    }
+
+    public static TargetClassIndexService getInstance(Project project) {
+        return project.getService(TargetClassIndexService.class);
+    }
+
+    /**
+     * @param targetClass fully qualified or simple name of a class under src/main/java
+     */
+    @Nullable
+    public TargetClassInfo findTargetClass(List<String> sourceRoots, String targetClass) {
+        if (DumbService.isDumb(project)) {
+            return FileUtils.findTargetClassFile(sourceRoots, targetClass);
+        }
+        return ReadAction.compute(() -> {
+            GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+            PsiClass[] candidates;
+            if (targetClass.contains(".")) {
+                PsiClass psiClass = JavaPsiFacade.getInstance(project).findClass(targetClass, scope);
+                candidates = psiClass != null ? new PsiClass[]{psiClass} : PsiClass.EMPTY_ARRAY;
+            } else {
+                candidates = PsiShortNamesCache.getInstance(project).getClassesByName(targetClass, scope);
+            }
+            for (PsiClass candidate : candidates) {
+                TargetClassInfo targetClassInfo = toTargetClassInfo(candidate);
+                if (targetClassInfo != null) {
+                    return targetClassInfo;
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Finds the class a test tests. FooTest, FooTests and TestFoo test Foo, looked up in the package of the test first
+     * and then anywhere in the project. Tests named otherwise test the production class they refer to most. Waits
+     * for indexing to finish.
+     * @return the target class, or null if the test refers to no production class
+     */
+    @Nullable
+    public TargetClassInfo findTargetClassOfTest(VirtualFile testFile) {
+        return DumbService.getInstance(project).runReadActionInSmartMode(() -> {
+            PsiFile psiFile = PsiManager.getInstance(project).findFile(testFile);
+            if (!(psiFile instanceof PsiJavaFile)) {
+                return null;
+            }
+            PsiJavaFile testJavaFile = (PsiJavaFile) psiFile;
+            GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+            for (PsiClass testClass : testJavaFile.getClasses()) {
+                String targetClassName = testClass.getName() != null ? targetClassNameOf(testClass.getName()) : null;
+                if (targetClassName == null) {
+                    continue;
+                }
+                String packageName = testJavaFile.getPackageName();
+                PsiClass samePackage = JavaPsiFacade.getInstance(project).findClass(packageName.isEmpty() ? targetClassName : packageName + "." + targetClassName, scope);
+                TargetClassInfo targetClassInfo = samePackage != null ? toTargetClassInfo(samePackage) : null;
+                if (targetClassInfo != null) {
+                    return targetClassInfo;
+                }
+                for (PsiClass candidate : PsiShortNamesCache.getInstance(project).getClassesByName(targetClassName, scope)) {
+                    targetClassInfo = toTargetClassInfo(candidate);
+                    if (targetClassInfo != null) {
+                        return targetClassInfo;
+                    }
+                }
+            }
+            return mostReferencedTargetClass(testJavaFile);
+        });
+    }
+
+    /**
+     * @return the target class in the given file, or null if the file is not a Java file under src/main/java
+     */
+    @Nullable
+    public static TargetClassInfo getTargetClassInfo(String targetClassFilePath) {
+        Path file = Paths.get(targetClassFilePath);
+        return file.toString().endsWith(".java") ? toTargetClassInfo(file) : null;
+    }
+
+    /**
+     * A prefix with a dot matches fully qualified names, e.g. com.foo.Ba matches com.foo.Bar and every class of the
+     * package com.foo.bar. Any other prefix matches simple names.
+     * @return fully qualified names of the matching production classes, at most limit
+     */
+    public List<String> searchClasses(List<String> sourceRoots, String prefix, int limit) {
+        if (prefix == null || prefix.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (DumbService.isDumb(project)) {
+            return FileUtils.searchClasses(sourceRoots, prefix, limit);
+        }
+        return ReadAction.compute(() -> {
+            if (prefix.contains(".")) {
+                return searchClassesByQualifiedName(prefix, limit);
+            }
+            String[] classNames = getSortedClassNames();
+            GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+            PsiShortNamesCache shortNamesCache = PsiShortNamesCache.getInstance(project);
+            Set<String> result = new LinkedHashSet<>();
+            int from = Arrays.binarySearch(classNames, prefix);
+            for (int i = from >= 0 ? from : -from - 1; i < classNames.length && classNames[i].startsWith(prefix) && result.size() < limit; i++) {
+                for (PsiClass psiClass : shortNamesCache.getClassesByName(classNames[i], scope)) {
+                    if (psiClass.getQualifiedName() != null && toTargetClassInfo(psiClass) != null) {
+                        result.add(psiClass.getQualifiedName());
+                    }
+                }
+            }
+            return new ArrayList<>(result);
+        });
+    }
+
+    // called in a read action
+    private List<String> searchClassesByQualifiedName(String prefix, int limit) {
+        int lastDot = prefix.lastIndexOf('.');
+        PsiPackage psiPackage = JavaPsiFacade.getInstance(project).findPackage(prefix.substring(0, lastDot));
+        if (psiPackage == null) {
+            return Collections.emptyList();
+        }
+        String namePrefix = prefix.substring(lastDot + 1);
+        GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+        Set<String> result = new LinkedHashSet<>();
+        addTargetClasses(result, psiPackage.getClasses(scope), namePrefix, limit);
+        Deque<PsiPackage> packages = new ArrayDeque<>();
+        for (PsiPackage subPackage : psiPackage.getSubPackages(scope)) {
+            if (subPackage.getName() != null && subPackage.getName().startsWith(namePrefix)) {
+                packages.add(subPackage);
+            }
+        }
+        while (!packages.isEmpty() && result.size() < limit) {
+            PsiPackage current = packages.poll();
+            addTargetClasses(result, current.getClasses(scope), "", limit);
+            packages.addAll(Arrays.asList(current.getSubPackages(scope)));
+        }
+        return new ArrayList<>(result);
+    }
+
+    private static void addTargetClasses(Set<String> result, PsiClass[] psiClasses, String namePrefix, int limit) {
+        for (PsiClass psiClass : psiClasses) {
+            if (result.size() >= limit) {
+                return;
+            }
+            if (psiClass.getName() != null && psiClass.getName().startsWith(namePrefix)
+                    && psiClass.getQualifiedName() != null && toTargetClassInfo(psiClass) != null) {
+                result.add(psiClass.getQualifiedName());
+            }
+        }
+    }
+
+    // called in a read action
+    private synchronized String[] getSortedClassNames() {
+        long modificationCount = PsiModificationTracker.getInstance(project).forLanguage(JavaLanguage.INSTANCE).getModificationCount();
+        if (modificationCount != snapshotModificationCount) {
+            Set<String> names = new TreeSet<>();
+            PsiShortNamesCache.getInstance(project).processAllClassNames(names::add, GlobalSearchScope.projectScope(project), null);
+            sortedClassNames = names.toArray(new String[0]);
+            snapshotModificationCount = modificationCount;
+        }
+        return sortedClassNames;
+    }
+
+    // top level classes in the layout FileUtils expects: the source root is the directory holding src/main/java
+    @Nullable
+    private static TargetClassInfo toTargetClassInfo(PsiClass psiClass) {
+        if (psiClass.getContainingClass() != null) {
+            return null;
+        }
+        PsiFile psiFile = psiClass.getContainingFile();
+        VirtualFile virtualFile = psiFile != null ? psiFile.getVirtualFile() : null;
+        if (virtualFile == null || !"java".equals(virtualFile.getExtension())) {
+            return null;
+        }
+        return toTargetClassInfo(Paths.get(virtualFile.getPath()));
+    }
+
+    @Nullable
+    private static TargetClassInfo toTargetClassInfo(Path file) {
+        String parentPathString = file.getParent().toString();
+        int indexToSrcMainJava = parentPathString.indexOf(SRC_MAIN_JAVA);
+        if (indexToSrcMainJava == -1) {
+            return null;
+        }
+        return new TargetClassInfo(file, Paths.get(parentPathString.substring(0, indexToSrcMainJava)));
+    }
+
+    // FooTest / FooTests / TestFoo -> Foo, null for other names
+    @Nullable
+    private static String targetClassNameOf(String testClassName) {
+        if (testClassName.endsWith("Tests") && testClassName.length() > "Tests".length()) {
+            return testClassName.substring(0, testClassName.length() - "Tests".length());
+        } else if (testClassName.endsWith("Test") && testClassName.length() > "Test".length()) {
+            return testClassName.substring(0, testClassName.length() - "Test".length());
+        } else if (testClassName.startsWith("Test") && testClassName.length() > "Test".length()) {
+            return testClassName.substring("Test".length());
+        }
+        return null;
+    }
+
+    // called in a read action
+    @Nullable
+    private static TargetClassInfo mostReferencedTargetClass(PsiJavaFile testFile) {
+        Map<PsiClass, Integer> referenceCounts = new HashMap<>();
+        testFile.accept(new JavaRecursiveElementWalkingVisitor() {
+            @Override
+            public void visitReferenceElement(PsiJavaCodeReferenceElement reference) {
+                super.visitReferenceElement(reference);
+                PsiElement resolved = reference.resolve();
+                if (resolved instanceof PsiClass) {
+                    referenceCounts.merge((PsiClass) resolved, 1, Integer::sum);
+                }
+            }
+        });
+        return referenceCounts.entrySet().stream()
+                .sorted(Map.Entry.<PsiClass, Integer>comparingByValue().reversed())
+                .map(entry -> toTargetClassInfo(entry.getKey()))
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+    }
+}
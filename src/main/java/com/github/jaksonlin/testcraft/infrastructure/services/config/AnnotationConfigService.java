@@ -1,7 +1,11 @@
 package com.github.jaksonlin.testcraft.infrastructure.services.config;
 
 import com.alibaba.fastjson.JSON;
+import com.github.jaksonlin.testcraft.domain.annotations.AnnotationParser;
 import com.github.jaksonlin.testcraft.domain.annotations.AnnotationSchema;
+import com.github.jaksonlin.testcraft.domain.annotations.AnnotationSchemaSnapshot;
+import com.github.jaksonlin.testcraft.infrastructure.messaging.events.AnnotationSchemaEvent;
+import com.github.jaksonlin.testcraft.infrastructure.services.system.EventBusService;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.components.PersistentStateComponent;
 import com.intellij.openapi.components.Service;
@@ -23,7 +27,6 @@ public final class AnnotationConfigService implements PersistentStateComponent<A
     private static final Logger LOG = Logger.getInstance(AnnotationConfigService.class);
     public static class State {
         public String schemaJson = AnnotationSchema.getDefaultSchema();
-        private AnnotationSchema currentSchema = null;
         public String annotationPackage = "com.example.unittest.annotations";
         public boolean shouldCheckAnnotation = false;
         public boolean autoImport = true;
@@ -48,6 +51,8 @@ public final class AnnotationConfigService implements PersistentStateComponent<A
     }
 
     private State myState = new State();
+    // parsed once per change of the schema json, read without locking
+    private volatile AnnotationSchemaSnapshot schemaSnapshot;
 
     public static AnnotationConfigService getInstance() {
         return ApplicationManager.getApplication().getService(AnnotationConfigService.class);
@@ -61,46 +66,80 @@ public final class AnnotationConfigService implements PersistentStateComponent<A
     @Override
     public void loadState(@NotNull State state) {
         myState = state;
-        try {
-            if (state.schemaJson != null && !state.schemaJson.isEmpty()) {
-                myState.currentSchema = JSON.parseObject(state.schemaJson, AnnotationSchema.class);
-            }
-        } catch (Exception e) {
-            LOG.error("Error decoding schema", e);
-        }
+        publishSchema(state.schemaJson, parseSchema(state.schemaJson));
+    }
+
+    /**
+     * @return the schema of the settings, the default schema when they do not hold a readable one
+     */
+    public @NotNull AnnotationSchema getSchema() {
+        return getSchemaSnapshot().getSchema();
     }
 
-    public @Nullable AnnotationSchema getSchema() {
-        if (myState.currentSchema != null) {
-            return getState().currentSchema;
+    /**
+     * @return a parser for the current schema, compiled once per change of the schema
+     */
+    public @NotNull AnnotationParser getParser() {
+        return getSchemaSnapshot().getParser();
+    }
+
+    public @NotNull AnnotationSchemaSnapshot getSchemaSnapshot() {
+        AnnotationSchemaSnapshot snapshot = schemaSnapshot;
+        if (snapshot != null) {
+            return snapshot;
         }
-        try {
-            if (myState.schemaJson != null && !myState.schemaJson.isEmpty()) {
-                myState.currentSchema = JSON.parseObject(myState.schemaJson, AnnotationSchema.class);
-            }
-            myState.currentSchema = JSON.parseObject(AnnotationSchema.getDefaultSchema(), AnnotationSchema.class);
-            return myState.currentSchema;
-        } catch (Exception e) {
-            try {
-                myState.currentSchema = JSON.parseObject(AnnotationSchema.getDefaultSchema(), AnnotationSchema.class);
-                return myState.currentSchema;
-            } catch (Exception ex) {
-                // ignore
-                LOG.error("Error decoding default schema", ex);
-                return null;
+        synchronized (this) {
+            if (schemaSnapshot == null) {
+                String schemaJson = myState.schemaJson;
+                schemaSnapshot = new AnnotationSchemaSnapshot(1, schemaJson, parseSchema(schemaJson));
             }
+            return schemaSnapshot;
         }
     }
 
     public void setSchemaJson(String schemaJson) {
+        AnnotationSchema schema;
         try {
-            AnnotationSchema schema = JSON.parseObject(schemaJson, AnnotationSchema.class);
-            myState.schemaJson = schemaJson;
-            myState.currentSchema = schema;
-            LOG.info("Updated annotation config: " + myState.schemaJson);
+            schema = JSON.parseObject(schemaJson, AnnotationSchema.class);
         } catch (Exception e) {
             LOG.error("Error encoding schema", e);
+            return;
+        }
+        myState.schemaJson = schemaJson;
+        publishSchema(schemaJson, schema != null ? schema : getDefaultSchema());
+        LOG.info("Updated annotation config: " + myState.schemaJson);
+    }
+
+    // replaces the snapshot when the json changed and tells the subscribers
+    private void publishSchema(String schemaJson, AnnotationSchema schema) {
+        AnnotationSchemaSnapshot published;
+        synchronized (this) {
+            AnnotationSchemaSnapshot current = schemaSnapshot;
+            if (current != null && Objects.equals(current.getSchemaJson(), schemaJson)) {
+                return;
+            }
+            published = new AnnotationSchemaSnapshot(current != null ? current.getVersion() + 1 : 1, schemaJson, schema);
+            schemaSnapshot = published;
+            if (current == null) {
+                // the first snapshot, nobody has seen a schema yet
+                return;
+            }
+        }
+        EventBusService.getInstance().post(new AnnotationSchemaEvent(AnnotationSchemaEvent.ANNOTATION_SCHEMA_CHANGED, published));
+    }
+
+    private @NotNull AnnotationSchema parseSchema(String schemaJson) {
+        if (schemaJson != null && !schemaJson.isEmpty()) {
+            try {
+                AnnotationSchema schema = JSON.parseObject(schemaJson, AnnotationSchema.class);
+                if (schema != null) {
+                    return schema;
+                }
+            } catch (Exception e) {
+                LOG.error("Error decoding schema", e);
+            }
         }
+        return getDefaultSchema();
     }
 
     public @NotNull AnnotationSchema getDefaultSchema() {
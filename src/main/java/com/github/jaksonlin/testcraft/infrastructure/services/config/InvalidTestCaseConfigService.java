@@ -1,5 +1,6 @@
 package com.github.jaksonlin.testcraft.infrastructure.services.config;
 
+import com.github.jaksonlin.testcraft.util.AssertionPatternMatcher;
 import com.intellij.openapi.components.PersistentStateComponent;
 import com.intellij.openapi.components.Service;
 import com.intellij.openapi.components.State;
@@ -46,11 +47,24 @@ public final class InvalidTestCaseConfigService implements PersistentStateCompon
     }
 
     private State myState = new State();
+    // compiled from the invalid assertion text it was built for, rebuilt when the setting changes
+    private String compiledInvalidAssertionText;
+    private AssertionPatternMatcher invalidAssertionMatcher;
 
     public List<String> getInvalidAssertions() {
         return myState.invalidAssertionText == null ? new ArrayList<>() : Arrays.asList(myState.invalidAssertionText.split("\n"));
     }
 
+    public synchronized AssertionPatternMatcher getInvalidAssertionMatcher() {
+        String invalidAssertionText = myState.invalidAssertionText;
+        if (invalidAssertionMatcher == null || !Objects.equals(invalidAssertionText, compiledInvalidAssertionText)) {
+            invalidAssertionMatcher = AssertionPatternMatcher.compile(invalidAssertionText == null
+                    ? new ArrayList<>() : Arrays.asList(invalidAssertionText.split("\n")));
+            compiledInvalidAssertionText = invalidAssertionText;
+        }
+        return invalidAssertionMatcher;
+    }
+
     public boolean isEnable() {
         return myState.enable;
     }
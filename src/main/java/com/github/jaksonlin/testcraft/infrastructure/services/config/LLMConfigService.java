@@ -3,7 +3,7 @@ package com.github.jaksonlin.testcraft.infrastructure.services.config;
 import com.github.jaksonlin.testcraft.infrastructure.messaging.mediators.ILLMChatMediator;
 import com.github.jaksonlin.testcraft.infrastructure.messaging.mediators.LLMChatMediatorImpl;
 import com.github.jaksonlin.testcraft.infrastructure.services.system.EventBusService;
-import com.github.jaksonlin.testcraft.util.Mutation;
+import com.github.jaksonlin.testcraft.util.MutationResult;
 import com.github.jaksonlin.testcraft.util.OllamaClient;
 import com.intellij.openapi.components.Service;
 import com.intellij.openapi.diagnostic.Logger;
@@ -87,7 +87,7 @@ public final class LLMConfigService
         EventBusService.getInstance().post(new LLMConfigEvent(LLMConfigEvent.CONFIG_CHANGE_COPY_AS_MARKDOWN, state.copyAsMarkdown));
     }
 
-    public void generateUnittestRequest(String testCodeFile, String sourceCodeFile, List<Mutation> mutationList) {
+    public void generateUnittestRequest(String testCodeFile, String sourceCodeFile, List<? extends MutationResult> mutationList) {
         LOG.info("Generating unittest request for " + testCodeFile + " and " + sourceCodeFile);
 
         llmChatMediator.setOllamaClient(new OllamaClient(
@@ -115,7 +115,7 @@ public final class LLMConfigService
         llmChatMediator.handleChatMessage(message);
     }
 
-    public String dryRunGetPrompt(String testClassName, String sourceClassName, List<Mutation> mutations) {
+    public String dryRunGetPrompt(String testClassName, String sourceClassName, List<? extends MutationResult> mutations) {
         return llmChatMediator.dryRunGetPrompt(testClassName, sourceClassName, mutations);
     }
 
@@ -129,6 +129,9 @@ public final class LLMConfigService
             case ChatEvent.CLEAR_CHAT:
                 this.llmChatMediator.clearChat();
                 break;
+            case ChatEvent.CANCEL_CHAT_REQUEST:
+                this.llmChatMediator.cancelRequest();
+                break;
             default:
                 break;
         }
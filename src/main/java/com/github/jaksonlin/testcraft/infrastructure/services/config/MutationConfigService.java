@@ -28,6 +28,8 @@ public final class MutationConfigService implements PersistentStateComponent<Mut
         public String mutatorGroup = "STARTER_KIT"; // Default value
         public String dependencyDirectoriesOrder = "bos;biz;trd"; // The order of the dependency directories
         public String firstLoadDependentJars = "mockito-*.jar"; // The first load dependent jars
+        public boolean reuseMutationWorker = true; // Keep a warm pitest JVM between runs
+        public boolean incrementalAnalysis = false; // Reuse pitest history and only mutate methods changed since the last run
 
         public State() {
         }
@@ -42,7 +44,7 @@ public final class MutationConfigService implements PersistentStateComponent<Mut
 
         @Override
         public int hashCode() {
-            return Objects.hash(mutatorGroup, dependencyDirectoriesOrder, firstLoadDependentJars);
+            return Objects.hash(mutatorGroup, dependencyDirectoriesOrder, firstLoadDependentJars, reuseMutationWorker, incrementalAnalysis);
         }
     }
 
@@ -83,6 +85,22 @@ public final class MutationConfigService implements PersistentStateComponent<Mut
         myState.firstLoadDependentJars = firstLoadDependentJars;
     }
 
+    public boolean isReuseMutationWorker() {
+        return myState.reuseMutationWorker;
+    }
+
+    public void setReuseMutationWorker(boolean reuseMutationWorker) {
+        myState.reuseMutationWorker = reuseMutationWorker;
+    }
+
+    public boolean isIncrementalAnalysis() {
+        return myState.incrementalAnalysis;
+    }
+
+    public void setIncrementalAnalysis(boolean incrementalAnalysis) {
+        myState.incrementalAnalysis = incrementalAnalysis;
+    }
+
     @Nullable
     @Override
     public State getState() {
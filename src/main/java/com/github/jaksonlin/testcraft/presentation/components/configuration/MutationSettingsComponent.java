@@ -8,12 +8,15 @@ import java.awt.event.ActionListener;
 import com.github.jaksonlin.testcraft.infrastructure.services.config.MutationConfigService;
 import com.github.jaksonlin.testcraft.infrastructure.services.system.I18nService;
 import com.intellij.openapi.ui.ComboBox;
+import com.intellij.ui.components.JBCheckBox;
 import com.intellij.ui.components.JBLabel;
 import com.intellij.util.ui.FormBuilder;
 
 public class MutationSettingsComponent {
     private final JPanel mainPanel;
     private final ComboBox<String> mutatorGroupComboBox;
+    private final JBCheckBox reuseMutationWorkerCheckBox;
+    private final JBCheckBox incrementalAnalysisCheckBox;
 
     // Dependency Directories UI
     private final DefaultListModel<String> dependencyDirsModel = new DefaultListModel<>();
@@ -26,6 +29,12 @@ public class MutationSettingsComponent {
     public MutationSettingsComponent() {
         mutatorGroupComboBox = new ComboBox<>(new String[]{"DEFAULTS", "STRONGER", "STARTER_KIT"});
         mutatorGroupComboBox.setSelectedItem(MutationConfigService.getInstance().getMutatorGroup());
+        reuseMutationWorkerCheckBox = new JBCheckBox(I18nService.getInstance().message("settings.mutation.reuse.worker.label"),
+                MutationConfigService.getInstance().isReuseMutationWorker());
+        reuseMutationWorkerCheckBox.setToolTipText(I18nService.getInstance().message("settings.mutation.reuse.worker.tooltip"));
+        incrementalAnalysisCheckBox = new JBCheckBox(I18nService.getInstance().message("settings.mutation.incremental.label"),
+                MutationConfigService.getInstance().isIncrementalAnalysis());
+        incrementalAnalysisCheckBox.setToolTipText(I18nService.getInstance().message("settings.mutation.incremental.tooltip"));
 
         // Load initial values
         for (String dir : MutationConfigService.getInstance().getDependencyDirectoriesOrder().split(";")) {
@@ -47,6 +56,8 @@ public class MutationSettingsComponent {
 
         mainPanel = FormBuilder.createFormBuilder()
                 .addLabeledComponent(new JBLabel(I18nService.getInstance().message("settings.mutation.default.mutator.group.label")), mutatorGroupComboBox)
+                .addComponent(reuseMutationWorkerCheckBox)
+                .addComponent(incrementalAnalysisCheckBox)
                 .addComponent(depDirsPanel)
                 .addComponent(firstLoadJarsPanel)
                 .addComponentFillVertically(new JPanel(), 0)
@@ -98,6 +109,22 @@ public class MutationSettingsComponent {
         mutatorGroupComboBox.setSelectedItem(mutatorGroup);
     }
 
+    public boolean isReuseMutationWorker() {
+        return reuseMutationWorkerCheckBox.isSelected();
+    }
+
+    public void setReuseMutationWorker(boolean reuseMutationWorker) {
+        reuseMutationWorkerCheckBox.setSelected(reuseMutationWorker);
+    }
+
+    public boolean isIncrementalAnalysis() {
+        return incrementalAnalysisCheckBox.isSelected();
+    }
+
+    public void setIncrementalAnalysis(boolean incrementalAnalysis) {
+        incrementalAnalysisCheckBox.setSelected(incrementalAnalysis);
+    }
+
     // New: Getters for the dependency settings
     public String getDependencyDirectoriesOrder() {
         StringBuilder sb = new StringBuilder();
@@ -15,9 +15,12 @@ import java.awt.datatransfer.StringSelection;
 import java.awt.Toolkit;
 
 import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
 import javax.swing.text.html.HTMLEditorKit;
 import javax.swing.text.html.StyleSheet;
 import java.awt.*;
+import java.io.IOException;
 import java.util.Timer;
 import java.util.TimerTask;
 import javax.swing.text.html.HTMLDocument;
@@ -29,19 +32,32 @@ public class LLMResponseComponent  {
             switch (event.getEventType()) {
                 case ChatEvent.START_LOADING:
                     startLoading();
+                    setStopEnabled(true);
                     break;
                 case ChatEvent.STOP_LOADING:
                     stopLoading();
+                    setStopEnabled(false);
                     break;
                 case ChatEvent.CHAT_REQUEST:
                     if (!isLoading) {
                         appendMarkdownToOutput(String.format(MESSAGE_TEMPLATE, "user", I18nService.getInstance().message("llm.user"), event.getPayload().toString()));
                         startLoading();
+                        setStopEnabled(true);
                     }
                     break;
+                case ChatEvent.CHAT_RESPONSE_CHUNK:
+                    appendStreamingToken(event.getPayload().toString());
+                    break;
                 case ChatEvent.CHAT_RESPONSE:
                     stopLoading();
-                    appendMarkdownToOutput(String.format(MESSAGE_TEMPLATE, "assistant", I18nService.getInstance().message("llm.assistant"), event.getPayload().toString()));
+                    setStopEnabled(false);
+                    String messageId;
+                    synchronized (streamingResponse) {
+                        messageId = streamingMessageId;
+                        streamingMessageId = null;
+                        streamingResponse.setLength(0);
+                    }
+                    replaceStreamingMessage(messageId, String.format(MESSAGE_TEMPLATE, "assistant", I18nService.getInstance().message("llm.assistant"), event.getPayload().toString()));
                     break;
                 case ChatEvent.COPY_CHAT_RESPONSE:
                     copyToClipboard(event.getPayload());
@@ -55,6 +71,7 @@ public class LLMResponseComponent  {
                     }
                     break;
                 case ChatEvent.ERROR:
+                    setStopEnabled(false);
                     JOptionPane.showMessageDialog(masterPanel, I18nService.getInstance().message("llm.error") + ": " + event.getPayload().toString(), I18nService.getInstance().message("llm.error"), JOptionPane.ERROR_MESSAGE);
                     break;
             }
@@ -83,7 +100,15 @@ public class LLMResponseComponent  {
     private final JLabel loadingLabel;
     
 
-    private final StringBuilder chatHistory = new StringBuilder();
+    // markdown of the answer being generated, rendered below the history until the whole answer arrives
+    private final StringBuilder streamingResponse = new StringBuilder();
+    // id of the document element that shows the answer being generated, null until its first token
+    private String streamingMessageId;
+    private int streamingMessageCount = 0;
+    // renders the streamed tokens at most this often, rendering each token would flood the UI thread
+    private static final int STREAMING_RENDER_DELAY_MS = 100;
+    private final javax.swing.Timer streamingRenderTimer = new javax.swing.Timer(STREAMING_RENDER_DELAY_MS, e -> renderStreamingMessage());
+    private final JButton stopButton;
 
     public JPanel getMasterPanel() {
         return masterPanel;
@@ -105,6 +130,8 @@ public class LLMResponseComponent  {
                     "</body>\n" +
                     "</html>";
 
+    private static final String CHAT_CONTAINER_ID = "chat-container";
+
     private static final String MESSAGE_TEMPLATE =
             "<div class=\"message %s\">\n" +
                     "    <div class=\"message-header\">%s</div>\n" +
@@ -175,6 +202,15 @@ public class LLMResponseComponent  {
             notifyClearButtonClick();
         });
         toolbar.add(clearButton);
+
+        stopButton = new JButton(I18nService.getInstance().message("llm.stop"));
+        stopButton.setEnabled(false);
+        stopButton.addActionListener(e -> {
+            stopButton.setEnabled(false);
+            EventBusService.getInstance().post(new ChatEvent(ChatEvent.CANCEL_CHAT_REQUEST, null));
+        });
+        toolbar.add(stopButton);
+        streamingRenderTimer.setRepeats(false);
         
         // Create input panel at the bottom
         JPanel inputPanel = new JPanel(new BorderLayout());
@@ -192,7 +228,7 @@ public class LLMResponseComponent  {
 
         
         // Initialize with empty chat container
-        updateOutputArea();
+        resetOutputArea();
     }
 
     private String getCodeStyle() {
@@ -291,28 +327,97 @@ public class LLMResponseComponent  {
         loadingTimer.purge();
     }
 
-    private void updateOutputArea() {
-        String fullHtml = String.format(BASE_HTML_TEMPLATE, getCodeStyle(), chatHistory.toString());
+    private void setStopEnabled(boolean enabled) {
+        SwingUtilities.invokeLater(() -> stopButton.setEnabled(enabled));
+    }
+
+    private void appendStreamingToken(String token) {
+        synchronized (streamingResponse) {
+            if (streamingResponse.length() == 0) {
+                // the answer started, it is its own progress indicator from now on
+                stopLoading();
+                streamingMessageId = "streaming-message-" + (++streamingMessageCount);
+            }
+            streamingResponse.append(token);
+        }
+        SwingUtilities.invokeLater(() -> {
+            if (!streamingRenderTimer.isRunning()) {
+                streamingRenderTimer.start();
+            }
+        });
+    }
+
+    // the history stays in the document, each tick only re-renders the element of the answer being generated
+    private void renderStreamingMessage() {
+        String messageId;
+        String markdown;
+        synchronized (streamingResponse) {
+            if (streamingMessageId == null || streamingResponse.length() == 0) {
+                return;
+            }
+            messageId = streamingMessageId;
+            markdown = String.format(MESSAGE_TEMPLATE, "assistant", I18nService.getInstance().message("llm.assistant"), streamingResponse);
+        }
+        String html = convertMarkdownToHtml(markdown);
+        HTMLDocument doc = (HTMLDocument) outputArea.getDocument();
+        Element message = doc.getElement(messageId);
+        try {
+            if (message == null) {
+                doc.insertBeforeEnd(doc.getElement(CHAT_CONTAINER_ID), "<div id=\"" + messageId + "\">" + html + "</div>");
+            } else {
+                doc.setInnerHTML(message, html);
+            }
+        } catch (BadLocationException | IOException e) {
+            throw new IllegalStateException("Failed to render the streamed answer", e);
+        }
+        outputArea.setCaretPosition(doc.getLength());
+    }
+
+    // the complete answer takes the place of its streamed rendering, or is appended if nothing was streamed
+    private void replaceStreamingMessage(String messageId, String markdown) {
+        String html = convertMarkdownToHtml(markdown);
         SwingUtilities.invokeLater(() -> {
+            HTMLDocument doc = (HTMLDocument) outputArea.getDocument();
+            Element message = messageId == null ? null : doc.getElement(messageId);
+            if (message == null) {
+                appendHtml(doc, html);
+                return;
+            }
             try {
-                // Create a new document each time to avoid state issues
-                HTMLDocument doc = (HTMLDocument) htmlKit.createDefaultDocument();
-                // Set the document first
-                outputArea.setDocument(doc);
-                // Then insert the content
-                htmlKit.insertHTML(doc, 0, fullHtml, 0, 0, null);
-                outputArea.setCaretPosition(doc.getLength());
-            } catch (Exception e) {
+                doc.setOuterHTML(message, html);
+            } catch (BadLocationException | IOException e) {
+                throw new IllegalStateException("Failed to render the answer", e);
+            }
+            outputArea.setCaretPosition(doc.getLength());
+        });
+    }
+
+    private void resetOutputArea() {
+        String emptyHtml = String.format(BASE_HTML_TEMPLATE, getCodeStyle(), "");
+        SwingUtilities.invokeLater(() -> {
+            HTMLDocument doc = (HTMLDocument) htmlKit.createDefaultDocument();
+            outputArea.setDocument(doc);
+            try {
+                htmlKit.insertHTML(doc, 0, emptyHtml, 0, 0, null);
+            } catch (BadLocationException | IOException e) {
                 // Fallback to setText if something goes wrong
-                outputArea.setText(fullHtml);
+                outputArea.setText(emptyHtml);
             }
         });
     }
 
+    private void appendHtml(HTMLDocument doc, String html) {
+        try {
+            doc.insertBeforeEnd(doc.getElement(CHAT_CONTAINER_ID), html);
+        } catch (BadLocationException | IOException e) {
+            throw new IllegalStateException("Failed to append the message", e);
+        }
+        outputArea.setCaretPosition(doc.getLength());
+    }
+
     private void appendMarkdownToOutput(String markdown) {
         String htmlContent = convertMarkdownToHtml(markdown);
-        chatHistory.append(htmlContent);
-        updateOutputArea();
+        SwingUtilities.invokeLater(() -> appendHtml((HTMLDocument) outputArea.getDocument(), htmlContent));
     }
 
     private String convertMarkdownToHtml(String markdown) {
@@ -323,8 +428,7 @@ public class LLMResponseComponent  {
     }
 
     private void clearOutput() {
-        chatHistory.setLength(0);
-        updateOutputArea();
+        resetOutputArea();
     }
 
     private void copyToClipboard(Object eventObj) {
@@ -1,9 +1,11 @@
 package com.github.jaksonlin.testcraft.presentation.components.llmchat;
 
 import com.github.jaksonlin.testcraft.domain.context.PitestContext;
+import com.github.jaksonlin.testcraft.domain.model.RunHistoryEntry;
 import com.github.jaksonlin.testcraft.infrastructure.messaging.events.RunHistoryEvent;
 import com.github.jaksonlin.testcraft.infrastructure.messaging.events.ChatEvent;
 import com.github.jaksonlin.testcraft.infrastructure.messaging.events.TypedEventObserver;
+import com.github.jaksonlin.testcraft.infrastructure.services.business.RunHistoryManagerService;
 import com.github.jaksonlin.testcraft.infrastructure.services.system.I18nService;
 import com.github.jaksonlin.testcraft.presentation.viewmodels.LLMSuggestionUIComponentViewModel;
 import com.intellij.openapi.application.ApplicationManager;
@@ -25,7 +27,6 @@ import java.awt.FlowLayout;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 public class LLMSuggestionUIComponent  {
 
@@ -115,16 +116,16 @@ public class LLMSuggestionUIComponent  {
 
         // Setup action listeners
         generateButton.addActionListener(e -> {
-            FileItem selectedItem = (FileItem) fileSelector.getSelectedItem();
-            if (selectedItem != null) {
-                viewModel.generateSuggestions(selectedItem.context);
+            PitestContext context = getSelectedContext();
+            if (context != null) {
+                viewModel.generateSuggestions(context);
             }
         });
 
         dryRunButton.addActionListener(e -> {
-            FileItem selectedItem = (FileItem) fileSelector.getSelectedItem();
-            if (selectedItem != null) {
-                viewModel.dryRunGetPrompt(selectedItem.context);
+            PitestContext context = getSelectedContext();
+            if (context != null) {
+                viewModel.dryRunGetPrompt(context);
             }
         });
 
@@ -148,23 +149,23 @@ public class LLMSuggestionUIComponent  {
             allFileItems.clear();
             return;
         }
-        if (!(eventObj instanceof Map<?, ?>)) {
+        if (!(eventObj instanceof List<?>)) {
             return;
         }
         
-        Map<String, PitestContext> history = (Map<String, PitestContext>) eventObj;
+        List<RunHistoryEntry> history = (List<RunHistoryEntry>) eventObj;
         if (history.isEmpty()) {
             return;
         }
         fileListModel.removeAllElements();
         allFileItems.clear();
 
-        history.forEach((key, context) -> {
+        history.forEach(entry -> {
             String displayName = String.format("%s.%s",
-                    context.getTargetClassPackageName(),
-                    context.getTargetClassName());
-            String filePath = context.getTargetClassFilePath();
-            allFileItems.add(new FileItem(displayName, filePath, context));
+                    entry.getTargetClassPackageName(),
+                    entry.getTargetClassName());
+            String filePath = entry.getTargetClassFilePath();
+            allFileItems.add(new FileItem(displayName, filePath, entry.getTargetClassFullyQualifiedName()));
         });
 
         // Sort items by display name
@@ -189,6 +190,15 @@ public class LLMSuggestionUIComponent  {
         }
     }
 
+    // the list only holds the index of the history, the run itself is read when it is used
+    private PitestContext getSelectedContext() {
+        FileItem selectedItem = (FileItem) fileSelector.getSelectedItem();
+        if (selectedItem == null) {
+            return null;
+        }
+        return RunHistoryManagerService.getInstance().getRunHistoryForClass(selectedItem.targetClassFullyQualifiedName);
+    }
+
     private void onFileSelected() {
         // This method can be used to perform any actions when a file is selected
         // For now, we'll leave it empty as generation is handled by the button
@@ -199,12 +209,12 @@ public class LLMSuggestionUIComponent  {
     private static class FileItem {
         final String displayName;
         final String filePath;
-        final PitestContext context;
+        final String targetClassFullyQualifiedName;
 
-        FileItem(String displayName, String filePath, PitestContext context) {
+        FileItem(String displayName, String filePath, String targetClassFullyQualifiedName) {
             this.displayName = displayName;
             this.filePath = filePath;
-            this.context = context;
+            this.targetClassFullyQualifiedName = targetClassFullyQualifiedName;
         }
 
         @Override
@@ -0,0 +1,235 @@
+package com.github.jaksonlin.testcraft.presentation.components.mutation;
+
+import com.github.jaksonlin.testcraft.domain.model.RunTelemetry;
+import com.github.jaksonlin.testcraft.infrastructure.messaging.events.RunTelemetryEvent;
+import com.github.jaksonlin.testcraft.infrastructure.messaging.events.TypedEventObserver;
+import com.github.jaksonlin.testcraft.infrastructure.services.business.RunTelemetryService;
+import com.github.jaksonlin.testcraft.infrastructure.services.system.I18nService;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.ui.JBColor;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Shows the telemetry of the recent pitest runs, newest first, with a column per command of the chain.
+ * <p>
+ * A stage time is marked when it is well above the median of the previous runs of the same class, the label on
+ * top names the largest such regression among the latest runs.
+ */
+public class RunTelemetryComponent {
+    // the commands of the pitest chains, in the order they run
+    private static final List<String> STAGES = Arrays.asList(
+            "PrepareEnvironmentCommand", "MethodToMutateCommand", "IncrementalAnalysisCommand",
+            "BuildPitestCommandCommand", "RunPitestCommand", "HandlePitestResultCommand", "StoreHistoryCommand");
+    private static final int TREND_WINDOW = 5;
+    private static final double REGRESSION_RATIO = 1.5;
+    // below this difference a slower stage is noise, not a regression
+    private static final long REGRESSION_MIN_DELTA_MILLIS = 500;
+    private static final int FIRST_STAGE_COLUMN = 3;
+
+    private final TypedEventObserver<RunTelemetryEvent> runTelemetryEventObserver = new TypedEventObserver<RunTelemetryEvent>(RunTelemetryEvent.class) {
+        @Override
+        public void onTypedEvent(RunTelemetryEvent event) {
+            ApplicationManager.getApplication().invokeLater(() -> refresh());
+        }
+    };
+
+    private final JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
+    private final JLabel summaryLabel = new JLabel();
+    private final JComboBox<String> classFilter = new JComboBox<>();
+    private final JButton clearButton = new JButton(I18nService.getInstance().message("clear.button"));
+    private final DefaultTableModel tableModel = new DefaultTableModel() {
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return false;
+        }
+    };
+    private final JBTable table = new JBTable(tableModel);
+    // per row of the table, the stage columns that regressed
+    private final List<Set<Integer>> regressedCells = new ArrayList<>();
+    private boolean updatingFilter;
+
+    public RunTelemetryComponent() {
+        initializePanel();
+        refresh();
+    }
+
+    private void initializePanel() {
+        I18nService i18n = I18nService.getInstance();
+        List<String> columns = new ArrayList<>(Arrays.asList(
+                i18n.message("telemetry.column.time"), i18n.message("telemetry.column.class"), i18n.message("telemetry.column.total")));
+        for (String stage : STAGES) {
+            columns.add(stage.replaceAll("Command$", ""));
+        }
+        columns.addAll(Arrays.asList(
+                i18n.message("telemetry.column.mutants"), i18n.message("telemetry.column.tests.per.mutant"),
+                i18n.message("telemetry.column.coverage"), i18n.message("telemetry.column.allocated")));
+        tableModel.setColumnIdentifiers(columns.toArray());
+        table.setDefaultRenderer(Object.class, new DefaultTableCellRenderer() {
+            @Override
+            public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+                Component component = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+                boolean regressed = row < regressedCells.size() && regressedCells.get(row).contains(column);
+                component.setForeground(regressed ? JBColor.RED : isSelected ? table.getSelectionForeground() : table.getForeground());
+                component.setFont(regressed ? component.getFont().deriveFont(Font.BOLD) : component.getFont().deriveFont(Font.PLAIN));
+                return component;
+            }
+        });
+
+        classFilter.addActionListener(e -> {
+            if (!updatingFilter) {
+                refresh();
+            }
+        });
+        clearButton.addActionListener(e -> RunTelemetryService.getInstance().clear());
+
+        JPanel controlPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controlPanel.add(clearButton);
+        controlPanel.add(classFilter);
+        JPanel topPanel = new JPanel(new BorderLayout());
+        topPanel.add(controlPanel, BorderLayout.NORTH);
+        topPanel.add(summaryLabel, BorderLayout.SOUTH);
+        mainPanel.add(topPanel, BorderLayout.NORTH);
+        mainPanel.add(new JBScrollPane(table), BorderLayout.CENTER);
+    }
+
+    private void refresh() {
+        List<RunTelemetry> records = RunTelemetryService.getInstance().getRecords();
+        String selectedClass = updateClassFilter(records);
+
+        // trends are per class, walk the runs oldest first and compare each to the ones before it
+        Map<String, List<RunTelemetry>> previousRuns = new HashMap<>();
+        List<Object[]> rows = new ArrayList<>();
+        List<Set<Integer>> regressions = new ArrayList<>();
+        String worstRegression = null;
+        double worstRatio = 0;
+        Map<String, String> latestRegressionPerClass = new HashMap<>();
+        Map<String, Double> latestRatioPerClass = new HashMap<>();
+        for (RunTelemetry record : records) {
+            String targetClass = String.valueOf(record.getTargetClassFullyQualifiedName());
+            List<RunTelemetry> previous = previousRuns.computeIfAbsent(targetClass, key -> new ArrayList<>());
+            Set<Integer> regressedColumns = new TreeSet<>();
+            latestRegressionPerClass.remove(targetClass);
+            latestRatioPerClass.remove(targetClass);
+            for (int i = 0; i < STAGES.size(); i++) {
+                String stage = STAGES.get(i);
+                long wallMillis = record.getWallMillis(stage);
+                long median = medianWallMillis(previous, stage);
+                if (wallMillis >= 0 && median >= 0 && wallMillis - median >= REGRESSION_MIN_DELTA_MILLIS
+                        && wallMillis > median * REGRESSION_RATIO) {
+                    regressedColumns.add(FIRST_STAGE_COLUMN + i);
+                    double ratio = (double) wallMillis / Math.max(1, median);
+                    if (ratio > latestRatioPerClass.getOrDefault(targetClass, 0.0)) {
+                        latestRatioPerClass.put(targetClass, ratio);
+                        latestRegressionPerClass.put(targetClass, I18nService.getInstance().message("telemetry.regression",
+                                stage.replaceAll("Command$", ""), targetClass, median, wallMillis));
+                    }
+                }
+            }
+            previous.add(record);
+            if (selectedClass == null || selectedClass.equals(targetClass)) {
+                rows.add(toRow(record));
+                regressions.add(regressedColumns);
+            }
+        }
+        for (Map.Entry<String, Double> entry : latestRatioPerClass.entrySet()) {
+            if ((selectedClass == null || selectedClass.equals(entry.getKey())) && entry.getValue() > worstRatio) {
+                worstRatio = entry.getValue();
+                worstRegression = latestRegressionPerClass.get(entry.getKey());
+            }
+        }
+
+        Collections.reverse(rows);
+        Collections.reverse(regressions);
+        regressedCells.clear();
+        regressedCells.addAll(regressions);
+        tableModel.setRowCount(0);
+        for (Object[] row : rows) {
+            tableModel.addRow(row);
+        }
+        if (records.isEmpty()) {
+            summaryLabel.setText(I18nService.getInstance().message("telemetry.empty"));
+        } else {
+            summaryLabel.setText(worstRegression != null ? worstRegression : I18nService.getInstance().message("telemetry.no.regression"));
+        }
+    }
+
+    private String updateClassFilter(List<RunTelemetry> records) {
+        Object selected = classFilter.getSelectedItem();
+        Set<String> classes = new TreeSet<>();
+        for (RunTelemetry record : records) {
+            classes.add(String.valueOf(record.getTargetClassFullyQualifiedName()));
+        }
+        String allClasses = I18nService.getInstance().message("telemetry.filter.all");
+        Set<String> items = new LinkedHashSet<>();
+        items.add(allClasses);
+        items.addAll(classes);
+        updatingFilter = true;
+        try {
+            classFilter.setModel(new DefaultComboBoxModel<>(items.toArray(new String[0])));
+            if (selected != null && items.contains(selected.toString())) {
+                classFilter.setSelectedItem(selected);
+            }
+        } finally {
+            updatingFilter = false;
+        }
+        Object current = classFilter.getSelectedItem();
+        return current == null || allClasses.equals(current) ? null : current.toString();
+    }
+
+    // median over the last runs that went through the stage, -1 when none did
+    private static long medianWallMillis(List<RunTelemetry> previous, String stage) {
+        List<Long> samples = new ArrayList<>();
+        for (int i = previous.size() - 1; i >= 0 && samples.size() < TREND_WINDOW; i--) {
+            long wallMillis = previous.get(i).getWallMillis(stage);
+            if (wallMillis >= 0) {
+                samples.add(wallMillis);
+            }
+        }
+        if (samples.isEmpty()) {
+            return -1;
+        }
+        Collections.sort(samples);
+        return samples.get(samples.size() / 2);
+    }
+
+    private static Object[] toRow(RunTelemetry record) {
+        List<Object> row = new ArrayList<>();
+        row.add(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(record.getTimestamp())));
+        row.add(record.getTargetClassFullyQualifiedName() + (record.isIncremental() ? " *" : ""));
+        row.add(record.getTotalWallMillis() + " ms");
+        long allocatedBytes = 0;
+        for (RunTelemetry.StageSample stage : record.getStages()) {
+            allocatedBytes += Math.max(0, stage.getAllocatedBytes());
+        }
+        for (String stage : STAGES) {
+            long wallMillis = record.getWallMillis(stage);
+            row.add(wallMillis >= 0 ? wallMillis + " ms" : "");
+        }
+        row.add(record.getMutationsGenerated() >= 0 ? String.valueOf(record.getMutationsGenerated()) : "");
+        row.add(record.getTestsPerMutation() >= 0 ? String.format("%.2f", record.getTestsPerMutation()) : "");
+        row.add(record.getCoverageMillis() >= 0 ? record.getCoverageMillis() / 1000 + " s" : "");
+        row.add(allocatedBytes / (1024 * 1024) + " MB");
+        return row.toArray();
+    }
+
+    public JPanel getPanel() {
+        return mainPanel;
+    }
+}
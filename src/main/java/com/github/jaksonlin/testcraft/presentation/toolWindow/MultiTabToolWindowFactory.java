@@ -4,6 +4,7 @@ import com.github.jaksonlin.testcraft.infrastructure.services.business.RunHistor
 import com.github.jaksonlin.testcraft.infrastructure.services.system.I18nService;
 import com.github.jaksonlin.testcraft.presentation.components.llmchat.LLMSuggestionUIComponent;
 import com.github.jaksonlin.testcraft.presentation.components.mutation.MutationToolWindowUIComponent;
+import com.github.jaksonlin.testcraft.presentation.components.mutation.RunTelemetryComponent;
 import com.github.jaksonlin.testcraft.presentation.components.system.ToolWindowMainComponent;
 import com.github.jaksonlin.testcraft.presentation.components.testcase.InvalidTestCasesResultComponent;
 import com.intellij.openapi.project.Project;
@@ -35,6 +36,10 @@ public class MultiTabToolWindowFactory implements ToolWindowFactory {
         Content invalidTestCasesContent = getInvalidTestCasesContent();
         contentManager.addContent(invalidTestCasesContent);
 
+        // Create run telemetry tab
+        Content runTelemetryContent = getRunTelemetryContent();
+        contentManager.addContent(runTelemetryContent);
+
     }
 
     private Content getLLMSuggestionContent() {
@@ -64,4 +69,11 @@ public class MultiTabToolWindowFactory implements ToolWindowFactory {
         Content content = new ContentImpl(invalidTestCasesResultPanel, I18nService.getInstance().message("toolwindow.invalid.testcases.tab.name"), false); // Directly create ContentImpl
         return content;
     }
+
+    private Content getRunTelemetryContent() {
+        RunTelemetryComponent runTelemetryComponent = new RunTelemetryComponent();
+        JPanel runTelemetryPanel = runTelemetryComponent.getPanel();
+        Content content = new ContentImpl(runTelemetryPanel, I18nService.getInstance().message("toolwindow.run.telemetry.tab.name"), false); // Directly create ContentImpl
+        return content;
+    }
 } 
\ No newline at end of file
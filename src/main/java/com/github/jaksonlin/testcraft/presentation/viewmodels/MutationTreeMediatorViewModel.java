@@ -4,6 +4,7 @@ import com.github.jaksonlin.testcraft.domain.context.PitestContext;
 import com.github.jaksonlin.testcraft.infrastructure.messaging.mediators.IMutationMediator;
 import com.github.jaksonlin.testcraft.infrastructure.services.business.RunHistoryManagerService;
 import com.github.jaksonlin.testcraft.util.Mutation;
+import com.github.jaksonlin.testcraft.util.MutationResult;
 import com.github.jaksonlin.testcraft.util.Pair;
 import com.intellij.icons.AllIcons;
 import com.intellij.openapi.application.ApplicationManager;
@@ -41,6 +42,8 @@ public class MutationTreeMediatorViewModel {
     private final IMutationMediator mediator;
     private final RunHistoryManagerService runHistoryManager = RunHistoryManagerService.getInstance();
     protected final HashMap<String, Integer> annotatedNodes = new HashMap<>();
+    // gutter markers we added per file and line, so that a line is re-rendered instead of stacked
+    private final Map<String, Map<Integer, RangeHighlighter>> lineHighlighters = new HashMap<>();
 
     private final TypedEventObserver<MutationEvent> mutationObserver = new TypedEventObserver<MutationEvent>(MutationEvent.class) {
         @Override
@@ -48,6 +51,17 @@ public class MutationTreeMediatorViewModel {
             if (event.getEventType().equals(MutationEvent.MUTATION_RESULT)) {
                 Pair<String, Map<Integer, Pair<String, Boolean>>> payload = (Pair<String, Map<Integer, Pair<String, Boolean>>>) event.getPayload();
                 SwingUtilities.invokeLater(() -> updateMutationResult(payload.getFirst(), payload.getSecond()));
+            } else if (event.getEventType().equals(MutationEvent.MUTATION_PROGRESS_START)) {
+                startLiveMutationResult((String) event.getPayload());
+            } else if (event.getEventType().equals(MutationEvent.MUTATION_PROGRESS)) {
+                // the mediator keeps only the rendered lines, the batch is dropped once it is rendered
+                Pair<String, List<Mutation>> payload = (Pair<String, List<Mutation>>) event.getPayload();
+                mediator.processMutationProgress(payload.getFirst(), payload.getSecond());
+            } else if (event.getEventType().equals(MutationEvent.MUTATION_PROGRESS_END)) {
+                mediator.clearMutationProgress((String) event.getPayload());
+            } else if (event.getEventType().equals(MutationEvent.MUTATION_PROGRESS_RESULT)) {
+                Pair<String, Map<Integer, Pair<String, Boolean>>> payload = (Pair<String, Map<Integer, Pair<String, Boolean>>>) event.getPayload();
+                SwingUtilities.invokeLater(() -> updateLiveMutationResult(payload.getFirst(), payload.getSecond()));
             }
         }
     };
@@ -67,6 +81,7 @@ public class MutationTreeMediatorViewModel {
                 if (annotatedNodes.containsKey(file.getPath())) {
                     annotatedNodes.remove(file.getPath());
                 }
+                lineHighlighters.remove(file.getPath());
             }
         });
     }
@@ -80,12 +95,39 @@ public class MutationTreeMediatorViewModel {
                 FileEditor fileEditor = fileEditorManager.getSelectedEditor(virtualFile);
                 if (fileEditor instanceof TextEditor) {
                     Editor editor = ((TextEditor) fileEditor).getEditor();
-                    addMutationMarkers(editor, mutationTestResult);
+                    addMutationMarkers(mutationClassFilePath, editor, mutationTestResult);
                 }
             }, ModalityState.defaultModalityState());
         }
     }
 
+    private void startLiveMutationResult(String mutationClassFilePath) {
+        mediator.clearMutationProgress(mutationClassFilePath);
+        SwingUtilities.invokeLater(() -> {
+            // markers of the previous run are stale now
+            Map<Integer, RangeHighlighter> highlighters = lineHighlighters.remove(mutationClassFilePath);
+            if (highlighters != null) {
+                highlighters.values().forEach(RangeHighlighter::dispose);
+            }
+            annotatedNodes.remove(mutationClassFilePath);
+        });
+    }
+
+    // only annotate the class if the user has it open, a running analysis should not steal the focus
+    private void updateLiveMutationResult(String mutationClassFilePath, Map<Integer, Pair<String, Boolean>> mutationTestResult) {
+        VirtualFile virtualFile = LocalFileSystem.getInstance().findFileByPath(mutationClassFilePath);
+        if (virtualFile == null) {
+            return;
+        }
+        FileEditorManager fileEditorManager = FileEditorManager.getInstance(project);
+        for (FileEditor fileEditor : fileEditorManager.getAllEditors(virtualFile)) {
+            if (fileEditor instanceof TextEditor) {
+                addMutationMarkers(mutationClassFilePath, ((TextEditor) fileEditor).getEditor(), mutationTestResult);
+                return;
+            }
+        }
+    }
+
     public void handleOpenSelectedNode(DefaultMutableTreeNode selectedNode) {
         TreePath treePath = new TreePath(selectedNode.getPath());
         Object[] path = treePath.getPath();
@@ -141,8 +183,13 @@ public class MutationTreeMediatorViewModel {
     }
 
     private void openClassFileAndAnnotate(PitestContext context) {
-        List<Mutation> mutations = context.getMutationResults();
-        mediator.processMutationResult(context.getTargetClassFilePath(), mutations);
+        // the mutation results may have to be read from the run history store, keep that off the EDT
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            List<MutationResult> mutations = context.getMutationResults();
+            if (mutations != null) {
+                mediator.processMutationResult(context.getTargetClassFilePath(), mutations);
+            }
+        });
     }
 
     @Nullable
@@ -156,8 +203,9 @@ public class MutationTreeMediatorViewModel {
         return virtualFile;
     }
 
-    private void addMutationMarkers(Editor editor, Map<Integer, Pair<String, Boolean>> mutationTestResult) {
+    private void addMutationMarkers(String mutationClassFilePath, Editor editor, Map<Integer, Pair<String, Boolean>> mutationTestResult) {
         MarkupModel markupModel = editor.getMarkupModel();
+        Map<Integer, RangeHighlighter> highlighters = lineHighlighters.computeIfAbsent(mutationClassFilePath, k -> new HashMap<>());
 
         for (Map.Entry<Integer, Pair<String, Boolean>> entry : mutationTestResult.entrySet()) {
             Integer lineNumber = entry.getKey();
@@ -173,7 +221,12 @@ public class MutationTreeMediatorViewModel {
                 icon = AllIcons.General.Error;
             }
 
+            RangeHighlighter previous = highlighters.remove(lineNumber);
+            if (previous != null) {
+                previous.dispose();
+            }
             RangeHighlighter highlighter = markupModel.addLineHighlighter(lineNumber - 1, 0, null);
+            highlighters.put(lineNumber, highlighter);
 
             final Icon finalIcon = icon; // Make effectively final for lambda
             highlighter.setGutterIconRenderer(new GutterIconRenderer() {
@@ -0,0 +1,134 @@
+package com.github.jaksonlin.testcraft.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Finds any of a set of literal patterns in a text in a single pass (Aho-Corasick), used for the invalid assertions
+ * configured by the user.
+ * <p>
+ * Immutable once compiled, one instance can be shared by all threads of a scan.
+ */
+public final class AssertionPatternMatcher {
+    private final List<Node> nodes = new ArrayList<>();
+    private final int patternCount;
+
+    public static final class Match {
+        private final String pattern;
+        private final int offset;
+
+        private Match(String pattern, int offset) {
+            this.pattern = pattern;
+            this.offset = offset;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        // offset of the first character of the match in the text
+        public int getOffset() {
+            return offset;
+        }
+    }
+
+    private static final class Node {
+        final Map<Character, Integer> next = new HashMap<>();
+        int fail;
+        // the longest pattern ending here, or reachable through the fail links
+        String output;
+    }
+
+    private AssertionPatternMatcher(Collection<String> patterns) {
+        nodes.add(new Node());
+        int count = 0;
+        for (String pattern : patterns) {
+            // an empty pattern would match every text
+            if (pattern == null || pattern.isEmpty()) {
+                continue;
+            }
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                Integer next = nodes.get(state).next.get(pattern.charAt(i));
+                if (next == null) {
+                    next = nodes.size();
+                    nodes.add(new Node());
+                    nodes.get(state).next.put(pattern.charAt(i), next);
+                }
+                state = next;
+            }
+            if (nodes.get(state).output == null) {
+                nodes.get(state).output = pattern;
+                count++;
+            }
+        }
+        patternCount = count;
+        buildFailLinks();
+    }
+
+    public static AssertionPatternMatcher compile(Collection<String> patterns) {
+        return new AssertionPatternMatcher(patterns);
+    }
+
+    public boolean isEmpty() {
+        return patternCount == 0;
+    }
+
+    /**
+     * @return the match that ends first in the text, the longest pattern when several end at the same place, or null
+     */
+    public Match findFirst(CharSequence text) {
+        if (isEmpty()) {
+            return null;
+        }
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, text.charAt(i));
+            String output = nodes.get(state).output;
+            if (output != null) {
+                return new Match(output, i - output.length() + 1);
+            }
+        }
+        return null;
+    }
+
+    private int step(int state, char c) {
+        while (true) {
+            Integer next = nodes.get(state).next.get(c);
+            if (next != null) {
+                return next;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = nodes.get(state).fail;
+        }
+    }
+
+    // breadth first, so the fail link of a node is always computed before its children need it
+    private void buildFailLinks() {
+        Queue<Integer> queue = new ArrayDeque<>(nodes.get(0).next.values());
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (Map.Entry<Character, Integer> edge : nodes.get(state).next.entrySet()) {
+                int child = edge.getValue();
+                int fail = nodes.get(state).fail;
+                Integer failNext = nodes.get(fail).next.get(edge.getKey());
+                while (failNext == null && fail != 0) {
+                    fail = nodes.get(fail).fail;
+                    failNext = nodes.get(fail).next.get(edge.getKey());
+                }
+                nodes.get(child).fail = failNext != null ? failNext : 0;
+                if (nodes.get(child).output == null) {
+                    nodes.get(child).output = nodes.get(nodes.get(child).fail).output;
+                }
+                queue.add(child);
+            }
+        }
+    }
+}
@@ -5,11 +5,15 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 import java.util.stream.Stream;
 
 public class FileUtils {
+    private static final String SRC_MAIN_JAVA = "src" + File.separator + "main" + File.separator + "java";
 
     public static TargetClassInfo findTargetClassFile(List<String> sourceRoots, String targetClass) {
         for (String sourceRoot : sourceRoots) {
@@ -33,25 +37,68 @@ public class FileUtils {
                 targetClass + ".java";
 
         try (Stream<Path> pathStream = Files.walk(directory)) {
-            List<Path> files = pathStream.filter(Files::isRegularFile).collect(Collectors.toList());
-            for (Path file : files) {
-                if (file.toString().endsWith(targetFileName)) {
-                    Path directoryParentPath = file.getParent();
-                    String parentPathString = directoryParentPath.toString();
-                    String separator = File.separator;
-                    String srcMainJava = "src" + separator + "main" + separator + "java";
-                    int indexToSrcMainJava = parentPathString.indexOf(srcMainJava);
-                    if (indexToSrcMainJava != -1) {
-                        String sourceRootPath = parentPathString.substring(0, indexToSrcMainJava);
+            // the walk is lazy, stop at the first match instead of listing the whole tree
+            return pathStream
+                    .filter(file -> file.toString().endsWith(targetFileName) && Files.isRegularFile(file))
+                    .filter(file -> file.getParent().toString().contains(SRC_MAIN_JAVA))
+                    .findFirst()
+                    .map(file -> {
+                        String parentPathString = file.getParent().toString();
+                        String sourceRootPath = parentPathString.substring(0, parentPathString.indexOf(SRC_MAIN_JAVA));
                         return new TargetClassInfo(file, Paths.get(sourceRootPath));
-                    }
-                }
-            }
+                    })
+                    .orElse(null);
         } catch (IOException e) {
             // Handle exception appropriately, maybe log it
             e.printStackTrace();
         }
         return null;
     }
+
+    /**
+     * Prefix search over the classes under src/main/java, for when the class indexes of the IDE are not ready.
+     * A prefix with a dot matches fully qualified names, any other prefix matches simple names.
+     * @return fully qualified names of the matching classes, at most limit
+     */
+    public static List<String> searchClasses(List<String> sourceRoots, String prefix, int limit) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String sourceRoot : sourceRoots) {
+            Path directory = Paths.get(sourceRoot);
+            if (result.size() >= limit || !Files.isDirectory(directory)) {
+                continue;
+            }
+            try (Stream<Path> pathStream = Files.walk(directory)) {
+                Iterator<String> classNames = pathStream
+                        .filter(file -> file.toString().endsWith(".java") && Files.isRegularFile(file))
+                        .map(FileUtils::qualifiedNameOf)
+                        .filter(className -> className != null && matchesPrefix(className, prefix))
+                        .iterator();
+                while (classNames.hasNext() && result.size() < limit) {
+                    result.add(classNames.next());
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    // .../src/main/java/com/foo/Bar.java -> com.foo.Bar, null for files outside src/main/java
+    private static String qualifiedNameOf(Path file) {
+        String path = file.toString();
+        int indexToSrcMainJava = path.indexOf(SRC_MAIN_JAVA + File.separator);
+        if (indexToSrcMainJava == -1) {
+            return null;
+        }
+        String relativePath = path.substring(indexToSrcMainJava + SRC_MAIN_JAVA.length() + 1, path.length() - ".java".length());
+        return relativePath.replace(File.separatorChar, '.');
+    }
+
+    private static boolean matchesPrefix(String qualifiedName, String prefix) {
+        if (prefix.contains(".")) {
+            return qualifiedName.startsWith(prefix);
+        }
+        return qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1).startsWith(prefix);
+    }
 }
 
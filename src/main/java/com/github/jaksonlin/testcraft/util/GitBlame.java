@@ -0,0 +1,164 @@
+package com.github.jaksonlin.testcraft.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The commit of every line of a file, parsed from one {@code git blame --porcelain} of the whole file, so that the
+ * authors of any range of lines are answered without running git again.
+ * <p>
+ * Only depends on the JDK, immutable once parsed.
+ */
+public final class GitBlame {
+    // <sha> <original line> <final line> [<lines in group>]
+    private static final Pattern LINE_HEADER = Pattern.compile("^([0-9a-f]{40}) \\d+ (\\d+)(?: \\d+)?$");
+    private static final String NOT_COMMITTED_AUTHOR = "Not Committed Yet";
+    private static final String NOT_COMMITTED_EMAIL = "not.committed.yet";
+    private static final String NOT_COMMITTED_HASH = "0000000000000000000000000000000000000000";
+
+    // index 0 is line 1
+    private final List<Commit> lines;
+    // the commit of every line of a file git does not track, null otherwise
+    private final Commit everyLine;
+
+    public static final class Commit {
+        private final String hash;
+        private String author;
+        private String email;
+        private Long timestamp;
+
+        private Commit(String hash) {
+            this.hash = hash;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public String getAuthor() {
+            return author;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        // author time, in seconds
+        public Long getTimestamp() {
+            return timestamp;
+        }
+
+        // the line changed in the working copy and has no commit yet
+        public boolean isNotCommitted() {
+            return NOT_COMMITTED_AUTHOR.equals(author) || NOT_COMMITTED_EMAIL.equals(email);
+        }
+    }
+
+    private GitBlame(List<Commit> lines, Commit everyLine) {
+        this.lines = lines;
+        this.everyLine = everyLine;
+    }
+
+    /**
+     * The blame of a file git does not track yet, every line of it is not committed.
+     */
+    public static GitBlame notCommitted() {
+        Commit commit = new Commit(NOT_COMMITTED_HASH);
+        commit.author = NOT_COMMITTED_AUTHOR;
+        commit.email = NOT_COMMITTED_EMAIL;
+        commit.timestamp = System.currentTimeMillis() / 1000;
+        return new GitBlame(Collections.emptyList(), commit);
+    }
+
+    /**
+     * @param output the lines of {@code git blame --porcelain <file>}
+     */
+    public static GitBlame parse(List<String> output) {
+        Map<String, Commit> commits = new HashMap<>();
+        List<Commit> lines = new ArrayList<>();
+        Commit current = null;
+        int finalLine = 0;
+        boolean expectHeader = true;
+        for (String line : output) {
+            if (line.startsWith("\t")) {
+                // the content of the line closes its group of headers
+                if (current != null && finalLine > 0) {
+                    while (lines.size() < finalLine) {
+                        lines.add(null);
+                    }
+                    lines.set(finalLine - 1, current);
+                }
+                expectHeader = true;
+                continue;
+            }
+            if (expectHeader) {
+                Matcher matcher = LINE_HEADER.matcher(line);
+                if (matcher.matches()) {
+                    current = commits.computeIfAbsent(matcher.group(1), Commit::new);
+                    finalLine = Integer.parseInt(matcher.group(2));
+                    expectHeader = false;
+                }
+                continue;
+            }
+            if (current == null) {
+                continue;
+            }
+            // the details of a commit are only given the first time it shows up
+            if (line.startsWith("author ")) {
+                current.author = line.substring("author ".length()).trim();
+            } else if (line.startsWith("author-mail ")) {
+                current.email = line.substring("author-mail ".length()).trim().replaceAll("^<|>$", "");
+            } else if (line.startsWith("author-time ")) {
+                try {
+                    current.timestamp = Long.parseLong(line.substring("author-time ".length()).trim());
+                } catch (NumberFormatException e) {
+                    // keep the commit without a time
+                }
+            }
+        }
+        return new GitBlame(lines, null);
+    }
+
+    // 0 for a file git does not track
+    public int getLineCount() {
+        return lines.size();
+    }
+
+    /**
+     * @param line 1-based
+     * @return the commit that last changed the line, or null when the line is not in the blame
+     */
+    public Commit getCommit(int line) {
+        if (everyLine != null) {
+            return line >= 1 ? everyLine : null;
+        }
+        return line >= 1 && line <= lines.size() ? lines.get(line - 1) : null;
+    }
+
+    /**
+     * @param startLine 1-based, inclusive
+     * @param endLine 1-based, inclusive
+     * @return the newest commit among the lines, the first one met when several have the same time, or null
+     */
+    public Commit getLatestCommit(int startLine, int endLine) {
+        if (everyLine != null) {
+            return endLine >= Math.max(startLine, 1) ? everyLine : null;
+        }
+        Commit latest = null;
+        for (int line = Math.max(startLine, 1); line <= Math.min(endLine, lines.size()); line++) {
+            Commit commit = lines.get(line - 1);
+            if (commit == null || commit.timestamp == null) {
+                continue;
+            }
+            if (latest == null || commit.timestamp > latest.timestamp) {
+                latest = commit;
+            }
+        }
+        return latest;
+    }
+}
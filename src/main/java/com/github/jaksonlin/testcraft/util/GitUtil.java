@@ -1,59 +1,33 @@
 package com.github.jaksonlin.testcraft.util;
 
-import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
-import com.intellij.openapi.editor.Document;
-import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiMethod;
 import git4idea.commands.Git;
+import git4idea.commands.GitCommandResult;
 import git4idea.commands.GitCommand;
 import git4idea.commands.GitLineHandler;
 import git4idea.config.GitConfigUtil;
 import git4idea.repo.GitRepository;
 import git4idea.repo.GitRepositoryManager;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.TimeoutException;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.Executors;
-
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs git commands on the calling thread, without caching. Use
+ * {@link com.github.jaksonlin.testcraft.infrastructure.services.business.GitMetadataService} from the UI and for
+ * anything asked repeatedly.
+ */
 public class GitUtil {
     private static final Logger logger = Logger.getInstance(GitUtil.class);
-    private static final ThreadPoolExecutor gitThreadPool = new ThreadPoolExecutor(
-        4, // core pool size
-        8, // max pool size
-        10L, // reduced keep alive time to release threads faster
-        TimeUnit.SECONDS,
-        new LinkedBlockingQueue<>(50),
-        new ThreadFactory() {
-            private final AtomicInteger counter = new AtomicInteger(1);
-            @Override
-            public Thread newThread(Runnable r) {
-                Thread thread = new Thread(r, "GitCommandThread-" + counter.getAndIncrement());
-                thread.setDaemon(true);
-                return thread;
-            }
-        },
-        new ThreadPoolExecutor.AbortPolicy()
-    ) {
-        @Override
-        protected void afterExecute(Runnable r, Throwable t) {
-            super.afterExecute(r, t);
-            purge();
-            allowCoreThreadTimeOut(true);
-        }
-    };
-    private static final long GIT_COMMAND_TIMEOUT = 30; // seconds
+    private static final Pattern HUNK_HEADER = Pattern.compile("^@@ -(\\d+)(?:,(\\d+))? \\+(\\d+)(?:,(\\d+))? @@");
 
     public static GitRepositoryManager getRepositoryManager(Project project) {
         return GitRepositoryManager.getInstance(project);
@@ -69,68 +43,12 @@ public class GitUtil {
         return GitRepositoryManager.getInstance(project).getRepositoryForFile(file);
     }
 
-    private static CompletableFuture<List<String>> runGitCommandAsync(GitLineHandler handler) {
-        Git git = Git.getInstance();
-        boolean inDispatchThread = ApplicationManager.getApplication().isDispatchThread();
-        
-        Callable<List<String>> runCommandCallable = () -> {
-            try {
-                logger.info("Starting git command execution in thread: " + Thread.currentThread().getName());
-                List<String> result = git.runCommand(handler).getOutput();
-                logger.info("Completed git command execution in thread: " + Thread.currentThread().getName());
-                return result;
-            } catch (Exception e) {
-                logger.error("Error executing git command in thread " + Thread.currentThread().getName(), e);
-                throw e;
-            } finally {
-                gitThreadPool.purge();
-            }
-        };
-
-        CompletableFuture<List<String>> future = new CompletableFuture<>();
-        
-        try {
-            logger.info("Submitting git command to thread pool. Current active threads: " +
-                gitThreadPool.getActiveCount() + ", Queue size: " + gitThreadPool.getQueue().size());
-            
-            gitThreadPool.submit(() -> {
-                try {
-                    List<String> result = runCommandCallable.call();
-                    future.complete(result);
-                } catch (Exception e) {
-                    future.completeExceptionally(e);
-                }
-            });
-            
-            // Set a timeout
-            long timeout = inDispatchThread ? 5 : GIT_COMMAND_TIMEOUT;
-            ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-            scheduler.schedule(() -> {
-                if (!future.isDone()) {
-                    future.completeExceptionally(new TimeoutException("Git command timed out after " + timeout + " seconds"));
-                }
-                scheduler.shutdown();
-            }, timeout, TimeUnit.SECONDS);
-            
-        } catch (Exception e) {
-            future.completeExceptionally(e);
-        }
-        
-        return future;
-    }
-
     private static List<String> runGitCommand(GitLineHandler handler) {
-        try {
-            return runGitCommandAsync(handler).get();
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Failed to execute git command", e);
-            throw new RuntimeException("Git command execution failed: " + e.getMessage(), e);
-        }
+        return Git.getInstance().runCommand(handler).getOutput();
     }
 
-    public static GitCommitInfo getLastCommitInfo(Project project, PsiFile file) {
-        VirtualFile virtualFile = file.getVirtualFile();
-        GitRepository repository = virtualFile != null ? getRepositoryForFile(project, virtualFile) : null;
+    public static GitCommitInfo getLastCommitInfo(Project project, VirtualFile virtualFile) {
+        GitRepository repository = getRepositoryForFile(project, virtualFile);
         if (repository == null) {
             return null;
         }
@@ -168,234 +86,165 @@ public class GitUtil {
         return null;
     }
 
-    public static GitUserInfo getFirstCreatorInfo(Project project, PsiMethod psiMethod) {
-        PsiFile containingFile = psiMethod.getContainingFile();
-        VirtualFile file = containingFile != null ? containingFile.getVirtualFile() : null;
-        if (file == null) {
-            return null;
-        }
+    /**
+     * Blames the whole file. Given contents, e.g. a document with unsaved changes, git blames that text instead of the
+     * file on disk, so the lines are those of the text and the ones changed in it come out as not committed yet.
+     * @param contents the text to blame, or null for the file on disk
+     * @return the blame, or null if the file is not under git
+     * @throws IllegalStateException if git failed
+     */
+    public static GitBlame blame(Project project, VirtualFile file, @Nullable CharSequence contents) {
         GitRepository repository = getRepositoryForFile(project, file);
         if (repository == null) {
             return null;
         }
-
-        Document document = FileDocumentManager.getInstance().getDocument(file);
-        if (document == null) {
-            return null;
-        }
-        int startOffset = psiMethod.getTextRange().getStartOffset();
-        int endOffset = psiMethod.getTextRange().getEndOffset();
-        int startLine = document.getLineNumber(startOffset) + 1;
-        int endLine = document.getLineNumber(endOffset) + 1;
-
         GitLineHandler handler = new GitLineHandler(project, repository.getRoot(), GitCommand.BLAME);
-        
         List<String> gitCommandArgs = new ArrayList<>();
-        gitCommandArgs.add("-L");
-        gitCommandArgs.add(startLine + "," + endLine);
         gitCommandArgs.add("--porcelain");
+        if (contents != null) {
+            gitCommandArgs.add("--contents");
+            gitCommandArgs.add("-");
+            // documents always use \n, the file may not
+            String separator = file.getDetectedLineSeparator();
+            String text = separator != null ? StringUtil.convertLineSeparators(contents.toString(), separator) : contents.toString();
+            byte[] bytes = text.getBytes(file.getCharset());
+            handler.setInputProcessor(input -> {
+                try {
+                    input.write(bytes);
+                } finally {
+                    input.close();
+                }
+            });
+        }
+        gitCommandArgs.add("--");
         gitCommandArgs.add(file.getPath());
         handler.addParameters(gitCommandArgs);
-        StringBuilder command = new StringBuilder();
-        for (String arg : gitCommandArgs) {
-            command.append(arg).append(" ");
-        }
-        logger.info("Running git command: " + command.toString());
+        logger.info("Running git command: blame " + String.join(" ", gitCommandArgs));
 
-
-            List<String> output = runGitCommand(handler);
-
-            String authorName = null;
-            String email = null;
-            Long timestamp = null;
-
-            for (String line : output) {
-                if (line.startsWith("author ")) {
-                    authorName = line.substring("author ".length()).trim();
-                } else if (line.startsWith("author-mail ")) {
-                    email = line.substring("author-mail ".length()).trim().replaceAll("^<|>$", "");
-                } else if (line.startsWith("author-time ")) {
-                    try {
-                        timestamp = Long.parseLong(line.substring("author-time ".length()).trim());
-                        if (authorName != null && email != null) {
-                            break;
-                        }
-                    } catch (NumberFormatException e) {
-                        e.printStackTrace();
-                    }
-                }
-            }
-
-            if ("Not Committed Yet".equals(authorName) || "not.committed.yet".equals(email)) {
-                GitUserInfo gitUserInfo = getGitUserInfo(project);
-                return new GitUserInfo(
-                        gitUserInfo.getName(),
-                        gitUserInfo.getEmail(),
-                        timestamp != null ? timestamp : System.currentTimeMillis()
-                );
-            }
-
-            if (authorName != null && email != null) {
-                return new GitUserInfo(
-                        authorName,
-                        email,
-                        timestamp != null ? timestamp : System.currentTimeMillis()
-                );
-            }
-
-        return null;
+        GitCommandResult result = Git.getInstance().runCommand(handler);
+        if (result.success()) {
+            return GitBlame.parse(result.getOutput());
+        }
+        String error = result.getErrorOutputAsJoinedString();
+        // a file git does not track yet is all a change of the current user
+        if (error.contains("no such path")) {
+            return GitBlame.notCommitted();
+        }
+        throw new IllegalStateException("Cannot blame " + file.getPath() + ": " + error);
     }
 
-    public static GitUserInfo getLastModifyInfo(Project project, PsiMethod psiMethod) {
+    /**
+     * Reads user.name and user.email from the git config of the first repository of the project.
+     */
+    public static GitUserInfo readGitUserInfo(Project project) {
+        List<GitRepository> repositories = getRepositoryManager(project).getRepositories();
+        if (repositories.isEmpty()) {
+            return new GitUserInfo("Unknown", "unknown@email.com");
+        }
+        VirtualFile root = repositories.get(0).getRoot();
+        String name = null;
+        String email = null;
         try {
-            PsiFile containingFile = psiMethod.getContainingFile();
-            VirtualFile file = containingFile != null ? containingFile.getVirtualFile() : null;
-            if (file == null) {
-                logger.error("Cannot get virtual file for method: " + psiMethod.getName());
-                return getGitUserInfo(project);
-            }
-            
-            GitRepository repository = getRepositoryForFile(project, file);
-            if (repository == null) {
-                logger.error("Cannot find git repository for file: " + file.getPath());
-                return getGitUserInfo(project);
-            }
-
-            Document document = FileDocumentManager.getInstance().getDocument(file);
-            if (document == null) {
-                logger.error("Cannot get document for file: " + file.getPath());
-                return getGitUserInfo(project);
-            }
-            
-            int startOffset = psiMethod.getTextRange().getStartOffset();
-            int endOffset = psiMethod.getTextRange().getEndOffset();
-            int startLine = document.getLineNumber(startOffset) + 1;
-            int endLine = document.getLineNumber(endOffset) + 1;
-
-            GitLineHandler handler = new GitLineHandler(project, repository.getRoot(), GitCommand.BLAME);
+            name = GitConfigUtil.getValue(project, root, GitConfigUtil.USER_NAME);
+        } catch (Exception e) {
+            logger.error("Error getting git user name", e);
+        }
+        try {
+            email = GitConfigUtil.getValue(project, root, GitConfigUtil.USER_EMAIL);
+        } catch (Exception e) {
+            logger.error("Error getting git user email", e);
+        }
+        return new GitUserInfo(name != null ? name : "Unknown", email != null ? email : "unknown@email.com");
+    }
 
-            List<String> gitCommandArgs = new ArrayList<>();
-            gitCommandArgs.add("-L");
-            gitCommandArgs.add(startLine + "," + endLine);
-            gitCommandArgs.add("--porcelain");
-            gitCommandArgs.add(file.getPath());
-            handler.addParameters(gitCommandArgs);
-            StringBuilder command = new StringBuilder();
-            for (String arg : gitCommandArgs) {
-                command.append(arg).append(" ");
-            }
-            logger.info("Running git command: " + command.toString());
+    /**
+     * Gets the commit the repository of the file is checked out at.
+     * @return the revision hash, or null if the file is not under git
+     */
+    public static String getHeadRevision(Project project, VirtualFile file) {
+        GitRepository repository = getRepositoryForFile(project, file);
+        return repository != null ? repository.getCurrentRevision() : null;
+    }
 
-            List<String> output = runGitCommand(handler);
-            if (output == null || output.isEmpty()) {
-                logger.info("No output from git blame command");
-                return getGitUserInfo(project);
-            }
+    /**
+     * A hunk of {@code git diff -U0}: oldCount lines from oldStart were replaced by newCount lines from newStart.
+     */
+    public static final class DiffHunk {
+        private final int oldStart;
+        private final int oldCount;
+        private final int newStart;
+        private final int newCount;
+
+        public DiffHunk(int oldStart, int oldCount, int newStart, int newCount) {
+            this.oldStart = oldStart;
+            this.oldCount = oldCount;
+            this.newStart = newStart;
+            this.newCount = newCount;
+        }
 
-            BlameInfo latestCommit = null;
-            BlameInfo currentCommit = null;
+        // first changed line of the working copy, 1-based; a deletion gives the lines around the place of the removed content
+        public int getStartLine() {
+            return newCount == 0 ? Math.max(newStart, 1) : newStart;
+        }
 
-            for (String line : output) {
-                if (line.startsWith("author ")) {
-                    String authorName = line.substring("author ".length()).trim();
-                    if ("Not Committed Yet".equals(authorName)) {
-                        GitUserInfo gitUserInfo = getGitUserInfo(project);
-                        currentCommit = (currentCommit == null ? new BlameInfo() : currentCommit).toBuilder()
-                                .author(gitUserInfo.getName())
-                                .email(gitUserInfo.getEmail())
-                                .build();
-                    } else {
-                        currentCommit = (currentCommit == null ? new BlameInfo() : currentCommit).toBuilder()
-                                .author(authorName)
-                                .build();
-                    }
-                } else if (line.startsWith("author-mail ")) {
-                    String email = line.substring("author-mail ".length()).trim().replaceAll("^<|>$", "");
-                    if ("not.committed.yet".equals(email)) {
-                        GitUserInfo gitUserInfo = getGitUserInfo(project);
-                        currentCommit = (currentCommit == null ? new BlameInfo() : currentCommit).toBuilder()
-                                .author(gitUserInfo.getName())
-                                .email(gitUserInfo.getEmail())
-                                .build();
-                    } else {
-                        currentCommit = (currentCommit == null ? new BlameInfo() : currentCommit).toBuilder()
-                                .email(email)
-                                .build();
-                    }
-                } else if (line.startsWith("author-time ")) {
-                    try {
-                        long timestamp = Long.parseLong(line.substring("author-time ".length()).trim());
-                        currentCommit = (currentCommit == null ? new BlameInfo() : currentCommit).toBuilder()
-                                .timestamp(timestamp)
-                                .build();
-                        if (latestCommit == null || currentCommit.getTimestamp() > latestCommit.getTimestamp()) {
-                            latestCommit = currentCommit;
-                        }
-                    } catch (NumberFormatException e) {
-                        logger.error("Error parsing timestamp from git blame output", e);
-                    }
-                    currentCommit = null;
-                }
-            }
+        // last changed line of the working copy, 1-based, inclusive
+        public int getEndLine() {
+            return newCount == 0 ? newStart + 1 : newStart + newCount - 1;
+        }
 
-            if (latestCommit != null) {
-                return new GitUserInfo(
-                        latestCommit.getAuthor(),
-                        latestCommit.getEmail() != null ? latestCommit.getEmail() : "unknown@email.com",
-                        latestCommit.getTimestamp() != null ? latestCommit.getTimestamp() : System.currentTimeMillis()
-                );
-            }
+        // the old line was replaced or removed by the hunk
+        public boolean replaces(int oldLine) {
+            return oldLine >= oldStart && oldLine < oldStart + oldCount;
+        }
 
-            // If we couldn't get the last modify info, return current user info
-            logger.info("Could not determine last modifier, using current user info");
-            return getGitUserInfo(project);
-            
-        } catch (Exception e) {
-            logger.error("Error getting last modify info", e);
-            return getGitUserInfo(project);
+        // lines of the old version after the hunk moved by the lines it added or removed
+        public int getLineShift(int oldLine) {
+            int firstOldLineAfter = oldCount == 0 ? oldStart + 1 : oldStart + oldCount;
+            return oldLine >= firstOldLineAfter ? newCount - oldCount : 0;
         }
     }
 
-    public static CompletableFuture<GitUserInfo> getGitUserInfoAsync(Project project) {
-        GitRepositoryManager repositoryManager = getRepositoryManager(project);
-        List<GitRepository> repositories = repositoryManager.getRepositories();
-        GitRepository repository = repositories.isEmpty() ? null : repositories.get(0);
-
-        if (repository != null) {
-            CompletableFuture<String> nameFuture = CompletableFuture.supplyAsync(() -> {
-                try {
-                    return GitConfigUtil.getValue(project, repository.getRoot(), GitConfigUtil.USER_NAME);
-                } catch (Exception e) {
-                    logger.error("Error getting git user name", e);
-                    return "Unknown";
-                }
-            }, gitThreadPool);
-
-            CompletableFuture<String> emailFuture = CompletableFuture.supplyAsync(() -> {
-                try {
-                    return GitConfigUtil.getValue(project, repository.getRoot(), GitConfigUtil.USER_EMAIL);
-                } catch (Exception e) {
-                    logger.error("Error getting git user email", e);
-                    return "unknown@email.com";
-                }
-            }, gitThreadPool);
-
-            return CompletableFuture.allOf(nameFuture, emailFuture)
-                .thenApply(v -> new GitUserInfo(
-                    nameFuture.join() != null ? nameFuture.join() : "Unknown",
-                    emailFuture.join() != null ? emailFuture.join() : "unknown@email.com"
-                ));
+    /**
+     * Gets the changes of the working copy of the file since the given revision, committed or not.
+     * @return the hunks of the diff, or null if git could not tell
+     */
+    public static List<DiffHunk> getChangedLines(Project project, VirtualFile file, String revision) {
+        GitRepository repository = getRepositoryForFile(project, file);
+        if (repository == null) {
+            return null;
         }
-        return CompletableFuture.completedFuture(new GitUserInfo("Unknown", "unknown@email.com"));
-    }
 
-    public static GitUserInfo getGitUserInfo(Project project) {
+        GitLineHandler handler = new GitLineHandler(project, repository.getRoot(), GitCommand.DIFF);
+        List<String> gitCommandArgs = new ArrayList<>();
+        gitCommandArgs.add("--no-color");
+        gitCommandArgs.add("-U0");
+        gitCommandArgs.add(revision);
+        gitCommandArgs.add("--");
+        gitCommandArgs.add(file.getPath());
+        handler.addParameters(gitCommandArgs);
+        logger.info("Running git command: diff " + String.join(" ", gitCommandArgs));
+
+        List<String> output;
         try {
-            return getGitUserInfoAsync(project).get(5, TimeUnit.SECONDS);
-        } catch (Exception e) {
-            logger.error("Failed to get git user info", e);
-            return new GitUserInfo("Unknown", "unknown@email.com");
+            output = runGitCommand(handler);
+        } catch (RuntimeException e) {
+            logger.warn("Cannot diff " + file.getPath() + " against " + revision, e);
+            return null;
         }
+        List<DiffHunk> hunks = new ArrayList<>();
+        for (String line : output) {
+            // @@ -oldStart[,oldCount] +newStart[,newCount] @@
+            Matcher matcher = HUNK_HEADER.matcher(line);
+            if (!matcher.find()) {
+                continue;
+            }
+            hunks.add(new DiffHunk(
+                    Integer.parseInt(matcher.group(1)),
+                    matcher.group(2) != null ? Integer.parseInt(matcher.group(2)) : 1,
+                    Integer.parseInt(matcher.group(3)),
+                    matcher.group(4) != null ? Integer.parseInt(matcher.group(4)) : 1));
+        }
+        return hunks;
     }
 
     /**
@@ -431,68 +280,4 @@ public class GitUtil {
             return null;
         }
     }
-
-    private static class BlameInfo {
-        private String author;
-        private String email;
-        private Long timestamp;
-
-        public BlameInfo() {
-        }
-
-        public String getAuthor() {
-            return author;
-        }
-
-        public String getEmail() {
-            return email;
-        }
-
-        public Long getTimestamp() {
-            return timestamp;
-        }
-
-        public BlameInfoBuilder toBuilder() {
-            return new BlameInfoBuilder(this);
-        }
-
-        public static class BlameInfoBuilder {
-            private String author;
-            private String email;
-            private Long timestamp;
-
-            public BlameInfoBuilder() {
-            }
-
-            public BlameInfoBuilder(BlameInfo original) {
-                this.author = original.author;
-                this.email = original.email;
-                this.timestamp = original.timestamp;
-            }
-
-            public BlameInfoBuilder author(String author) {
-                this.author = author;
-                return this;
-            }
-
-            public BlameInfoBuilder email(String email) {
-                this.email = email;
-                return this;
-            }
-
-            public BlameInfoBuilder timestamp(Long timestamp) {
-                this.timestamp = timestamp;
-                return this;
-            }
-
-            public BlameInfo build() {
-                BlameInfo blameInfo = new BlameInfo();
-                blameInfo.author = this.author;
-                blameInfo.email = this.email;
-                blameInfo.timestamp = this.timestamp;
-                return blameInfo;
-            }
-        }
-    }
 }
-
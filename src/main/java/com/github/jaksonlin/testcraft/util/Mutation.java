@@ -1,6 +1,6 @@
 package com.github.jaksonlin.testcraft.util;
 
-public class Mutation {
+public class Mutation implements MutationResult {
     private boolean detected;
     private String status;
     private int numberOfTestsRun;
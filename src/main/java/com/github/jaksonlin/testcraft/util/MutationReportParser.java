@@ -1,28 +1,148 @@
 package com.github.jaksonlin.testcraft.util;
 
-import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.dataformat.xml.XmlMapper;
-
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 public class MutationReportParser {
 
-    private static final XmlMapper xmlMapper = new XmlMapper();
+    private static final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
 
     static {
-        // Enable features that might improve performance
-        xmlMapper.enable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
-        xmlMapper.enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
     }
 
     public static Mutations parseMutationsFromXml(String filePath) throws IOException {
         File file = new File(filePath);
         try (BufferedInputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
-            return xmlMapper.readValue(inputStream, Mutations.class);
+            List<Mutation> mutations = new ArrayList<>();
+            boolean partial = streamMutations(inputStream, mutations::add);
+            return new Mutations(partial, mutations);
+        }
+    }
+
+    public static MutationTable parseMutationTableFromXml(String filePath) throws IOException {
+        File file = new File(filePath);
+        try (BufferedInputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+            MutationTable.Builder builder = new MutationTable.Builder();
+            streamMutations(inputStream, builder::add);
+            return builder.build();
+        }
+    }
+
+    /**
+     * Reads the mutations.xml content element by element and hands over each mutation as soon as it is complete,
+     * so the caller never holds more than the records it decides to keep.
+     * @return the partial attribute of the report
+     */
+    public static boolean streamMutations(InputStream inputStream, Consumer<Mutation> consumer) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = xmlInputFactory.createXMLStreamReader(inputStream, "UTF-8");
+            boolean partial = false;
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                if ("mutations".equals(reader.getLocalName())) {
+                    partial = Boolean.parseBoolean(reader.getAttributeValue(null, "partial"));
+                } else if ("mutation".equals(reader.getLocalName())) {
+                    consumer.accept(readMutation(reader));
+                }
+            }
+            return partial;
+        } catch (XMLStreamException | NumberFormatException e) {
+            throw new IOException("Invalid mutation report: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                }
+            }
+        }
+    }
+
+    // reader is positioned on <mutation>, returns positioned on </mutation>
+    private static Mutation readMutation(XMLStreamReader reader) throws XMLStreamException {
+        Mutation mutation = new Mutation();
+        mutation.setDetected(Boolean.parseBoolean(reader.getAttributeValue(null, "detected")));
+        mutation.setStatus(reader.getAttributeValue(null, "status"));
+        String numberOfTestsRun = reader.getAttributeValue(null, "numberOfTestsRun");
+        if (numberOfTestsRun != null) {
+            mutation.setNumberOfTestsRun(Integer.parseInt(numberOfTestsRun.trim()));
+        }
+
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "sourceFile":
+                    mutation.setSourceFile(reader.getElementText());
+                    break;
+                case "mutatedClass":
+                    mutation.setMutatedClass(reader.getElementText());
+                    break;
+                case "mutatedMethod":
+                    mutation.setMutatedMethod(reader.getElementText());
+                    break;
+                case "methodDescription":
+                    mutation.setMethodDescription(reader.getElementText());
+                    break;
+                case "lineNumber":
+                    mutation.setLineNumber(Integer.parseInt(reader.getElementText().trim()));
+                    break;
+                case "mutator":
+                    mutation.setMutator(reader.getElementText());
+                    break;
+                case "indexes":
+                    mutation.setIndexes(new Indexes(readIntegers(reader)));
+                    break;
+                case "blocks":
+                    mutation.setBlocks(new Blocks(readIntegers(reader)));
+                    break;
+                case "killingTest":
+                    mutation.setKillingTest(reader.getElementText());
+                    break;
+                case "description":
+                    mutation.setDescription(reader.getElementText());
+                    break;
+                default:
+                    // elements added by newer pitest versions are not part of our model
+                    skipElement(reader);
+                    break;
+            }
+        }
+        return mutation;
+    }
+
+    // <indexes><index>1</index>...</indexes>
+    private static List<Integer> readIntegers(XMLStreamReader reader) throws XMLStreamException {
+        List<Integer> values = new ArrayList<>();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            values.add(Integer.parseInt(reader.getElementText().trim()));
+        }
+        return values;
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
         }
     }
 }
@@ -0,0 +1,152 @@
+package com.github.jaksonlin.testcraft.util;
+
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Follows the mutations.xml of a running pitest process and parses it while it is still being written.
+ * Parsed mutations are handed out in small batches, and the full table is available once the process has finished.
+ */
+public class MutationReportTailer {
+    private static final Logger LOG = Logger.getInstance(MutationReportTailer.class);
+    private static final int BATCH_SIZE = 200;
+    private static final long BATCH_INTERVAL_MS = 250;
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private final File reportFile;
+    private final Consumer<List<Mutation>> batchConsumer;
+    private final MutationTable.Builder mutations = new MutationTable.Builder();
+    private final Thread tailThread;
+    private List<Mutation> batch = new ArrayList<>();
+    private long lastBatchTime = System.currentTimeMillis();
+    private volatile boolean processFinished = false;
+    private volatile boolean completed = false;
+
+    private MutationReportTailer(File reportFile, Consumer<List<Mutation>> batchConsumer) {
+        this.reportFile = reportFile;
+        this.batchConsumer = batchConsumer;
+        this.tailThread = new Thread(this::tail, "MutationReportTailer");
+        this.tailThread.setDaemon(true);
+    }
+
+    /**
+     * Starts following the report file. The previous report is removed first so that its content is not mistaken
+     * for the new run.
+     * @return the tailer, or null if the previous report cannot be removed
+     */
+    @Nullable
+    public static MutationReportTailer start(String reportFilePath, Consumer<List<Mutation>> batchConsumer) {
+        File reportFile = new File(reportFilePath);
+        if (reportFile.exists() && !reportFile.delete()) {
+            LOG.warn("Cannot remove previous mutation report, live results disabled: " + reportFilePath);
+            return null;
+        }
+        MutationReportTailer tailer = new MutationReportTailer(reportFile, batchConsumer);
+        tailer.tailThread.start();
+        return tailer;
+    }
+
+    /**
+     * Tells the tailer that the pitest process has exited and waits until the rest of the report is read.
+     * @return all mutations of the report, or null if the report could not be read completely
+     */
+    @Nullable
+    public MutationTable finish() throws InterruptedException {
+        processFinished = true;
+        tailThread.join();
+        return completed ? mutations.build() : null;
+    }
+
+    private void tail() {
+        try {
+            while (!reportFile.exists()) {
+                if (processFinished) {
+                    return;
+                }
+                Thread.sleep(POLL_INTERVAL_MS);
+            }
+            try (InputStream inputStream = new TailingInputStream(new RandomAccessFile(reportFile, "r"))) {
+                MutationReportParser.streamMutations(inputStream, this::onMutation);
+            }
+            flushBatch();
+            completed = true;
+        } catch (IOException e) {
+            LOG.info("Stop following mutation report: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void onMutation(Mutation mutation) {
+        mutations.add(mutation);
+        batch.add(mutation);
+        if (batch.size() >= BATCH_SIZE || System.currentTimeMillis() - lastBatchTime >= BATCH_INTERVAL_MS) {
+            flushBatch();
+        }
+    }
+
+    private void flushBatch() {
+        lastBatchTime = System.currentTimeMillis();
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Mutation> ready = batch;
+        batch = new ArrayList<>();
+        try {
+            batchConsumer.accept(ready);
+        } catch (Exception e) {
+            LOG.warn("Error publishing mutation results", e);
+        }
+    }
+
+    // blocks at the end of the file until pitest writes more, and only reports the end once the process is gone
+    private class TailingInputStream extends InputStream {
+        private final RandomAccessFile file;
+
+        TailingInputStream(RandomAccessFile file) {
+            this.file = file;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int count = read(single, 0, 1);
+            return count < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            while (true) {
+                // read the flag before the file, so bytes written right before exit are not missed
+                boolean finished = processFinished;
+                int count = file.read(buffer, offset, length);
+                if (count > 0 || finished) {
+                    return count;
+                }
+                flushBatch();
+                try {
+                    Thread.sleep(POLL_INTERVAL_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for mutation report", e);
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            file.close();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.github.jaksonlin.testcraft.util;
+
+/**
+ * Read-only view of the result of one mutant.
+ * <p>
+ * Implemented by {@link Mutation}, which the report parsers fill in, and by the rows of a {@link MutationTable}, which
+ * are shared and cannot change. Code that only reads results should take this type; to change a stored result, copy
+ * it into a new {@link Mutation}.
+ */
+public interface MutationResult {
+    boolean isDetected();
+
+    String getStatus();
+
+    int getNumberOfTestsRun();
+
+    String getSourceFile();
+
+    String getMutatedClass();
+
+    String getMutatedMethod();
+
+    String getMethodDescription();
+
+    int getLineNumber();
+
+    String getMutator();
+
+    Indexes getIndexes();
+
+    Blocks getBlocks();
+
+    String getKillingTest();
+
+    String getDescription();
+}
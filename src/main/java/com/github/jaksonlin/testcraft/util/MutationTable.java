@@ -0,0 +1,274 @@
+package com.github.jaksonlin.testcraft.util;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column oriented storage of the mutations of one pitest run.
+ * <p>
+ * Strings are dictionary encoded (mutator, class, method and status names repeat a lot), numbers are kept in
+ * primitive columns, and the indexes/blocks of every mutation are slices of one shared int array.
+ * {@link #asList()} exposes the rows as {@link MutationResult} flyweights for the code working on mutation lists.
+ * The table is immutable once built, and is serialized as-is into the run history.
+ */
+public final class MutationTable {
+    private static final int NULL_ID = -1;
+
+    private String[] dictionary;
+    private int size;
+    private boolean[] detected;
+    private int[] status;
+    private int[] numberOfTestsRun;
+    private int[] sourceFile;
+    private int[] mutatedClass;
+    private int[] mutatedMethod;
+    private int[] methodDescription;
+    private int[] lineNumber;
+    private int[] mutator;
+    private int[] killingTest;
+    private int[] description;
+    // row i owns values[offsets[i] .. offsets[i + 1])
+    private int[] indexOffsets;
+    private int[] indexValues;
+    private int[] blockOffsets;
+    private int[] blockValues;
+
+    private MutationTable() {
+        // for deserialization
+    }
+
+    public static MutationTable of(List<? extends MutationResult> mutations) {
+        Builder builder = new Builder();
+        for (MutationResult mutation : mutations) {
+            builder.add(mutation);
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public List<MutationResult> asList() {
+        return new AbstractList<MutationResult>() {
+            @Override
+            public MutationResult get(int index) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+                }
+                return new Row(MutationTable.this, index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private String lookup(int id) {
+        return id == NULL_ID ? null : dictionary[id];
+    }
+
+    private List<Integer> slice(int[] offsets, int[] values, int row) {
+        int from = offsets[row];
+        int to = offsets[row + 1];
+        if (from == to) {
+            return Collections.emptyList();
+        }
+        List<Integer> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            result.add(values[i]);
+        }
+        return result;
+    }
+
+    // read-only view of one row, created on access and dropped right after by most callers
+    private static final class Row implements MutationResult {
+        private final MutationTable table;
+        private final int row;
+
+        private Row(MutationTable table, int row) {
+            this.table = table;
+            this.row = row;
+        }
+
+        @Override
+        public boolean isDetected() {
+            return table.detected[row];
+        }
+
+        @Override
+        public String getStatus() {
+            return table.lookup(table.status[row]);
+        }
+
+        @Override
+        public int getNumberOfTestsRun() {
+            return table.numberOfTestsRun[row];
+        }
+
+        @Override
+        public String getSourceFile() {
+            return table.lookup(table.sourceFile[row]);
+        }
+
+        @Override
+        public String getMutatedClass() {
+            return table.lookup(table.mutatedClass[row]);
+        }
+
+        @Override
+        public String getMutatedMethod() {
+            return table.lookup(table.mutatedMethod[row]);
+        }
+
+        @Override
+        public String getMethodDescription() {
+            return table.lookup(table.methodDescription[row]);
+        }
+
+        @Override
+        public int getLineNumber() {
+            return table.lineNumber[row];
+        }
+
+        @Override
+        public String getMutator() {
+            return table.lookup(table.mutator[row]);
+        }
+
+        @Override
+        public Indexes getIndexes() {
+            return new Indexes(table.slice(table.indexOffsets, table.indexValues, row));
+        }
+
+        @Override
+        public Blocks getBlocks() {
+            return new Blocks(table.slice(table.blockOffsets, table.blockValues, row));
+        }
+
+        @Override
+        public String getKillingTest() {
+            return table.lookup(table.killingTest[row]);
+        }
+
+        @Override
+        public String getDescription() {
+            return table.lookup(table.description[row]);
+        }
+    }
+
+    public static final class Builder {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+        private boolean[] detected = new boolean[16];
+        private final IntColumn status = new IntColumn();
+        private final IntColumn numberOfTestsRun = new IntColumn();
+        private final IntColumn sourceFile = new IntColumn();
+        private final IntColumn mutatedClass = new IntColumn();
+        private final IntColumn mutatedMethod = new IntColumn();
+        private final IntColumn methodDescription = new IntColumn();
+        private final IntColumn lineNumber = new IntColumn();
+        private final IntColumn mutator = new IntColumn();
+        private final IntColumn killingTest = new IntColumn();
+        private final IntColumn description = new IntColumn();
+        private final IntColumn indexOffsets = new IntColumn();
+        private final IntColumn indexValues = new IntColumn();
+        private final IntColumn blockOffsets = new IntColumn();
+        private final IntColumn blockValues = new IntColumn();
+        private int size;
+
+        public Builder() {
+            indexOffsets.add(0);
+            blockOffsets.add(0);
+        }
+
+        public Builder add(MutationResult mutation) {
+            if (size == detected.length) {
+                detected = Arrays.copyOf(detected, size * 2);
+            }
+            detected[size] = mutation.isDetected();
+            status.add(intern(mutation.getStatus()));
+            numberOfTestsRun.add(mutation.getNumberOfTestsRun());
+            sourceFile.add(intern(mutation.getSourceFile()));
+            mutatedClass.add(intern(mutation.getMutatedClass()));
+            mutatedMethod.add(intern(mutation.getMutatedMethod()));
+            methodDescription.add(intern(mutation.getMethodDescription()));
+            lineNumber.add(mutation.getLineNumber());
+            mutator.add(intern(mutation.getMutator()));
+            killingTest.add(intern(mutation.getKillingTest()));
+            description.add(intern(mutation.getDescription()));
+            if (mutation.getIndexes() != null && mutation.getIndexes().getIndex() != null) {
+                mutation.getIndexes().getIndex().forEach(indexValues::add);
+            }
+            indexOffsets.add(indexValues.size);
+            if (mutation.getBlocks() != null && mutation.getBlocks().getBlock() != null) {
+                mutation.getBlocks().getBlock().forEach(blockValues::add);
+            }
+            blockOffsets.add(blockValues.size);
+            size++;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public MutationTable build() {
+            MutationTable table = new MutationTable();
+            table.dictionary = dictionary.toArray(new String[0]);
+            table.size = size;
+            table.detected = Arrays.copyOf(detected, size);
+            table.status = status.toArray();
+            table.numberOfTestsRun = numberOfTestsRun.toArray();
+            table.sourceFile = sourceFile.toArray();
+            table.mutatedClass = mutatedClass.toArray();
+            table.mutatedMethod = mutatedMethod.toArray();
+            table.methodDescription = methodDescription.toArray();
+            table.lineNumber = lineNumber.toArray();
+            table.mutator = mutator.toArray();
+            table.killingTest = killingTest.toArray();
+            table.description = description.toArray();
+            table.indexOffsets = indexOffsets.toArray();
+            table.indexValues = indexValues.toArray();
+            table.blockOffsets = blockOffsets.toArray();
+            table.blockValues = blockValues.toArray();
+            return table;
+        }
+
+        private int intern(String value) {
+            if (value == null) {
+                return NULL_ID;
+            }
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = dictionary.size();
+                dictionary.add(value);
+                ids.put(value, id);
+            }
+            return id;
+        }
+    }
+
+    private static final class IntColumn {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.github.jaksonlin.testcraft.util;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.intellij.openapi.diagnostic.Logger;
 import org.apache.http.HttpEntity;
@@ -12,10 +13,14 @@ import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public class OllamaClient {
     private static final Logger LOG = Logger.getInstance(OllamaClient.class);
@@ -83,6 +88,93 @@ public class OllamaClient {
         }
     }
 
+    /**
+     * Cancels one streaming request. A new one is made for every request, so a late cancel never reaches the next.
+     */
+    public static final class Cancellation {
+        private volatile boolean cancelled;
+        private volatile HttpPost request;
+
+        /**
+         * Aborts the request if it is in flight, so that the model stops generating, or keeps it from being sent.
+         */
+        public void cancel() {
+            cancelled = true;
+            HttpPost inFlight = request;
+            if (inFlight != null) {
+                inFlight.abort();
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        private void attach(HttpPost request) {
+            this.request = request;
+            // a cancel that came before the request was sent
+            if (cancelled) {
+                request.abort();
+            }
+        }
+    }
+
+    /**
+     * Sends the chat with streaming on, Ollama then answers with one JSON object per line as the tokens are generated.
+     * @param onToken receives the content of each chunk as it arrives, on the calling thread
+     * @return the whole answer, or what arrived before the request was cancelled
+     */
+    public String chatCompletionStream(List<Message> messages, Cancellation cancellation, Consumer<String> onToken) throws IOException {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", model);
+        requestBody.put("messages", messages);
+        requestBody.put("stream", true);
+        requestBody.put("temperature", temperature);
+        requestBody.put("num_predict", maxTokens);
+
+        HttpPost request = new HttpPost(baseUrl + "/api/chat");
+        request.setHeader("Content-Type", "application/json");
+        request.setEntity(new StringEntity(objectMapper.writeValueAsString(requestBody), "UTF-8"));
+
+        StringBuilder content = new StringBuilder();
+        cancellation.attach(request);
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            if (response.getStatusLine().getStatusCode() != 200) {
+                String errorBody = EntityUtils.toString(response.getEntity());
+                LOG.error("Error from Ollama API: " + errorBody);
+                throw new IOException("Failed to get response from Ollama API: " + response.getStatusLine().getStatusCode());
+            }
+            HttpEntity entity = response.getEntity();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(entity.getContent(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.trim().isEmpty()) {
+                        continue;
+                    }
+                    JsonNode chunk = objectMapper.readTree(line);
+                    if (chunk.hasNonNull("error")) {
+                        throw new IOException("Error from Ollama API: " + chunk.get("error").asText());
+                    }
+                    String token = chunk.path("message").path("content").asText("");
+                    if (!token.isEmpty()) {
+                        content.append(token);
+                        onToken.accept(token);
+                    }
+                    if (chunk.path("done").asBoolean(false)) {
+                        break;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (!request.isAborted()) {
+                throw e;
+            }
+            // closing the connection is what makes Ollama stop generating
+            LOG.info("Ollama chat cancelled after " + content.length() + " characters");
+        }
+        return content.toString();
+    }
+
     public static class Message {
         private String role;
         private String content;
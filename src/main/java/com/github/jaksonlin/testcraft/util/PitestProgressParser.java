@@ -0,0 +1,137 @@
+package com.github.jaksonlin.testcraft.util;
+
+import java.util.function.Consumer;
+
+/**
+ * Follows the output lines of a pitest run and tells which phase it is in and how many mutants are done.
+ * <p>
+ * The phases come from the messages of the main process (pre scan, coverage, analysis, completion). Finished mutants
+ * are counted from the verbose minion lines reporting a detection status. Pitest does not print the number of
+ * mutants up front, so the total is what the previous run of the same class produced, if known.
+ * <p>
+ * Lines arrive on the process reader threads, the state is read from elsewhere (e.g. a timer updating a progress bar).
+ */
+public class PitestProgressParser implements Consumer<String> {
+    public enum Phase {
+        STARTING, SCAN_CLASSPATH, COVERAGE, MUTATION_ANALYSIS, DONE
+    }
+
+    private final int expectedMutants;
+    private Phase phase = Phase.STARTING;
+    private int processedMutants;
+    private long analysisStartMillis;
+    private long lastMutantMillis;
+
+    /**
+     * @param expectedMutants number of mutants of the previous run, or a value below 1 when unknown
+     */
+    public PitestProgressParser(int expectedMutants) {
+        this.expectedMutants = expectedMutants;
+    }
+
+    @Override
+    public synchronized void accept(String line) {
+        long now = System.currentTimeMillis();
+        if (line.contains(" detected = ")) {
+            if (phase != Phase.MUTATION_ANALYSIS) {
+                startAnalysis(now);
+            }
+            processedMutants++;
+            lastMutantMillis = now;
+        } else if (line.contains("Running report with")) {
+            changePhase(Phase.SCAN_CLASSPATH);
+        } else if (line.contains("mutation test units in pre scan")) {
+            // the coverage of the tests is calculated right after the pre scan
+            changePhase(Phase.COVERAGE);
+        } else if (line.contains("Calculated coverage in") || line.contains("mutation test units")) {
+            startAnalysis(now);
+        } else if (line.contains("Completed in")) {
+            changePhase(Phase.DONE);
+        }
+    }
+
+    public synchronized Phase getPhase() {
+        return phase;
+    }
+
+    public synchronized int getProcessedMutants() {
+        return processedMutants;
+    }
+
+    /**
+     * @return the mutants of the previous run, or -1 when unknown
+     */
+    public int getExpectedMutants() {
+        return expectedMutants > 0 ? expectedMutants : -1;
+    }
+
+    /**
+     * @return finished mutants per second since the analysis started
+     */
+    public synchronized double getMutantsPerSecond() {
+        if (phase != Phase.MUTATION_ANALYSIS && phase != Phase.DONE || processedMutants == 0) {
+            return 0;
+        }
+        long elapsedMillis = Math.max(1, lastMutantMillis - analysisStartMillis);
+        return processedMutants * 1000.0 / elapsedMillis;
+    }
+
+    /**
+     * @return estimated seconds until all expected mutants are done, or -1 when it cannot be told
+     */
+    public synchronized long getEtaSeconds() {
+        double mutantsPerSecond = getMutantsPerSecond();
+        if (expectedMutants <= 0 || mutantsPerSecond <= 0) {
+            return -1;
+        }
+        return (long) Math.ceil(Math.max(0, expectedMutants - processedMutants) / mutantsPerSecond);
+    }
+
+    /**
+     * @return milliseconds since the last mutant finished during the analysis, 0 in other phases
+     */
+    public synchronized long getMillisSinceLastMutant() {
+        if (phase != Phase.MUTATION_ANALYSIS) {
+            return 0;
+        }
+        return System.currentTimeMillis() - Math.max(lastMutantMillis, analysisStartMillis);
+    }
+
+    /**
+     * @return overall fraction of the run: scan and coverage take the first 20%, the analysis the rest
+     */
+    public synchronized double getFraction() {
+        switch (phase) {
+            case SCAN_CLASSPATH:
+                return 0.05;
+            case COVERAGE:
+                return 0.1;
+            case MUTATION_ANALYSIS:
+                if (expectedMutants <= 0) {
+                    return 0.2;
+                }
+                // the previous run is only an estimate, never claim to be done before pitest says so
+                return 0.2 + 0.79 * Math.min(1.0, (double) processedMutants / expectedMutants);
+            case DONE:
+                return 1.0;
+            default:
+                return 0;
+        }
+    }
+
+    private void startAnalysis(long now) {
+        if (phase == Phase.MUTATION_ANALYSIS || phase == Phase.DONE) {
+            return;
+        }
+        analysisStartMillis = now;
+        lastMutantMillis = now;
+        changePhase(Phase.MUTATION_ANALYSIS);
+    }
+
+    // pitest output only moves forward, a late line of an earlier phase does not reset the progress
+    private void changePhase(Phase newPhase) {
+        if (newPhase.ordinal() > phase.ordinal()) {
+            phase = newPhase;
+        }
+    }
+}
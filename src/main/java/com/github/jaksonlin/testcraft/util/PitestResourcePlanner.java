@@ -0,0 +1,241 @@
+package com.github.jaksonlin.testcraft.util;
+
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * Decides how many minions a pitest run may use, how large their heap is and how long a mutant may run.
+ * <p>
+ * The thread count follows from the cores and the available physical memory, shared between the runs of a campaign.
+ * Available counts the page cache the kernel gives back on demand, which on a busy machine is most of the memory.
+ * What a run of a target class needed is kept in a small profile next to its pitest history: the minions keep the
+ * default heap of the JVM until a run ran out of memory, from then on their heap is set and doubled after every
+ * such run. The timeout constant grows with the time pitest took to run the tests once without mutations, it never
+ * goes below the pitest default.
+ */
+public final class PitestResourcePlanner {
+    private static final Logger log = Logger.getInstance(PitestResourcePlanner.class);
+    private static final String PROFILE_FILE = "pitest-resources.properties";
+    private static final String HEAP_KEY = "minionHeapMb";
+    private static final String BASELINE_KEY = "baselineMillis";
+    private static final String MUTANTS_KEY = "mutants";
+
+    // what a minion usually takes when its heap is not set, the threads are planned with it
+    private static final int TYPICAL_MINION_MB = 512;
+    private static final int MAX_MINION_HEAP_MB = 4096;
+    // the pitest main process, it holds the coverage data and the report
+    private static final int MAIN_PROCESS_MB = 512;
+    private static final int DEFAULT_TIMEOUT_CONST = 10000;
+    private static final int MAX_TIMEOUT_CONST = 60000;
+    private static final float TIMEOUT_FACTOR = 2.0f;
+
+    private PitestResourcePlanner() {
+    }
+
+    public static final class Plan {
+        private final int threads;
+        private final int minionHeapMb;
+        private final int timeoutConst;
+        private final float timeoutFactor;
+
+        Plan(int threads, int minionHeapMb, int timeoutConst, float timeoutFactor) {
+            this.threads = threads;
+            this.minionHeapMb = minionHeapMb;
+            this.timeoutConst = timeoutConst;
+            this.timeoutFactor = timeoutFactor;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        // -1 when the minions keep the default heap of the JVM
+        public int getMinionHeapMb() {
+            return minionHeapMb;
+        }
+
+        public int getTimeoutConst() {
+            return timeoutConst;
+        }
+
+        public float getTimeoutFactor() {
+            return timeoutFactor;
+        }
+
+        @Override
+        public String toString() {
+            return "threads=" + threads + ", minionHeapMb=" + minionHeapMb + ", timeoutConst=" + timeoutConst + ", timeoutFactor=" + timeoutFactor;
+        }
+    }
+
+    /**
+     * @param reportDirectory report directory of the target class, the profile of previous runs is read from there
+     * @param concurrentRuns  number of pitest runs sharing the machine
+     */
+    public static Plan plan(String reportDirectory, int concurrentRuns) {
+        Properties profile = readProfile(reportDirectory);
+        int heapMb = intProperty(profile, HEAP_KEY, -1);
+        if (heapMb > 0) {
+            heapMb = clamp(heapMb, TYPICAL_MINION_MB, maxMinionHeapMb());
+        }
+        int runs = Math.max(1, concurrentRuns);
+
+        // one core stays with the IDE
+        int byCores = Math.max(1, (Runtime.getRuntime().availableProcessors() - 1) / runs);
+        long availableMb = availablePhysicalMemoryMb();
+        int minionMb = heapMb > 0 ? heapMb : TYPICAL_MINION_MB;
+        int byMemory = availableMb < 0 ? byCores : (int) Math.max(1, (availableMb / runs - MAIN_PROCESS_MB) / minionMb);
+        int threads = Math.min(byCores, byMemory);
+
+        // slow suites get more room, the default stays the least a mutant gets
+        int baselineMillis = intProperty(profile, BASELINE_KEY, -1);
+        int timeoutConst = baselineMillis < 0
+                ? DEFAULT_TIMEOUT_CONST
+                : clamp(DEFAULT_TIMEOUT_CONST + baselineMillis, DEFAULT_TIMEOUT_CONST, MAX_TIMEOUT_CONST);
+        return new Plan(threads, heapMb, timeoutConst, TIMEOUT_FACTOR);
+    }
+
+    /**
+     * How many pitest runs of default size fit on this machine at once, each keeps at least two minions busy.
+     */
+    public static int concurrentRunLimit() {
+        int byCores = Math.max(1, (Runtime.getRuntime().availableProcessors() - 1) / 2);
+        long availableMb = availablePhysicalMemoryMb();
+        if (availableMb < 0) {
+            return byCores;
+        }
+        int byMemory = (int) Math.max(1, availableMb / (MAIN_PROCESS_MB + 2L * TYPICAL_MINION_MB));
+        return Math.min(byCores, byMemory);
+    }
+
+    /**
+     * @return number of mutants the last successful run of the target class produced, or -1 when unknown
+     */
+    public static int expectedMutants(String reportDirectory) {
+        return intProperty(readProfile(reportDirectory), MUTANTS_KEY, -1);
+    }
+
+    /**
+     * Updates the profile of the target class with what the finished run needed.
+     */
+    public static void record(String reportDirectory, Plan plan, ProcessResult result, List<? extends MutationResult> mutations) {
+        if (reportDirectory == null || plan == null || result == null) {
+            return;
+        }
+        Properties profile = readProfile(reportDirectory);
+        boolean outOfMemory = containsOutOfMemory(result.getOutput()) || containsOutOfMemory(result.getErrorOutput());
+        if (!outOfMemory && mutations != null) {
+            outOfMemory = mutations.stream().anyMatch(mutation -> "MEMORY_ERROR".equals(mutation.getStatus()));
+        }
+        if (outOfMemory) {
+            int currentMb = plan.getMinionHeapMb() > 0 ? plan.getMinionHeapMb() : defaultMinionHeapMb();
+            int heapMb = Math.max(currentMb, Math.min(maxMinionHeapMb(), currentMb * 2));
+            log.info("pitest ran out of memory in " + reportDirectory + ", next minion heap " + heapMb + "m");
+            profile.setProperty(HEAP_KEY, String.valueOf(heapMb));
+        }
+        if (result.getExitCode() == 0 && mutations != null) {
+            profile.setProperty(MUTANTS_KEY, String.valueOf(mutations.size()));
+        }
+        int baselineMillis = PitestRunStatistics.stageMillis(result.getOutput(), PitestRunStatistics.COVERAGE_STAGE);
+        if (baselineMillis >= 0) {
+            profile.setProperty(BASELINE_KEY, String.valueOf(baselineMillis));
+        }
+        writeProfile(reportDirectory, profile);
+    }
+
+    private static boolean containsOutOfMemory(String output) {
+        return output != null && output.contains("OutOfMemoryError");
+    }
+
+    // a JVM without -Xmx takes a quarter of the physical memory as its heap
+    private static int defaultMinionHeapMb() {
+        long totalMb = totalPhysicalMemoryMb();
+        return totalMb < 0 ? TYPICAL_MINION_MB : (int) Math.max(TYPICAL_MINION_MB, totalMb / 4);
+    }
+
+    // machines with a lot of memory may give a minion up to half of it
+    private static int maxMinionHeapMb() {
+        long totalMb = totalPhysicalMemoryMb();
+        return totalMb < 0 ? MAX_MINION_HEAP_MB : (int) Math.max(MAX_MINION_HEAP_MB, totalMb / 2);
+    }
+
+    // MemAvailable on Linux, where the free memory leaves out the page cache; -1 when neither tells
+    private static long availablePhysicalMemoryMb() {
+        Path memInfo = Paths.get("/proc/meminfo");
+        if (Files.isReadable(memInfo)) {
+            try (Stream<String> lines = Files.lines(memInfo)) {
+                Optional<String> available = lines.filter(line -> line.startsWith("MemAvailable:")).findFirst();
+                if (available.isPresent()) {
+                    // MemAvailable:   12345678 kB
+                    return Long.parseLong(available.get().replaceAll("\\D", "")) / 1024;
+                }
+            } catch (IOException | NumberFormatException e) {
+                log.warn("Cannot read " + memInfo, e);
+            }
+        }
+        // elsewhere the free memory already counts what the system can give back
+        OperatingSystemMXBean operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+        if (operatingSystem instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) operatingSystem).getFreePhysicalMemorySize() / (1024 * 1024);
+        }
+        return -1;
+    }
+
+    // -1 when the JVM does not tell
+    private static long totalPhysicalMemoryMb() {
+        OperatingSystemMXBean operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+        if (operatingSystem instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) operatingSystem).getTotalPhysicalMemorySize() / (1024 * 1024);
+        }
+        return -1;
+    }
+
+    private static Properties readProfile(String reportDirectory) {
+        Properties profile = new Properties();
+        if (reportDirectory == null) {
+            return profile;
+        }
+        Path profileFile = Paths.get(reportDirectory, PROFILE_FILE);
+        if (Files.exists(profileFile)) {
+            try (InputStream inputStream = Files.newInputStream(profileFile)) {
+                profile.load(inputStream);
+            } catch (IOException e) {
+                log.warn("Cannot read " + profileFile, e);
+            }
+        }
+        return profile;
+    }
+
+    private static void writeProfile(String reportDirectory, Properties profile) {
+        Path profileFile = Paths.get(reportDirectory, PROFILE_FILE);
+        try (OutputStream outputStream = Files.newOutputStream(profileFile)) {
+            profile.store(outputStream, "resources needed by previous pitest runs");
+        } catch (IOException e) {
+            log.warn("Cannot write " + profileFile, e);
+        }
+    }
+
+    private static int intProperty(Properties profile, String key, int defaultValue) {
+        try {
+            return Integer.parseInt(profile.getProperty(key, String.valueOf(defaultValue)).trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
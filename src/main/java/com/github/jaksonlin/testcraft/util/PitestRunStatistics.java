@@ -0,0 +1,102 @@
+package com.github.jaksonlin.testcraft.util;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The statistics pitest prints at the end of a run, read back from its output.
+ * <pre>
+ * > coverage and dependency analysis : 3 seconds
+ * > run mutation analysis : 1 minutes and 5 seconds
+ * >> Generated 15 mutations Killed 12 (80%)
+ * >> Ran 40 tests (2.67 tests per mutation)
+ * </pre>
+ * Values pitest did not print are -1.
+ */
+public final class PitestRunStatistics {
+    public static final String SCAN_CLASSPATH_STAGE = "scan classpath";
+    public static final String COVERAGE_STAGE = "coverage and dependency analysis";
+    public static final String BUILD_MUTATION_TESTS_STAGE = "build mutation tests";
+    public static final String RUN_MUTATION_TESTS_STAGE = "run mutation analysis";
+
+    private static final Pattern GENERATED = Pattern.compile(">> Generated (\\d+) mutations Killed (\\d+)");
+    private static final Pattern RAN = Pattern.compile(">> Ran (\\d+) tests \\(([\\d.,]+) tests per mutation\\)");
+
+    private final int mutationsGenerated;
+    private final int mutationsKilled;
+    private final int testsRun;
+    private final double testsPerMutation;
+    private final int scanClasspathMillis;
+    private final int coverageMillis;
+    private final int buildMutationTestsMillis;
+    private final int runMutationTestsMillis;
+
+    private PitestRunStatistics(String output) {
+        Matcher generated = GENERATED.matcher(output);
+        boolean hasGenerated = generated.find();
+        mutationsGenerated = hasGenerated ? Integer.parseInt(generated.group(1)) : -1;
+        mutationsKilled = hasGenerated ? Integer.parseInt(generated.group(2)) : -1;
+        Matcher ran = RAN.matcher(output);
+        boolean hasRan = ran.find();
+        testsRun = hasRan ? Integer.parseInt(ran.group(1)) : -1;
+        // the ratio is formatted with the default locale of the pitest process
+        testsPerMutation = hasRan ? Double.parseDouble(ran.group(2).replace(',', '.')) : -1;
+        scanClasspathMillis = stageMillis(output, SCAN_CLASSPATH_STAGE);
+        coverageMillis = stageMillis(output, COVERAGE_STAGE);
+        buildMutationTestsMillis = stageMillis(output, BUILD_MUTATION_TESTS_STAGE);
+        runMutationTestsMillis = stageMillis(output, RUN_MUTATION_TESTS_STAGE);
+    }
+
+    public static PitestRunStatistics parse(String output) {
+        return new PitestRunStatistics(output != null ? output : "");
+    }
+
+    /**
+     * @return duration of a stage from the timings pitest prints, in whole seconds as pitest has them, or -1
+     */
+    public static int stageMillis(String output, String stage) {
+        if (output == null) {
+            return -1;
+        }
+        Matcher matcher = Pattern.compile("> " + Pattern.quote(stage)
+                + " : (?:< )?(?:(\\d+) minutes?(?: and )?)?(?:(\\d+) seconds?)?").matcher(output);
+        if (!matcher.find() || (matcher.group(1) == null && matcher.group(2) == null)) {
+            return -1;
+        }
+        int minutes = matcher.group(1) != null ? Integer.parseInt(matcher.group(1)) : 0;
+        int seconds = matcher.group(2) != null ? Integer.parseInt(matcher.group(2)) : 0;
+        return (minutes * 60 + seconds) * 1000;
+    }
+
+    public int getMutationsGenerated() {
+        return mutationsGenerated;
+    }
+
+    public int getMutationsKilled() {
+        return mutationsKilled;
+    }
+
+    public int getTestsRun() {
+        return testsRun;
+    }
+
+    public double getTestsPerMutation() {
+        return testsPerMutation;
+    }
+
+    public int getScanClasspathMillis() {
+        return scanClasspathMillis;
+    }
+
+    public int getCoverageMillis() {
+        return coverageMillis;
+    }
+
+    public int getBuildMutationTestsMillis() {
+        return buildMutationTestsMillis;
+    }
+
+    public int getRunMutationTestsMillis() {
+        return runMutationTestsMillis;
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.jaksonlin.testcraft.util;
+
+import org.pitest.mutationtest.commandline.OptionsParser;
+import org.pitest.mutationtest.commandline.ParseResult;
+import org.pitest.mutationtest.commandline.PluginFilter;
+import org.pitest.mutationtest.config.PluginServices;
+import org.pitest.mutationtest.tooling.AnalysisResult;
+import org.pitest.mutationtest.tooling.EntryPoint;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Entry point of the long-lived mutation worker process.
+ * <p>
+ * This class runs on the pitest classpath (not inside the IDE), so it must only depend on the JDK and the pitest jars.
+ * The worker reads one pitest argument per line from stdin, and a {@link #REQUEST_END} line starts the run.
+ * Pitest output is passed through as-is, and once the run finishes {@link #EXIT_MARKER} followed by the exit code
+ * is written to both stdout and stderr so that the caller knows both streams are drained.
+ */
+public final class PitestWorkerMain {
+    public static final String READY_MARKER = "<<testcraft-pitest-worker:ready>>";
+    public static final String REQUEST_END = "<<testcraft-pitest-worker:run>>";
+    public static final String EXIT_MARKER = "<<testcraft-pitest-worker:exit>>";
+
+    private PitestWorkerMain() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        // plugin discovery is the same for every run on this classpath, do it once
+        PluginServices plugins = PluginServices.makeForContextLoader();
+        BufferedReader requestReader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+
+        System.out.println(READY_MARKER);
+        System.out.flush();
+
+        List<String> arguments = new ArrayList<>();
+        String line;
+        while ((line = requestReader.readLine()) != null) {
+            if (!REQUEST_END.equals(line)) {
+                arguments.add(line);
+                continue;
+            }
+            int exitCode = runReport(plugins, arguments.toArray(new String[0]));
+            arguments.clear();
+
+            System.err.println(EXIT_MARKER + exitCode);
+            System.err.flush();
+            System.out.println(EXIT_MARKER + exitCode);
+            System.out.flush();
+        }
+    }
+
+    // same flow as MutationCoverageReport.main, without terminating the JVM at the end
+    private static int runReport(PluginServices plugins, String[] arguments) {
+        try {
+            OptionsParser parser = new OptionsParser(new PluginFilter(plugins));
+            ParseResult parseResult = parser.parse(arguments);
+            if (!parseResult.isOk()) {
+                parser.printHelp();
+                System.out.println(">>>> " + parseResult.getErrorMessage().orElse("invalid arguments"));
+                return 1;
+            }
+            AnalysisResult result = new EntryPoint().execute(null, parseResult.getOptions(), plugins, new HashMap<>());
+            if (result.getError().isPresent()) {
+                result.getError().get().printStackTrace();
+                return 1;
+            }
+            return 0;
+        } catch (Throwable t) {
+            t.printStackTrace();
+            return 1;
+        }
+    }
+}
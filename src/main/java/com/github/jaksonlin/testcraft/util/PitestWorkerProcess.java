@@ -0,0 +1,237 @@
+package com.github.jaksonlin.testcraft.util;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// IDE side handle of a PitestWorkerMain process, one run at a time
+public class PitestWorkerProcess {
+    private static final Logger LOG = Logger.getInstance(PitestWorkerProcess.class);
+    private static final long ERROR_STREAM_DRAIN_TIMEOUT = 10; // seconds
+    // how often a run checks for cancellation while pitest is silent
+    private static final long CANCEL_POLL_MILLIS = 200;
+    // a run taking longer is taken for hung, the worker is destroyed
+    private static final long MAX_RUN_MILLIS = TimeUnit.HOURS.toMillis(3);
+    // repeated pitest runs in one JVM pile up static state and metaspace, the worker is replaced after this many
+    private static final int MAX_RUNS = 20;
+    private static final String END_OF_STREAM = new String("<<end-of-stream>>");
+
+    private final String fingerprint;
+    private final Process process;
+    private final BufferedWriter requestWriter;
+    // output lines, read on their own thread so that a run can stop waiting for them
+    private final BlockingQueue<String> outputLines = new LinkedBlockingQueue<>();
+    // error lines outside of a run, and the exit markers
+    private final BlockingQueue<String> errorLines = new LinkedBlockingQueue<>();
+    // output of the run in progress, error lines go there as they arrive
+    private volatile ProcessOutput currentOutput;
+    private final ReentrantLock runLock = new ReentrantLock();
+    private int runCount = 0;
+
+    private PitestWorkerProcess(String fingerprint, Process process) {
+        this.fingerprint = fingerprint;
+        this.process = process;
+        this.requestWriter = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+
+        Thread outputThread = new Thread(() -> {
+            try (BufferedReader outputReader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = outputReader.readLine()) != null) {
+                    outputLines.add(line);
+                }
+            } catch (IOException e) {
+                LOG.debug("Mutation worker output stream closed", e);
+            } finally {
+                outputLines.add(END_OF_STREAM);
+            }
+        }, "PitestWorkerOutputReader");
+        outputThread.setDaemon(true);
+        outputThread.start();
+
+        Thread errorThread = new Thread(() -> {
+            try (BufferedReader errorReader = new BufferedReader(new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = errorReader.readLine()) != null) {
+                    ProcessOutput runOutput = currentOutput;
+                    if (runOutput != null && !line.startsWith(PitestWorkerMain.EXIT_MARKER)) {
+                        runOutput.errorLine(line);
+                    } else {
+                        errorLines.add(line);
+                    }
+                }
+            } catch (IOException e) {
+                LOG.debug("Mutation worker error stream closed", e);
+            } finally {
+                errorLines.add(END_OF_STREAM);
+            }
+        }, "PitestWorkerErrorReader");
+        errorThread.setDaemon(true);
+        errorThread.start();
+    }
+
+    /**
+     * Starts a worker with the given launcher command and waits until it is ready to accept runs.
+     * @throws IOException if the process cannot be started or exits before it is ready
+     */
+    public static PitestWorkerProcess start(String fingerprint, List<String> command, String workingDirectory) throws IOException {
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.environment().put("GRADLE_OPTS", "-Dorg.gradle.daemon=false -Dorg.gradle.debug=true");
+        builder.directory(workingDirectory != null ? new java.io.File(workingDirectory) : null);
+        PitestWorkerProcess worker = new PitestWorkerProcess(fingerprint, builder.start());
+
+        List<String> errors;
+        try {
+            String line;
+            while ((line = worker.outputLines.take()) != END_OF_STREAM) {
+                if (PitestWorkerMain.READY_MARKER.equals(line)) {
+                    return worker;
+                }
+            }
+            worker.destroy();
+            errors = worker.waitForErrorLines();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            worker.destroy();
+            errors = worker.drainErrorLines();
+        }
+        throw new IOException("Mutation worker exited before it was ready: " + String.join(System.lineSeparator(), errors));
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public boolean isAlive() {
+        return process.isAlive();
+    }
+
+    public boolean isBusy() {
+        return runLock.isLocked();
+    }
+
+    // done enough runs that a fresh JVM should take over
+    public boolean isRetired() {
+        return runCount >= MAX_RUNS;
+    }
+
+    /**
+     * Runs pitest with the given arguments in this worker, its output lines go to the given output. The worker is
+     * destroyed when the indicator is cancelled or the run takes too long, pitest cannot be stopped otherwise.
+     * @param indicator the progress of the run, or null when it cannot be cancelled
+     * @return the result of the run, or null if the worker is busy with another run or no longer alive
+     */
+    @Nullable
+    public ProcessResult tryExecute(List<String> arguments, ProcessOutput processOutput, @Nullable ProgressIndicator indicator) {
+        if (!runLock.tryLock()) {
+            return null;
+        }
+        try {
+            if (!process.isAlive()) {
+                return null;
+            }
+            errorLines.clear();
+            outputLines.clear();
+            currentOutput = processOutput;
+            for (String argument : arguments) {
+                requestWriter.write(argument);
+                requestWriter.newLine();
+            }
+            requestWriter.write(PitestWorkerMain.REQUEST_END);
+            requestWriter.newLine();
+            requestWriter.flush();
+            runCount++;
+
+            Integer exitCode = null;
+            long deadline = System.currentTimeMillis() + MAX_RUN_MILLIS;
+            String line;
+            while ((line = outputLines.poll(CANCEL_POLL_MILLIS, TimeUnit.MILLISECONDS)) != END_OF_STREAM) {
+                if (indicator != null && indicator.isCanceled()) {
+                    return stop(processOutput, "Mutation run cancelled, the worker was stopped");
+                }
+                if (System.currentTimeMillis() > deadline) {
+                    return stop(processOutput, "Mutation run took more than " + TimeUnit.MILLISECONDS.toMinutes(MAX_RUN_MILLIS) + " minutes, the worker was stopped");
+                }
+                if (line == null) {
+                    continue;
+                }
+                if (line.startsWith(PitestWorkerMain.EXIT_MARKER)) {
+                    exitCode = parseExitCode(line);
+                    break;
+                }
+                processOutput.outputLine(line);
+            }
+
+            // the error reader hands over the remaining lines up to the marker on stderr
+            if (exitCode != null) {
+                waitForErrorLines();
+            }
+            StringBuilder debugInformation = new StringBuilder("\n=== Debug Information ===\n")
+                    .append("Executed in warm mutation worker, run #").append(runCount).append("\n");
+            if (exitCode == null) {
+                debugInformation.append("Mutation worker terminated unexpectedly\n");
+                return processOutput.toResult(-1, debugInformation.toString());
+            }
+            debugInformation.append("Exit code: ").append(exitCode).append("\n");
+            return processOutput.toResult(exitCode, debugInformation.toString());
+        } catch (IOException | InterruptedException e) {
+            LOG.warn("Mutation worker run failed", e);
+            destroy();
+            processOutput.close();
+            return new ProcessResult(-1, "", "Mutation worker run failed: " + e.getMessage());
+        } finally {
+            currentOutput = null;
+            runLock.unlock();
+        }
+    }
+
+    public void destroy() {
+        process.destroy();
+    }
+
+    private ProcessResult stop(ProcessOutput processOutput, String reason) {
+        LOG.info(reason + ", run #" + runCount);
+        destroy();
+        return processOutput.toResult(-1, "\n=== Debug Information ===\n" + reason + "\n");
+    }
+
+    private int parseExitCode(String markerLine) {
+        try {
+            return Integer.parseInt(markerLine.substring(PitestWorkerMain.EXIT_MARKER.length()).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // wait for the exit marker the worker writes after flushing stderr, returns the error lines seen outside of a run
+    private List<String> waitForErrorLines() throws InterruptedException {
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = errorLines.poll(ERROR_STREAM_DRAIN_TIMEOUT, TimeUnit.SECONDS)) != null) {
+            if (line == END_OF_STREAM || line.startsWith(PitestWorkerMain.EXIT_MARKER)) {
+                break;
+            }
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    private List<String> drainErrorLines() {
+        List<String> lines = new ArrayList<>();
+        errorLines.drainTo(lines);
+        lines.remove(END_OF_STREAM);
+        return lines;
+    }
+}
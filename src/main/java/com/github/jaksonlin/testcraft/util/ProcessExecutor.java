@@ -1,21 +1,58 @@
 package com.github.jaksonlin.testcraft.util;
 
+import com.intellij.openapi.progress.ProgressIndicator;
+import org.jetbrains.annotations.Nullable;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ProcessExecutor {
+    // how often a running process checks for cancellation
+    private static final long CANCEL_POLL_MILLIS = 200;
+    // reads the process streams, the threads die after a minute without work
+    private static final ExecutorService streamReaders = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger counter = new AtomicInteger(1);
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "ProcessOutputReader-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
     public static ProcessResult executeProcess(List<String> command, String workingDirectory) {
+        return executeProcess(command, workingDirectory, new ProcessOutput());
+    }
+
+    /**
+     * Runs the command and feeds its output lines into the given output, which bounds what is kept in memory.
+     */
+    public static ProcessResult executeProcess(List<String> command, String workingDirectory, ProcessOutput processOutput) {
+        return executeProcess(command, workingDirectory, processOutput, null);
+    }
+
+    /**
+     * Same as {@link #executeProcess(List, String, ProcessOutput)}, the process is destroyed when the indicator is
+     * cancelled.
+     */
+    public static ProcessResult executeProcess(List<String> command, String workingDirectory, ProcessOutput processOutput,
+                                               @Nullable ProgressIndicator indicator) {
         try {
             ProcessBuilder builder = new ProcessBuilder(command);
             builder.environment().put("GRADLE_OPTS", "-Dorg.gradle.daemon=false -Dorg.gradle.debug=true");
             builder.directory(workingDirectory != null ? new java.io.File(workingDirectory) : null);
             Process process = builder.start();
-            StringBuilder output = new StringBuilder();
-            StringBuilder errorOutput = new StringBuilder();
             StringBuilder debugInfo = new StringBuilder();
             
             debugInfo.append("Process execution details:\n")
@@ -27,15 +64,20 @@ public class ProcessExecutor {
                     BufferedReader outputReader = new BufferedReader(new InputStreamReader(process.getInputStream()));
                     BufferedReader errorReader = new BufferedReader(new InputStreamReader(process.getErrorStream()))
             ) {
-                Thread outputThread = new Thread(() -> outputReader.lines().forEach(line -> output.append(line).append(System.lineSeparator())));
-                Thread errorThread = new Thread(() -> errorReader.lines().forEach(line -> errorOutput.append(line).append(System.lineSeparator())));
+                Future<?> outputReading = streamReaders.submit(() -> outputReader.lines().forEach(processOutput::outputLine));
+                Future<?> errorReading = streamReaders.submit(() -> errorReader.lines().forEach(processOutput::errorLine));
 
-                outputThread.start();
-                errorThread.start();
-
-                int exitCode = process.waitFor();
-                outputThread.join();
-                errorThread.join();
+                boolean destroyed = false;
+                while (!process.waitFor(CANCEL_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (!destroyed && indicator != null && indicator.isCanceled()) {
+                        destroyed = true;
+                        process.destroy();
+                        debugInfo.append("Cancelled, the process was stopped\n");
+                    }
+                }
+                int exitCode = process.exitValue();
+                waitForStream(outputReading);
+                waitForStream(errorReading);
 
                 debugInfo.append("Exit code: ").append(exitCode).append("\n");
                 if (exitCode != 0) {
@@ -50,16 +92,24 @@ public class ProcessExecutor {
                     }
                 }
 
-                return new ProcessResult(exitCode, output.toString(), 
-                    errorOutput.toString() + "\n=== Debug Information ===\n" + debugInfo.toString());
+                return processOutput.toResult(exitCode, "\n=== Debug Information ===\n" + debugInfo.toString());
             }
         } catch (IOException | InterruptedException e) {
+            processOutput.close();
             return new ProcessResult(-1, "", 
                 "Process execution failed: " + e.getMessage() + "\n" + 
                 "Stack trace: " + getStackTraceAsString(e));
         }
     }
 
+    private static void waitForStream(Future<?> reading) throws InterruptedException {
+        try {
+            reading.get();
+        } catch (ExecutionException e) {
+            // the stream broke, what was read so far is kept
+        }
+    }
+
     private static String getStackTraceAsString(Exception e) {
         StringWriter sw = new StringWriter();
         PrintWriter pw = new PrintWriter(sw);
@@ -0,0 +1,171 @@
+package com.github.jaksonlin.testcraft.util;
+
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Collects the stdout and stderr lines of a process without holding all of them.
+ * <p>
+ * Each stream keeps only its last lines in a ring buffer bounded by characters, which is what the result dialog
+ * shows. The full output can be spilled to a log file, and line subscribers see every line as it arrives.
+ */
+public class ProcessOutput implements Closeable {
+    private static final Logger LOG = Logger.getInstance(ProcessOutput.class);
+    public static final int DEFAULT_MAX_BUFFERED_CHARS = 1024 * 1024;
+
+    private final LineRingBuffer output;
+    private final LineRingBuffer errorOutput;
+    private final List<Consumer<String>> lineSubscribers = new CopyOnWriteArrayList<>();
+    @Nullable
+    private final Path logFile;
+    @Nullable
+    private BufferedWriter logWriter;
+
+    public ProcessOutput() {
+        this(null);
+    }
+
+    /**
+     * @param logFile file receiving the complete output of both streams, or null to keep only the tails
+     */
+    public ProcessOutput(@Nullable Path logFile) {
+        this(logFile, DEFAULT_MAX_BUFFERED_CHARS);
+    }
+
+    public ProcessOutput(@Nullable Path logFile, int maxBufferedChars) {
+        this.output = new LineRingBuffer(maxBufferedChars);
+        this.errorOutput = new LineRingBuffer(maxBufferedChars);
+        Path openedLogFile = null;
+        if (logFile != null) {
+            try {
+                logWriter = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8);
+                openedLogFile = logFile;
+            } catch (IOException e) {
+                LOG.warn("Cannot write the process output to " + logFile, e);
+            }
+        }
+        this.logFile = openedLogFile;
+    }
+
+    /**
+     * Subscribers are called on the reader threads, from both streams, and must not block.
+     */
+    public ProcessOutput subscribe(Consumer<String> lineSubscriber) {
+        lineSubscribers.add(lineSubscriber);
+        return this;
+    }
+
+    public void outputLine(String line) {
+        output.append(line);
+        spill(line);
+        publish(line);
+    }
+
+    public void errorLine(String line) {
+        errorOutput.append(line);
+        spill(line);
+        publish(line);
+    }
+
+    public String getOutput() {
+        return output.toString();
+    }
+
+    public String getErrorOutput() {
+        return errorOutput.toString();
+    }
+
+    @Nullable
+    public Path getLogFile() {
+        return logFile;
+    }
+
+    public ProcessResult toResult(int exitCode, String debugInformation) {
+        close();
+        return new ProcessResult(exitCode, getOutput(), getErrorOutput() + debugInformation,
+                logFile != null ? logFile.toString() : null);
+    }
+
+    private void publish(String line) {
+        for (Consumer<String> lineSubscriber : lineSubscribers) {
+            try {
+                lineSubscriber.accept(line);
+            } catch (RuntimeException e) {
+                LOG.warn("Process output subscriber failed", e);
+            }
+        }
+    }
+
+    private synchronized void spill(String line) {
+        if (logWriter == null) {
+            return;
+        }
+        try {
+            logWriter.write(line);
+            logWriter.newLine();
+        } catch (IOException e) {
+            LOG.warn("Cannot write the process output to " + logFile + ", keeping only its tail", e);
+            close();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (logWriter == null) {
+            return;
+        }
+        try {
+            logWriter.close();
+        } catch (IOException e) {
+            LOG.warn("Cannot close " + logFile, e);
+        }
+        logWriter = null;
+    }
+
+    // the last lines of a stream, bounded by their total length
+    private static final class LineRingBuffer {
+        private final int maxChars;
+        private final ArrayDeque<String> lines = new ArrayDeque<>();
+        private int chars;
+        private long droppedLines;
+
+        LineRingBuffer(int maxChars) {
+            this.maxChars = maxChars;
+        }
+
+        synchronized void append(String line) {
+            if (line.length() > maxChars) {
+                line = line.substring(line.length() - maxChars);
+            }
+            lines.addLast(line);
+            chars += line.length() + 1;
+            while (chars > maxChars && lines.size() > 1) {
+                chars -= lines.pollFirst().length() + 1;
+                droppedLines++;
+            }
+        }
+
+        @Override
+        public synchronized String toString() {
+            StringBuilder text = new StringBuilder(chars + 64);
+            if (droppedLines > 0) {
+                text.append("... ").append(droppedLines).append(" earlier lines omitted ...").append(System.lineSeparator());
+            }
+            for (String line : lines) {
+                text.append(line).append(System.lineSeparator());
+            }
+            return text.toString();
+        }
+    }
+}
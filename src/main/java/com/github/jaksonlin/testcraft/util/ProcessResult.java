@@ -4,11 +4,18 @@ public class ProcessResult {
     private final int exitCode;
     private final String output;
     private final String errorOutput;
+    // complete output of the process when it was spilled to disk, output and errorOutput only hold the tails then
+    private final String outputLogFile;
 
     public ProcessResult(int exitCode, String output, String errorOutput) {
+        this(exitCode, output, errorOutput, null);
+    }
+
+    public ProcessResult(int exitCode, String output, String errorOutput, String outputLogFile) {
         this.exitCode = exitCode;
         this.output = output;
         this.errorOutput = errorOutput;
+        this.outputLogFile = outputLogFile;
     }
 
     public int getExitCode() {
@@ -22,4 +29,8 @@ public class ProcessResult {
     public String getErrorOutput() {
         return errorOutput;
     }
+
+    public String getOutputLogFile() {
+        return outputLogFile;
+    }
 }
@@ -0,0 +1,84 @@
+package com.github.jaksonlin.testcraft.util;
+
+import org.pitest.classpath.CodeSource;
+import org.pitest.coverage.CoverageDatabase;
+import org.pitest.coverage.TestInfo;
+import org.pitest.mutationtest.build.DefaultTestPrioritiser;
+import org.pitest.mutationtest.build.TestPrioritiser;
+import org.pitest.mutationtest.build.TestPrioritiserFactory;
+import org.pitest.util.Log;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Pitest plugin ordering the tests of each mutant by what the previous run of the target class learned.
+ * <p>
+ * This class runs inside the pitest process (registered in META-INF/services), so it must only depend on the JDK and
+ * the pitest jars. The tests themselves still come from the coverage of the current run: a mutant on a line no test
+ * covers gets no tests and pitest reports it as NO_COVERAGE without starting a minion for it. Of the covering tests,
+ * those that killed mutants on the same line last time run first, then those that covered it last time, then the rest
+ * in the default pitest order. Without a priorities file the default order is kept.
+ */
+public class TestCraftTestPrioritiserFactory implements TestPrioritiserFactory {
+
+    @Override
+    public String description() {
+        return "TestCraft test prioritiser (previous killers first)";
+    }
+
+    @Override
+    public TestPrioritiser makeTestPrioritiser(Properties properties, CodeSource code, CoverageDatabase coverage) {
+        TestPrioritiser defaultPrioritiser = new DefaultTestPrioritiser(coverage);
+        String prioritiesFile = properties.getProperty(TestPriorities.PLUGIN_CONFIGURATION_KEY);
+        if (prioritiesFile == null) {
+            return defaultPrioritiser;
+        }
+        Path path = Paths.get(prioritiesFile);
+        if (!Files.exists(path)) {
+            return defaultPrioritiser;
+        }
+        TestPriorities priorities;
+        try {
+            priorities = TestPriorities.read(path);
+        } catch (IOException e) {
+            Log.getLogger().warning("TestCraft: cannot read test priorities from " + path + ", using the default order: " + e.getMessage());
+            return defaultPrioritiser;
+        }
+        if (priorities.isEmpty()) {
+            return defaultPrioritiser;
+        }
+        return mutation -> {
+            List<TestInfo> tests = defaultPrioritiser.assignTests(mutation);
+            if (tests.size() < 2) {
+                return tests;
+            }
+            int line = mutation.getLineNumber();
+            Map<String, TestInfo> remaining = new LinkedHashMap<>();
+            for (TestInfo test : tests) {
+                remaining.put(test.getName(), test);
+            }
+            List<TestInfo> ordered = new ArrayList<>(tests.size());
+            moveFirst(priorities.getKillers(line), remaining, ordered);
+            moveFirst(priorities.getCoveringTests(line), remaining, ordered);
+            ordered.addAll(remaining.values());
+            return ordered;
+        };
+    }
+
+    private static void moveFirst(List<String> testNames, Map<String, TestInfo> remaining, List<TestInfo> ordered) {
+        for (String testName : testNames) {
+            TestInfo test = remaining.remove(testName);
+            if (test != null) {
+                ordered.add(test);
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.github.jaksonlin.testcraft.util;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * What the previous run of a target class knew about its tests, per source line: the tests that killed mutants on
+ * the line (most kills first) and the tests that covered it.
+ * <p>
+ * Written by the IDE after a run and read by {@link TestCraftTestPrioritiserFactory} inside the pitest process, so
+ * this class must only depend on the JDK. The file has one line per source line:
+ * {@code line<TAB>killer|killer<TAB>test|test}.
+ */
+public final class TestPriorities {
+    public static final String FILE_NAME = "testcraft-test-priorities.txt";
+    public static final String LINE_COVERAGE_FILE = "linecoverage.xml";
+    // the --pluginConfiguration key pointing the prioritiser to the file
+    public static final String PLUGIN_CONFIGURATION_KEY = "testcraft.testPriorities";
+    private static final String TEST_SEPARATOR = "|";
+
+    private final Map<Integer, List<String>> killers;
+    private final Map<Integer, List<String>> coveringTests;
+
+    private TestPriorities(Map<Integer, List<String>> killers, Map<Integer, List<String>> coveringTests) {
+        this.killers = killers;
+        this.coveringTests = coveringTests;
+    }
+
+    public List<String> getKillers(int line) {
+        return killers.getOrDefault(line, Collections.emptyList());
+    }
+
+    public List<String> getCoveringTests(int line) {
+        return coveringTests.getOrDefault(line, Collections.emptyList());
+    }
+
+    public boolean isEmpty() {
+        return killers.isEmpty() && coveringTests.isEmpty();
+    }
+
+    /**
+     * @return these priorities completed with the lines only the older ones know, for runs limited to some methods
+     */
+    public TestPriorities withLinesOf(TestPriorities older) {
+        Set<Integer> ownLines = new TreeSet<>(killers.keySet());
+        ownLines.addAll(coveringTests.keySet());
+        Map<Integer, List<String>> mergedKillers = new HashMap<>(older.killers);
+        Map<Integer, List<String>> mergedCoveringTests = new HashMap<>(older.coveringTests);
+        mergedKillers.keySet().removeAll(ownLines);
+        mergedCoveringTests.keySet().removeAll(ownLines);
+        mergedKillers.putAll(killers);
+        mergedCoveringTests.putAll(coveringTests);
+        return new TestPriorities(mergedKillers, mergedCoveringTests);
+    }
+
+    public static TestPriorities read(Path file) throws IOException {
+        Map<Integer, List<String>> killers = new HashMap<>();
+        Map<Integer, List<String>> coveringTests = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] columns = line.split("\t", -1);
+                if (columns.length != 3 || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    int sourceLine = Integer.parseInt(columns[0]);
+                    putTests(killers, sourceLine, columns[1]);
+                    putTests(coveringTests, sourceLine, columns[2]);
+                } catch (NumberFormatException e) {
+                    // not a line of ours, skip it
+                }
+            }
+        }
+        return new TestPriorities(killers, coveringTests);
+    }
+
+    public void write(Path file) throws IOException {
+        Set<Integer> lines = new TreeSet<>(killers.keySet());
+        lines.addAll(coveringTests.keySet());
+        Path partial = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(partial, StandardCharsets.UTF_8)) {
+            writer.write("# line\tkilling tests, most kills first\tcovering tests");
+            writer.newLine();
+            for (int line : lines) {
+                writer.write(line + "\t" + String.join(TEST_SEPARATOR, getKillers(line)) + "\t" + String.join(TEST_SEPARATOR, getCoveringTests(line)));
+                writer.newLine();
+            }
+        }
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads the linecoverage.xml pitest writes with --exportLineCoverage.
+     * @return the tests covering each block, keyed by {@link #blockKey}
+     */
+    public static Map<String, List<String>> readLineCoverage(Path lineCoverageXml) throws IOException {
+        Map<String, List<String>> testsPerBlock = new HashMap<>();
+        XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        try (InputStream inputStream = Files.newInputStream(lineCoverageXml)) {
+            XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(inputStream, "UTF-8");
+            try {
+                List<String> blockTests = null;
+                while (reader.hasNext()) {
+                    if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+                    if ("block".equals(reader.getLocalName())) {
+                        blockTests = new ArrayList<>();
+                        // the method attribute is the method name directly followed by its descriptor
+                        testsPerBlock.put(reader.getAttributeValue(null, "classname") + "#" + reader.getAttributeValue(null, "method")
+                                + "#" + reader.getAttributeValue(null, "number"), blockTests);
+                    } else if ("test".equals(reader.getLocalName()) && blockTests != null) {
+                        blockTests.add(reader.getAttributeValue(null, "name"));
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot read " + lineCoverageXml, e);
+        }
+        return testsPerBlock;
+    }
+
+    public static String blockKey(String className, String methodName, String methodDescriptor, int block) {
+        return className + "#" + methodName + methodDescriptor + "#" + block;
+    }
+
+    private static void putTests(Map<Integer, List<String>> tests, int line, String column) {
+        if (!column.isEmpty()) {
+            tests.put(line, Arrays.asList(column.split("\\" + TEST_SEPARATOR)));
+        }
+    }
+
+    public static class Builder {
+        private final Map<Integer, Map<String, Integer>> killCounts = new TreeMap<>();
+        private final Map<Integer, Set<String>> coveringTests = new TreeMap<>();
+
+        /**
+         * @param killingTests the killingTest of a killed mutant, several tests are separated by |
+         */
+        public Builder addKill(int line, String killingTests) {
+            if (killingTests == null || killingTests.isEmpty()) {
+                return this;
+            }
+            Map<String, Integer> counts = killCounts.computeIfAbsent(line, key -> new LinkedHashMap<>());
+            for (String killingTest : killingTests.split("\\" + TEST_SEPARATOR)) {
+                if (!killingTest.isEmpty()) {
+                    counts.merge(killingTest, 1, Integer::sum);
+                }
+            }
+            return this;
+        }
+
+        public Builder addCoveringTests(int line, Collection<String> tests) {
+            if (tests != null && !tests.isEmpty()) {
+                coveringTests.computeIfAbsent(line, key -> new LinkedHashSet<>()).addAll(tests);
+            }
+            return this;
+        }
+
+        public TestPriorities build() {
+            Map<Integer, List<String>> killers = new HashMap<>();
+            for (Map.Entry<Integer, Map<String, Integer>> entry : killCounts.entrySet()) {
+                List<String> lineKillers = new ArrayList<>(entry.getValue().keySet());
+                Map<String, Integer> counts = entry.getValue();
+                lineKillers.sort((first, second) -> Integer.compare(counts.get(second), counts.get(first)));
+                killers.put(entry.getKey(), lineKillers);
+            }
+            Map<Integer, List<String>> covering = new HashMap<>();
+            for (Map.Entry<Integer, Set<String>> entry : coveringTests.entrySet()) {
+                covering.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+            }
+            return new TestPriorities(killers, covering);
+        }
+    }
+}
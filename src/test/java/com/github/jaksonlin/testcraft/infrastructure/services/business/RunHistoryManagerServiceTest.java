@@ -0,0 +1,135 @@
+package com.github.jaksonlin.testcraft.infrastructure.services.business;
+
+import com.github.jaksonlin.testcraft.domain.context.PitestContext;
+import com.github.jaksonlin.testcraft.util.Mutation;
+import com.github.jaksonlin.testcraft.util.MutationResult;
+import com.github.jaksonlin.testcraft.util.MutationTable;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Migration of the single file run history of older versions into the {@link RunHistoryStore}.
+ */
+public class RunHistoryManagerServiceTest {
+    // what older versions wrote: the contexts by class, each with its list of mutations
+    private static final String LEGACY_HISTORY = "{\n" +
+            "  \"com.example.Foo\": {\n" +
+            "    \"targetClassFullyQualifiedName\": \"com.example.Foo\",\n" +
+            "    \"targetClassPackageName\": \"com.example\",\n" +
+            "    \"targetClassName\": \"Foo\",\n" +
+            "    \"targetClassFilePath\": \"/project/src/main/java/com/example/Foo.java\",\n" +
+            "    \"timestamp\": 10,\n" +
+            "    \"mutationResults\": [\n" +
+            "      {\"detected\": true, \"status\": \"KILLED\", \"numberOfTestsRun\": 1, \"lineNumber\": 12,\n" +
+            "       \"mutatedMethod\": \"add\", \"killingTest\": \"com.example.FooTest.add\"},\n" +
+            "      {\"detected\": false, \"status\": \"SURVIVED\", \"numberOfTestsRun\": 2, \"lineNumber\": 20,\n" +
+            "       \"mutatedMethod\": \"remove\"}\n" +
+            "    ]\n" +
+            "  },\n" +
+            "  \"com.example.Bar\": {\n" +
+            "    \"targetClassFullyQualifiedName\": \"com.example.Bar\",\n" +
+            "    \"targetClassPackageName\": \"com.example\",\n" +
+            "    \"targetClassName\": \"Bar\",\n" +
+            "    \"timestamp\": 11\n" +
+            "  }\n" +
+            "}\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void movesLegacyHistoryIntoTheStoreAndDeletesIt() throws IOException {
+        File legacyHistoryFile = writeLegacyHistory(LEGACY_HISTORY);
+        File directory = new File(folder.getRoot(), "run-history");
+        RunHistoryStore store = new RunHistoryStore(directory);
+
+        RunHistoryManagerService.migrateLegacyRunHistory(store, legacyHistoryFile);
+
+        assertFalse(legacyHistoryFile.exists());
+        assertFalse(backupOf(legacyHistoryFile).exists());
+        RunHistoryStore reloaded = new RunHistoryStore(directory);
+        assertTrue(reloaded.contains("com.example.Foo"));
+        assertTrue(reloaded.contains("com.example.Bar"));
+        PitestContext foo = reloaded.read("com.example.Foo");
+        assertNotNull(foo);
+        assertEquals(10L, foo.getTimestamp());
+        assertEquals("/project/src/main/java/com/example/Foo.java", foo.getTargetClassFilePath());
+        MutationTable mutationTable = reloaded.readMutations("com.example.Foo");
+        assertNotNull(mutationTable);
+        List<MutationResult> mutations = mutationTable.asList();
+        assertEquals(2, mutations.size());
+        assertEquals("KILLED", mutations.get(0).getStatus());
+        assertEquals(12, mutations.get(0).getLineNumber());
+        assertEquals("com.example.FooTest.add", mutations.get(0).getKillingTest());
+        assertEquals("SURVIVED", mutations.get(1).getStatus());
+        assertEquals("remove", mutations.get(1).getMutatedMethod());
+    }
+
+    @Test
+    public void keepsTheRunsTheStoreAlreadyHas() throws IOException {
+        File legacyHistoryFile = writeLegacyHistory(LEGACY_HISTORY);
+        RunHistoryStore store = new RunHistoryStore(new File(folder.getRoot(), "run-history"));
+        PitestContext newer = new PitestContext(50L);
+        newer.setTargetClassFullyQualifiedName("com.example.Foo");
+        newer.setTargetClassName("Foo");
+        newer.setMutationTable(MutationTable.of(Collections.singletonList(
+                new Mutation(true, "KILLED", 1, "Foo.java", "com.example.Foo", "add", "()V", 13, "MATH", null, null, null, null))));
+        store.append(newer);
+
+        RunHistoryManagerService.migrateLegacyRunHistory(store, legacyHistoryFile);
+
+        assertFalse(legacyHistoryFile.exists());
+        assertEquals(50L, store.read("com.example.Foo").getTimestamp());
+        assertEquals(1, store.readMutations("com.example.Foo").size());
+        assertEquals(11L, store.read("com.example.Bar").getTimestamp());
+    }
+
+    @Test
+    public void keepsBrokenLegacyHistoryAsBackup() throws IOException {
+        String brokenHistory = "{\"com.example.Foo\": {\"targetClassFullyQualifiedName\": \"com.exa";
+        File legacyHistoryFile = writeLegacyHistory(brokenHistory);
+        RunHistoryStore store = new RunHistoryStore(new File(folder.getRoot(), "run-history"));
+
+        RunHistoryManagerService.migrateLegacyRunHistory(store, legacyHistoryFile);
+
+        assertFalse(legacyHistoryFile.exists());
+        File backup = backupOf(legacyHistoryFile);
+        assertTrue(backup.exists());
+        assertEquals(brokenHistory, new String(Files.readAllBytes(backup.toPath()), StandardCharsets.UTF_8));
+        assertTrue(store.getEntries().isEmpty());
+    }
+
+    @Test
+    public void doesNothingWithoutLegacyHistory() {
+        File directory = new File(folder.getRoot(), "run-history");
+        RunHistoryStore store = new RunHistoryStore(directory);
+
+        RunHistoryManagerService.migrateLegacyRunHistory(store, new File(folder.getRoot(), "run-history.json"));
+
+        assertTrue(store.getEntries().isEmpty());
+        assertFalse(directory.exists());
+    }
+
+    private File writeLegacyHistory(String json) throws IOException {
+        File legacyHistoryFile = new File(folder.getRoot(), "run-history.json");
+        Files.write(legacyHistoryFile.toPath(), json.getBytes(StandardCharsets.UTF_8));
+        return legacyHistoryFile;
+    }
+
+    private static File backupOf(File legacyHistoryFile) {
+        return new File(legacyHistoryFile.getParentFile(), legacyHistoryFile.getName() + ".bak");
+    }
+}
@@ -0,0 +1,267 @@
+package com.github.jaksonlin.testcraft.infrastructure.services.business;
+
+import com.github.jaksonlin.testcraft.domain.context.PitestContext;
+import com.github.jaksonlin.testcraft.util.Mutation;
+import com.github.jaksonlin.testcraft.util.MutationResult;
+import com.github.jaksonlin.testcraft.util.MutationTable;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RunHistoryStoreTest {
+    // a run of 20 mutations takes about 2 KB, so a few runs fill a segment
+    private static final long SEGMENT_SIZE = 8 * 1024;
+    private static final long COMPACTION_MIN_SIZE = 16 * 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsBackWhatWasAppended() throws IOException {
+        File directory = folder.newFolder("run-history");
+        RunHistoryStore store = new RunHistoryStore(directory);
+        store.append(run("com.example.Foo", 1L, 3));
+        store.append(run("com.example.Bar", 2L, 0));
+
+        for (RunHistoryStore reloaded : new RunHistoryStore[]{store, new RunHistoryStore(directory)}) {
+            assertEquals(Arrays.asList("com.example.Foo", "com.example.Bar"), classesOf(reloaded));
+            PitestContext foo = reloaded.read("com.example.Foo");
+            assertNotNull(foo);
+            assertEquals("Foo", foo.getTargetClassName());
+            assertEquals("com.example", foo.getTargetClassPackageName());
+            assertEquals("/project/src/main/java/com/example/Foo.java", foo.getTargetClassFilePath());
+            assertEquals(1L, foo.getTimestamp());
+            // the mutations are a record of their own
+            assertNull(foo.getMutationTable());
+            assertMutations(reloaded.readMutations("com.example.Foo"), 3);
+            assertNull(reloaded.readMutations("com.example.Bar"));
+            assertNull(reloaded.read("com.example.Missing"));
+        }
+    }
+
+    @Test
+    public void laterRunReplacesEarlierRunOfTheSameClass() throws IOException {
+        File directory = folder.newFolder("run-history");
+        RunHistoryStore store = new RunHistoryStore(directory);
+        store.append(run("com.example.Foo", 1L, 3));
+        store.append(run("com.example.Bar", 2L, 1));
+        store.append(run("com.example.Foo", 3L, 5));
+
+        RunHistoryStore reloaded = new RunHistoryStore(directory);
+        // the latest save comes last
+        assertEquals(Arrays.asList("com.example.Bar", "com.example.Foo"), classesOf(reloaded));
+        assertEquals(3L, reloaded.read("com.example.Foo").getTimestamp());
+        assertMutations(reloaded.readMutations("com.example.Foo"), 5);
+    }
+
+    @Test
+    public void rotatesSegmentsWhenTheyAreFull() throws IOException {
+        File directory = folder.newFolder("run-history");
+        RunHistoryStore store = new RunHistoryStore(directory, SEGMENT_SIZE, COMPACTION_MIN_SIZE);
+        for (int i = 0; i < 10; i++) {
+            store.append(run("com.example.Class" + i, i, 20));
+        }
+
+        assertTrue(segmentsOf(directory).size() > 1);
+        RunHistoryStore reloaded = new RunHistoryStore(directory, SEGMENT_SIZE, COMPACTION_MIN_SIZE);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, reloaded.read("com.example.Class" + i).getTimestamp());
+            assertMutations(reloaded.readMutations("com.example.Class" + i), 20);
+        }
+    }
+
+    @Test
+    public void skipsIndexLineCutShortByACrash() throws IOException {
+        File directory = folder.newFolder("run-history");
+        RunHistoryStore store = new RunHistoryStore(directory);
+        store.append(run("com.example.Foo", 1L, 3));
+        Files.write(new File(directory, "index.log").toPath(), "{\"targetClassFullyQualifiedName\":\"com.exa".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        RunHistoryStore reloaded = new RunHistoryStore(directory);
+        assertEquals(Arrays.asList("com.example.Foo"), classesOf(reloaded));
+        assertMutations(reloaded.readMutations("com.example.Foo"), 3);
+    }
+
+    @Test
+    public void compactionKeepsOnlyTheLatestRuns() throws IOException {
+        File directory = folder.newFolder("run-history");
+        RunHistoryStore store = new RunHistoryStore(directory, SEGMENT_SIZE, COMPACTION_MIN_SIZE);
+        appendUntilCompactionIsNeeded(store);
+        long sizeBefore = sizeOf(segmentsOf(directory));
+
+        store.compact();
+
+        assertFalse(store.needsCompaction());
+        assertTrue(sizeOf(segmentsOf(directory)) < sizeBefore);
+        assertNoTemporaryFiles(directory);
+        RunHistoryStore reloaded = new RunHistoryStore(directory, SEGMENT_SIZE, COMPACTION_MIN_SIZE);
+        assertEquals(Arrays.asList("com.example.Bar", "com.example.Foo"), classesOf(reloaded));
+        assertEquals(99L, reloaded.read("com.example.Foo").getTimestamp());
+        assertMutations(reloaded.readMutations("com.example.Foo"), 20);
+        assertMutations(reloaded.readMutations("com.example.Bar"), 20);
+    }
+
+    @Test
+    public void compactionKeepsRunsAppendedWhileItCopies() throws IOException {
+        File directory = folder.newFolder("run-history");
+        RunHistoryStore store = new RunHistoryStore(directory, SEGMENT_SIZE, COMPACTION_MIN_SIZE) {
+            @Override
+            void copyLiveRecords(List<IndexEntry> snapshot, List<File> parts, List<IndexEntry> compacted) throws IOException {
+                super.copyLiveRecords(snapshot, parts, compacted);
+                append(run("com.example.Bar", 100L, 7));
+                append(run("com.example.Baz", 101L, 2));
+            }
+        };
+        appendUntilCompactionIsNeeded(store);
+
+        store.compact();
+
+        assertNoTemporaryFiles(directory);
+        for (RunHistoryStore reloaded : new RunHistoryStore[]{store, new RunHistoryStore(directory)}) {
+            assertEquals(Arrays.asList("com.example.Foo", "com.example.Bar", "com.example.Baz"), classesOf(reloaded));
+            assertEquals(99L, reloaded.read("com.example.Foo").getTimestamp());
+            assertMutations(reloaded.readMutations("com.example.Foo"), 20);
+            assertEquals(100L, reloaded.read("com.example.Bar").getTimestamp());
+            assertMutations(reloaded.readMutations("com.example.Bar"), 7);
+            assertMutations(reloaded.readMutations("com.example.Baz"), 2);
+        }
+    }
+
+    @Test
+    public void clearWhileCompactionCopiesDropsTheCopies() throws IOException {
+        File directory = folder.newFolder("run-history");
+        RunHistoryStore store = new RunHistoryStore(directory, SEGMENT_SIZE, COMPACTION_MIN_SIZE) {
+            @Override
+            void copyLiveRecords(List<IndexEntry> snapshot, List<File> parts, List<IndexEntry> compacted) throws IOException {
+                super.copyLiveRecords(snapshot, parts, compacted);
+                clear();
+            }
+        };
+        appendUntilCompactionIsNeeded(store);
+
+        store.compact();
+
+        assertTrue(store.getEntries().isEmpty());
+        assertTrue(segmentsOf(directory).isEmpty());
+        assertNoTemporaryFiles(directory);
+        assertTrue(new RunHistoryStore(directory).getEntries().isEmpty());
+
+        store.append(run("com.example.Foo", 200L, 1));
+        RunHistoryStore reloaded = new RunHistoryStore(directory);
+        assertEquals(Arrays.asList("com.example.Foo"), classesOf(reloaded));
+        assertMutations(reloaded.readMutations("com.example.Foo"), 1);
+    }
+
+    @Test
+    public void runSavedAfterClearWhileCompactionCopiesIsTheOnlyOneLeft() throws IOException {
+        File directory = folder.newFolder("run-history");
+        RunHistoryStore store = new RunHistoryStore(directory, SEGMENT_SIZE, COMPACTION_MIN_SIZE) {
+            @Override
+            void copyLiveRecords(List<IndexEntry> snapshot, List<File> parts, List<IndexEntry> compacted) throws IOException {
+                super.copyLiveRecords(snapshot, parts, compacted);
+                clear();
+                append(run("com.example.Baz", 300L, 2));
+            }
+        };
+        appendUntilCompactionIsNeeded(store);
+
+        store.compact();
+
+        assertNoTemporaryFiles(directory);
+        for (RunHistoryStore reloaded : new RunHistoryStore[]{store, new RunHistoryStore(directory)}) {
+            assertEquals(Arrays.asList("com.example.Baz"), classesOf(reloaded));
+            assertEquals(300L, reloaded.read("com.example.Baz").getTimestamp());
+            assertMutations(reloaded.readMutations("com.example.Baz"), 2);
+        }
+    }
+
+    // Bar once, then Foo again and again until most of the store are replaced runs, the last run of Foo has timestamp 99
+    private static void appendUntilCompactionIsNeeded(RunHistoryStore store) throws IOException {
+        store.append(run("com.example.Bar", 0L, 20));
+        for (int i = 1; !store.needsCompaction(); i++) {
+            assertTrue("no compaction needed after " + i + " runs", i < 99);
+            store.append(run("com.example.Foo", i, 20));
+        }
+        store.append(run("com.example.Foo", 99L, 20));
+    }
+
+    private static PitestContext run(String targetClassFullyQualifiedName, long timestamp, int mutations) {
+        String packageName = targetClassFullyQualifiedName.substring(0, targetClassFullyQualifiedName.lastIndexOf('.'));
+        String className = targetClassFullyQualifiedName.substring(packageName.length() + 1);
+        PitestContext context = new PitestContext(timestamp);
+        context.setTargetClassFullyQualifiedName(targetClassFullyQualifiedName);
+        context.setTargetClassPackageName(packageName);
+        context.setTargetClassName(className);
+        context.setTargetClassFilePath("/project/src/main/java/" + targetClassFullyQualifiedName.replace('.', '/') + ".java");
+        if (mutations > 0) {
+            List<Mutation> mutationList = new ArrayList<>();
+            for (int i = 0; i < mutations; i++) {
+                mutationList.add(new Mutation(i % 2 == 0, i % 2 == 0 ? "KILLED" : "SURVIVED", 1, className + ".java",
+                        targetClassFullyQualifiedName, "method" + i, "()V", i + 1,
+                        "org.pitest.mutationtest.engine.gregor.mutators.MathMutator", null, null,
+                        i % 2 == 0 ? targetClassFullyQualifiedName + "Test.test" + i : null, "Replaced integer addition with subtraction"));
+            }
+            context.setMutationTable(MutationTable.of(mutationList));
+        }
+        return context;
+    }
+
+    private static void assertMutations(MutationTable mutationTable, int expectedSize) {
+        assertNotNull(mutationTable);
+        List<MutationResult> mutations = mutationTable.asList();
+        assertEquals(expectedSize, mutations.size());
+        for (int i = 0; i < expectedSize; i++) {
+            MutationResult mutation = mutations.get(i);
+            assertEquals(i + 1, mutation.getLineNumber());
+            assertEquals("method" + i, mutation.getMutatedMethod());
+            assertEquals(i % 2 == 0 ? "KILLED" : "SURVIVED", mutation.getStatus());
+        }
+    }
+
+    private static List<String> classesOf(RunHistoryStore store) {
+        return store.getEntries().stream().map(entry -> entry.targetClassFullyQualifiedName).collect(Collectors.toList());
+    }
+
+    private static List<File> segmentsOf(File directory) {
+        List<File> segments = new ArrayList<>();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().startsWith("segment-")) {
+                    segments.add(file);
+                }
+            }
+        }
+        return segments;
+    }
+
+    private static long sizeOf(List<File> files) {
+        return files.stream().mapToLong(File::length).sum();
+    }
+
+    private static void assertNoTemporaryFiles(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                assertFalse(file.getName(), file.getName().endsWith(".tmp"));
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.jaksonlin.testcraft.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AssertionPatternMatcherTest {
+
+    @Test
+    public void findsPatternWithItsOffset() {
+        AssertionPatternMatcher matcher = AssertionPatternMatcher.compile(Arrays.asList("assertTrue(true)", "assertNotNull(this)"));
+
+        AssertionPatternMatcher.Match match = matcher.findFirst("int a = 1;\n    assertNotNull(this);\n");
+
+        assertNotNull(match);
+        assertEquals("assertNotNull(this)", match.getPattern());
+        assertEquals(15, match.getOffset());
+    }
+
+    @Test
+    public void returnsNullWithoutMatch() {
+        AssertionPatternMatcher matcher = AssertionPatternMatcher.compile(Arrays.asList("assertTrue(true)", "assertNotNull(this)"));
+
+        assertNull(matcher.findFirst("assertTrue(result);"));
+        assertNull(matcher.findFirst(""));
+    }
+
+    @Test
+    public void returnsTheMatchThatEndsFirst() {
+        AssertionPatternMatcher matcher = AssertionPatternMatcher.compile(Arrays.asList("assertEquals(1, 1)", "assertTrue(true)"));
+
+        AssertionPatternMatcher.Match match = matcher.findFirst("assertTrue(true); assertEquals(1, 1);");
+
+        assertNotNull(match);
+        assertEquals("assertTrue(true)", match.getPattern());
+        assertEquals(0, match.getOffset());
+    }
+
+    @Test
+    public void prefersTheLongestPatternEndingAtTheSamePlace() {
+        AssertionPatternMatcher matcher = AssertionPatternMatcher.compile(Arrays.asList("(true)", "assertTrue(true)"));
+
+        AssertionPatternMatcher.Match match = matcher.findFirst("x; assertTrue(true);");
+
+        assertNotNull(match);
+        assertEquals("assertTrue(true)", match.getPattern());
+        assertEquals(3, match.getOffset());
+    }
+
+    @Test
+    public void findsPatternInsideAPartialMatchOfAnother() {
+        // after "abc" the x does not continue "abcd", the fail link has to fall back to "bc"
+        AssertionPatternMatcher matcher = AssertionPatternMatcher.compile(Arrays.asList("abcd", "bcx"));
+
+        AssertionPatternMatcher.Match match = matcher.findFirst("zabcx");
+
+        assertNotNull(match);
+        assertEquals("bcx", match.getPattern());
+        assertEquals(2, match.getOffset());
+    }
+
+    @Test
+    public void ignoresEmptyPatterns() {
+        AssertionPatternMatcher matcher = AssertionPatternMatcher.compile(Arrays.asList("", null));
+
+        assertTrue(matcher.isEmpty());
+        assertNull(matcher.findFirst("assertTrue(true);"));
+        assertTrue(AssertionPatternMatcher.compile(Collections.<String>emptyList()).isEmpty());
+    }
+
+    @Test
+    public void countsDuplicatePatternsOnce() {
+        AssertionPatternMatcher matcher = AssertionPatternMatcher.compile(Arrays.asList("assertTrue(true)", "assertTrue(true)", ""));
+
+        assertFalse(matcher.isEmpty());
+        assertEquals("assertTrue(true)", matcher.findFirst("assertTrue(true)").getPattern());
+    }
+}
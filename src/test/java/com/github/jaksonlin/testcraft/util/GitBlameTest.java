@@ -0,0 +1,132 @@
+package com.github.jaksonlin.testcraft.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class GitBlameTest {
+    private static final String FIRST = "1111111111111111111111111111111111111111";
+    private static final String SECOND = "2222222222222222222222222222222222222222";
+    private static final String NOT_COMMITTED = "0000000000000000000000000000000000000000";
+
+    // git blame --porcelain of a file of five lines, the details of a commit only come with its first group
+    private static final List<String> PORCELAIN = Arrays.asList(
+            FIRST + " 1 1 2",
+            "author Alice",
+            "author-mail <alice@example.com>",
+            "author-time 1700000000",
+            "author-tz +0000",
+            "committer Alice",
+            "committer-mail <alice@example.com>",
+            "committer-time 1700000000",
+            "committer-tz +0000",
+            "summary Add Foo",
+            "boundary",
+            "filename src/main/java/Foo.java",
+            "\tpublic class Foo {",
+            FIRST + " 2 2",
+            "\t    int a;",
+            SECOND + " 3 3 1",
+            "author Bob",
+            "author-mail <bob@example.com>",
+            "author-time 1700005000",
+            "author-tz +0100",
+            "summary Add b",
+            "previous " + FIRST + " src/main/java/Foo.java",
+            "filename src/main/java/Foo.java",
+            // content that looks like a header must not be taken for one
+            "\tauthor Mallory",
+            NOT_COMMITTED + " 4 4 1",
+            "author Not Committed Yet",
+            "author-mail <not.committed.yet>",
+            "author-time 1700009000",
+            "summary Version of src/main/java/Foo.java from src/main/java/Foo.java",
+            "filename src/main/java/Foo.java",
+            "\t    int c;",
+            FIRST + " 3 5 1",
+            "\t}"
+    );
+
+    @Test
+    public void parsesTheCommitOfEveryLine() {
+        GitBlame blame = GitBlame.parse(PORCELAIN);
+
+        assertEquals(5, blame.getLineCount());
+        GitBlame.Commit first = blame.getCommit(1);
+        assertNotNull(first);
+        assertEquals(FIRST, first.getHash());
+        assertEquals("Alice", first.getAuthor());
+        assertEquals("alice@example.com", first.getEmail());
+        assertEquals(Long.valueOf(1700000000L), first.getTimestamp());
+        assertFalse(first.isNotCommitted());
+        assertSame(first, blame.getCommit(2));
+        assertSame(first, blame.getCommit(5));
+
+        GitBlame.Commit second = blame.getCommit(3);
+        assertEquals(SECOND, second.getHash());
+        assertEquals("Bob", second.getAuthor());
+        assertEquals("bob@example.com", second.getEmail());
+
+        assertTrue(blame.getCommit(4).isNotCommitted());
+        assertNull(blame.getCommit(0));
+        assertNull(blame.getCommit(6));
+    }
+
+    @Test
+    public void latestCommitIsTheNewestOfTheRange() {
+        GitBlame blame = GitBlame.parse(PORCELAIN);
+
+        assertEquals(FIRST, blame.getLatestCommit(1, 2).getHash());
+        assertEquals(SECOND, blame.getLatestCommit(1, 3).getHash());
+        assertEquals(NOT_COMMITTED, blame.getLatestCommit(1, 5).getHash());
+        assertEquals(FIRST, blame.getLatestCommit(5, 5).getHash());
+        // clipped to the lines of the file
+        assertEquals(SECOND, blame.getLatestCommit(-3, 3).getHash());
+        assertEquals(FIRST, blame.getLatestCommit(5, 100).getHash());
+        assertNull(blame.getLatestCommit(6, 10));
+        assertNull(blame.getLatestCommit(3, 2));
+    }
+
+    @Test
+    public void keepsCommitWithBrokenTime() {
+        GitBlame blame = GitBlame.parse(Arrays.asList(
+                FIRST + " 1 1 1",
+                "author Alice",
+                "author-time yesterday",
+                "\tline"));
+
+        assertEquals("Alice", blame.getCommit(1).getAuthor());
+        assertNull(blame.getCommit(1).getTimestamp());
+        // without a time it cannot be the latest
+        assertNull(blame.getLatestCommit(1, 1));
+    }
+
+    @Test
+    public void emptyOutputHasNoLines() {
+        GitBlame blame = GitBlame.parse(Arrays.<String>asList());
+
+        assertEquals(0, blame.getLineCount());
+        assertNull(blame.getCommit(1));
+        assertNull(blame.getLatestCommit(1, 10));
+    }
+
+    @Test
+    public void everyLineOfAnUntrackedFileIsNotCommitted() {
+        GitBlame blame = GitBlame.notCommitted();
+
+        assertEquals(0, blame.getLineCount());
+        assertTrue(blame.getCommit(1).isNotCommitted());
+        assertTrue(blame.getCommit(1000).isNotCommitted());
+        assertNotNull(blame.getLatestCommit(1, 10).getTimestamp());
+        assertNull(blame.getCommit(0));
+        assertNull(blame.getLatestCommit(5, 4));
+    }
+}